@@ -0,0 +1,134 @@
+package de.paydirekt.client.benchmarks;
+
+import de.paydirekt.client.checkout.model.CheckoutRequest;
+import de.paydirekt.client.checkout.model.CheckoutRequestBuilder;
+import de.paydirekt.client.checkout.model.CheckoutType;
+import de.paydirekt.client.checkout.model.Currency;
+import de.paydirekt.client.checkout.model.ItemBuilder;
+import de.paydirekt.client.checkout.model.ShippingAddressBuilder;
+import de.paydirekt.client.reports.model.TransactionReportHeader;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Test data shared by the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    static final String REQUEST_ID = "f3fea5f3-60af-496f-ac3e-dbb10924e87a";
+    static final String API_KEY = "e81d298b-60dd-4f46-9ec9-1dbc72f5b5df";
+    static final String API_SECRET = "JrXRHCnUegQJAYSJ5J6OvEuOUOpy2q2-MHPoH_IECRY=";
+    static final String NONCE = "Qg5f0Q3ly1Cwh5M9zcw57jwHI_HPoKbjdHLurXGpPg0yazdC6OWPpwnYi22bnB6S";
+    static final String TIMESTAMP = "20160201094942";
+    static final String STRING_TO_SIGN = REQUEST_ID + ":" + TIMESTAMP + ":" + API_KEY + ":" + NONCE;
+
+    static CheckoutRequest newCheckoutRequest() {
+        return CheckoutRequestBuilder
+                .aCheckoutRequest()
+                .withType(CheckoutType.ORDER)
+                .withTotalAmount(new BigDecimal("100"))
+                .withShippingAmount(new BigDecimal("3.5"))
+                .withOrderAmount(new BigDecimal("96.5"))
+                .withCurrency(Currency.EUR)
+                .withMerchantCustomerNumber("cust-732477")
+                .withMerchantInvoiceReferenceNumber("20150112334345")
+                .withMerchantOrderReferenceNumber("order-A12223412")
+                .withItems(Arrays.asList(ItemBuilder.anItem()
+                        .withEan("800001303")
+                        .withName("Bobbycar")
+                        .withPrice(new BigDecimal("25.99"))
+                        .withQuantity(3)
+                        .build()))
+                .withShippingAddress(ShippingAddressBuilder.aShippingAddress()
+                        .withAddresseeGivenName("Marie")
+                        .withAddresseeLastName("Mustermann")
+                        .withCity("Berlin")
+                        .withCountryCode("DE")
+                        .withStreet("Hamburger Allee")
+                        .withStreetNr("12a")
+                        .withZip("10781")
+                        .build())
+                .withNote("Ihr Einkauf bei Spielauto-Versand")
+                .withEmailAddress("max@muster.de")
+                .withMinimumAge(18)
+                .withRedirectUrlAfterSuccess("https://spielauto-versand.de/order/123/success")
+                .withRedirectUrlAfterRejection("https://spielauto-versand.de/order/123/rejection")
+                .withRedirectUrlAfterCancellation("https://spielauto-versand.de/order/123/cancellation")
+                .withRedirectUrlAfterAgeVerificationFailure("https://spielauto-versand.de/order/123/ageverificationfailed")
+                .build();
+    }
+
+    /**
+     * A checkout response as returned by the checkout endpoint.
+     */
+    static String checkoutJson() {
+        return checkoutJson("https://api.sandbox.paydirekt.de/api/checkout/v1/checkouts/6be6a80d");
+    }
+
+    /**
+     * A checkout response whose links refer to the given checkout URL.
+     */
+    static String checkoutJson(String checkoutUrl) {
+        return "{\"checkoutId\":\"6be6a80d-ef67-47c1-a5a8-3e8bdc7dcf7a\",\"type\":\"ORDER\",\"status\":\"OPEN\","
+                + "\"creationTimestamp\":\"2016-02-01T09:49:42.433Z\",\"totalAmount\":100,\"shippingAmount\":3.5,"
+                + "\"orderAmount\":96.5,\"currency\":\"EUR\",\"overcapture\":false,"
+                + "\"items\":[{\"ean\":\"800001303\",\"quantity\":3,\"name\":\"Bobbycar\",\"price\":25.99}],"
+                + "\"shippingAddress\":{\"addresseeGivenName\":\"Marie\",\"addresseeLastName\":\"Mustermann\","
+                + "\"street\":\"Hamburger Allee\",\"streetNr\":\"12a\",\"zip\":\"10781\",\"city\":\"Berlin\",\"countryCode\":\"DE\"},"
+                + "\"merchantCustomerNumber\":\"cust-732477\",\"merchantOrderReferenceNumber\":\"order-A12223412\","
+                + "\"merchantInvoiceReferenceNumber\":\"20150112334345\",\"minimumAge\":18,"
+                + "\"redirectUrlAfterSuccess\":\"https://spielauto-versand.de/order/123/success\","
+                + "\"redirectUrlAfterCancellation\":\"https://spielauto-versand.de/order/123/cancellation\","
+                + "\"redirectUrlAfterRejection\":\"https://spielauto-versand.de/order/123/rejection\","
+                + "\"_links\":{\"self\":{\"href\":\"" + checkoutUrl + "\"},"
+                + "\"captures\":{\"href\":\"" + checkoutUrl + "/captures\"},"
+                + "\"refunds\":{\"href\":\"" + checkoutUrl + "/refunds\"}}}";
+    }
+
+    /**
+     * A capture response as returned by the capture endpoint.
+     */
+    static String captureJson() {
+        return "{\"type\":\"CAPTURE_ORDER\",\"amount\":10,\"merchantCaptureReferenceNumber\":\"capture-1\","
+                + "\"status\":\"SUCCESSFUL\"}";
+    }
+
+    /**
+     * A transaction report with the given number of transactions as JSON.
+     */
+    static String transactionReportJson(int transactions) {
+        StringJoiner json = new StringJoiner(",", "{\"transactions\":[", "],\"_links\":{}}");
+        for (int i = 0; i < transactions; i++) {
+            StringJoiner transaction = new StringJoiner(",", "{", "}");
+            for (String header : TransactionReportHeader.getHeaders()) {
+                transaction.add("\"" + header + "\":\"" + value(header, i) + "\"");
+            }
+            json.add(transaction.toString());
+        }
+        return json.toString();
+    }
+
+    /**
+     * A transaction report with the given number of transactions as CSV.
+     */
+    static String transactionReportCsv(int transactions) {
+        StringBuilder csv = new StringBuilder(String.join(",", TransactionReportHeader.getHeaders())).append('\n');
+        for (int i = 0; i < transactions; i++) {
+            StringJoiner row = new StringJoiner(",");
+            for (String header : TransactionReportHeader.getHeaders()) {
+                row.add(value(header, i));
+            }
+            csv.append(row).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String value(String header, int row) {
+        return header + "-" + row;
+    }
+
+    private BenchmarkFixtures() {
+    }
+}
@@ -0,0 +1,107 @@
+package de.paydirekt.client.benchmarks;
+
+import de.paydirekt.client.checkout.CheckoutClient;
+import de.paydirekt.client.checkout.model.Checkout;
+import de.paydirekt.client.checkout.model.CheckoutRequest;
+import de.paydirekt.client.reports.ReportsClient;
+import de.paydirekt.client.reports.model.TransactionReportQueryParameters;
+import de.paydirekt.client.rest.PostRequestBuilder;
+import de.paydirekt.client.rest.RequestExecutor;
+import de.paydirekt.client.rest.RequestExecutorBuilder;
+import de.paydirekt.client.security.model.AccessToken;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.http.client.methods.HttpPost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks building requests and executing them with the clients against an in-process http stub,
+ * via the Apache HttpClient and via the JDK http client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientBenchmark {
+
+    private static final int REPORT_SIZE = 1000;
+
+    @Param({"apache", "jdk"})
+    private String transport;
+
+    private StubServer server;
+    private RequestExecutor requestExecutor;
+    private CheckoutClient checkoutClient;
+    private ReportsClient reportsClient;
+
+    private String checkoutEndpoint;
+    private CheckoutRequest checkoutRequest;
+    private AccessToken accessToken;
+    private TransactionReportQueryParameters queryParameters;
+
+    @Setup
+    public void setUp() {
+        server = new StubServer();
+        checkoutEndpoint = server.respond("/checkouts", "application/hal+json", BenchmarkFixtures.checkoutJson());
+        String reportsEndpoint = server.respond("/reports", "text/csv", BenchmarkFixtures.transactionReportCsv(REPORT_SIZE));
+
+        RequestExecutorBuilder requestExecutorBuilder = RequestExecutorBuilder.aRequestExecutor();
+        requestExecutor = "jdk".equals(transport) ? requestExecutorBuilder.withJdkHttpClient().build() : requestExecutorBuilder.build();
+        checkoutClient = new CheckoutClient(checkoutEndpoint, requestExecutor);
+        reportsClient = new ReportsClient(reportsEndpoint, requestExecutor);
+
+        checkoutRequest = BenchmarkFixtures.newCheckoutRequest();
+        accessToken = new AccessToken("token", 3600L);
+        queryParameters = new TransactionReportQueryParameters();
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestExecutor.close();
+        server.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public HttpPost buildCheckoutRequest() {
+        return new PostRequestBuilder(checkoutEndpoint)
+                .withDefaultHeaders(accessToken)
+                .withEntity(checkoutRequest)
+                .build();
+    }
+
+    @Benchmark
+    public Checkout createCheckout() {
+        return checkoutClient.createCheckout(checkoutRequest, accessToken);
+    }
+
+    @Benchmark
+    public List<CSVRecord> getTransactionsAsCSV() {
+        return reportsClient.getTransactionsAsCSV(queryParameters, accessToken);
+    }
+
+    @Benchmark
+    public void streamTransactionsAsCSV(Blackhole blackhole) {
+        try (Stream<CSVRecord> csvRecords = reportsClient.streamTransactionsAsCSV(queryParameters, accessToken)) {
+            csvRecords.forEach(blackhole::consume);
+        }
+    }
+
+}
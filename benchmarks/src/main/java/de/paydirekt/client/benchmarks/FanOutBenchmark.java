@@ -0,0 +1,126 @@
+package de.paydirekt.client.benchmarks;
+
+import de.paydirekt.client.bulk.BulkExecutor;
+import de.paydirekt.client.bulk.BulkReport;
+import de.paydirekt.client.capture.CaptureClient;
+import de.paydirekt.client.capture.model.Capture;
+import de.paydirekt.client.capture.model.CaptureRequest;
+import de.paydirekt.client.capture.model.CaptureRequestBuilder;
+import de.paydirekt.client.checkout.CheckoutClient;
+import de.paydirekt.client.checkout.model.Checkout;
+import de.paydirekt.client.common.VirtualThreads;
+import de.paydirekt.client.rest.Link;
+import de.paydirekt.client.rest.RequestExecutor;
+import de.paydirekt.client.rest.RequestExecutorBuilder;
+import de.paydirekt.client.security.model.AccessToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static de.paydirekt.client.bulk.BulkExecutorBuilder.aBulkExecutor;
+
+/**
+ * Benchmarks fanning out many blocking client calls against an in-process http stub which answers after
+ * a delay, on a fixed pool of platform threads compared to a virtual thread per call.
+ * <p>
+ * The platform pool is sized like a typical worker pool, so the number of calls in flight is limited by it.
+ * Virtual threads require Java 21, run the benchmark with it, e.g.
+ * {@code java -jar target/benchmarks.jar FanOutBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FanOutBenchmark {
+
+    private static final int CALLS = 200;
+    private static final int PLATFORM_THREADS = 32;
+    private static final long LATENCY_MILLIS = 20;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private StubServer server;
+    private RequestExecutor requestExecutor;
+    private ExecutorService platformThreads;
+    private BulkExecutor bulkExecutor;
+    private CheckoutClient checkoutClient;
+    private CaptureClient captureClient;
+
+    private List<Link> checkoutLinks;
+    private List<Checkout> checkouts;
+    private CaptureRequest captureRequest;
+    private AccessToken accessToken;
+
+    @Setup
+    public void setUp() {
+        if ("virtual".equals(threads) && !VirtualThreads.isSupported()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later");
+        }
+        server = new StubServer(CALLS);
+        String checkoutUrl = server.url("/checkouts/1");
+        server.respond("/checkouts/1", "application/hal+json", BenchmarkFixtures.checkoutJson(checkoutUrl), LATENCY_MILLIS);
+        server.respond("/checkouts/1/captures", "application/hal+json", BenchmarkFixtures.captureJson(), LATENCY_MILLIS);
+
+        requestExecutor = RequestExecutorBuilder.aRequestExecutor()
+                .withMaxConnectionsTotal(CALLS)
+                .withMaxConnectionsPerRoute(CALLS)
+                .build();
+        checkoutClient = new CheckoutClient(checkoutUrl, requestExecutor);
+        captureClient = new CaptureClient(requestExecutor);
+        if ("virtual".equals(threads)) {
+            bulkExecutor = aBulkExecutor().withParallelism(CALLS).build();
+        } else {
+            platformThreads = Executors.newFixedThreadPool(PLATFORM_THREADS);
+            bulkExecutor = aBulkExecutor().withExecutor(platformThreads).withParallelism(PLATFORM_THREADS).build();
+        }
+
+        accessToken = new AccessToken("token", 3600L);
+        checkoutLinks = Collections.nCopies(CALLS, new Link(checkoutUrl));
+        checkouts = Collections.nCopies(CALLS, checkoutClient.getCheckout(new Link(checkoutUrl), accessToken));
+        captureRequest = CaptureRequestBuilder.aCaptureRequest()
+                .withAmount(new BigDecimal("10"))
+                .withMerchantCaptureReferenceNumber("capture-1")
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        bulkExecutor.close();
+        if (platformThreads != null) {
+            platformThreads.shutdown();
+        }
+        requestExecutor.close();
+        server.close();
+    }
+
+    @Benchmark
+    public BulkReport<Link, Checkout> getCheckouts() {
+        return bulkExecutor.execute("checkout.get", checkoutLinks.iterator(), link -> checkoutClient.getCheckout(link, accessToken));
+    }
+
+    @Benchmark
+    public BulkReport<Checkout, Capture> createCaptures() {
+        return bulkExecutor.execute("capture.create", checkouts.iterator(),
+                checkout -> captureClient.createCapture(captureRequest, checkout, accessToken));
+    }
+
+}
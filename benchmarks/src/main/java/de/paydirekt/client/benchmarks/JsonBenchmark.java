@@ -0,0 +1,85 @@
+package de.paydirekt.client.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.paydirekt.client.checkout.model.Checkout;
+import de.paydirekt.client.checkout.model.CheckoutRequest;
+import de.paydirekt.client.reports.model.TransactionReport;
+import de.paydirekt.client.rest.JsonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Benchmarks the JSON (de)serialization of the model.
+ * <p>
+ * The {@code FromString} variants decode the body into a String first, as the client did before
+ * deserializing directly from the response stream; compare them with {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    private ObjectWriter checkoutRequestWriter;
+    private ObjectReader checkoutReader;
+    private ObjectReader transactionReportReader;
+
+    private CheckoutRequest checkoutRequest;
+    private byte[] checkoutBytes;
+    private byte[] transactionReportBytes;
+
+    @Setup
+    public void setUp() {
+        JsonCodec jsonCodec = JsonCodec.getDefault();
+        checkoutRequestWriter = jsonCodec.writerFor(CheckoutRequest.class);
+        checkoutReader = jsonCodec.readerFor(Checkout.class);
+        transactionReportReader = jsonCodec.readerFor(TransactionReport.class);
+
+        checkoutRequest = BenchmarkFixtures.newCheckoutRequest();
+        checkoutBytes = BenchmarkFixtures.checkoutJson().getBytes(UTF_8);
+        transactionReportBytes = BenchmarkFixtures.transactionReportJson(100).getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeCheckoutRequest() throws IOException {
+        return checkoutRequestWriter.writeValueAsBytes(checkoutRequest);
+    }
+
+    @Benchmark
+    public Checkout deserializeCheckoutFromStream() throws IOException {
+        return checkoutReader.readValue(new ByteArrayInputStream(checkoutBytes));
+    }
+
+    @Benchmark
+    public Checkout deserializeCheckoutFromString() throws IOException {
+        return checkoutReader.readValue(new String(checkoutBytes, UTF_8));
+    }
+
+    @Benchmark
+    public TransactionReport deserializeTransactionReportFromStream() throws IOException {
+        return transactionReportReader.readValue(new ByteArrayInputStream(transactionReportBytes));
+    }
+
+    @Benchmark
+    public TransactionReport deserializeTransactionReportFromString() throws IOException {
+        return transactionReportReader.readValue(new String(transactionReportBytes, UTF_8));
+    }
+
+}
@@ -0,0 +1,81 @@
+package de.paydirekt.client.benchmarks;
+
+import de.paydirekt.client.common.Sha256Encoder;
+import de.paydirekt.client.security.BufferedNonceGenerator;
+import de.paydirekt.client.security.Hmac;
+import de.paydirekt.client.security.HmacSigner;
+import de.paydirekt.client.security.Nonce;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static de.paydirekt.client.benchmarks.BenchmarkFixtures.API_KEY;
+import static de.paydirekt.client.benchmarks.BenchmarkFixtures.API_SECRET;
+import static de.paydirekt.client.benchmarks.BenchmarkFixtures.NONCE;
+import static de.paydirekt.client.benchmarks.BenchmarkFixtures.REQUEST_ID;
+import static de.paydirekt.client.benchmarks.BenchmarkFixtures.STRING_TO_SIGN;
+
+/**
+ * Benchmarks the signing of token requests and the hashing of buyer data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityBenchmark {
+
+    private final Instant timestamp = Instant.parse("2016-02-01T09:49:42.433Z");
+    private final HmacSigner signer = new HmacSigner(API_SECRET);
+    private final BufferedNonceGenerator bufferedNonceGenerator = new BufferedNonceGenerator();
+
+    @TearDown
+    public void tearDown() {
+        bufferedNonceGenerator.close();
+    }
+
+    @Benchmark
+    public String hmacSignature() {
+        return Hmac.signature(STRING_TO_SIGN, API_SECRET);
+    }
+
+    @Benchmark
+    public String hmacSignatureOfRequest() {
+        return Hmac.signature(REQUEST_ID, timestamp, API_KEY, API_SECRET, NONCE);
+    }
+
+    @Benchmark
+    public String hmacSignerSign() {
+        return signer.sign(STRING_TO_SIGN);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String createRandomNonce() {
+        return Nonce.createRandomNonce();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String createBufferedNonce() {
+        return bufferedNonceGenerator.createNonce();
+    }
+
+    @Benchmark
+    public String encodeToSha256() {
+        return Sha256Encoder.encodeToSha256("max@muster.de");
+    }
+
+}
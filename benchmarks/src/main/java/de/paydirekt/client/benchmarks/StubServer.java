@@ -0,0 +1,84 @@
+package de.paydirekt.client.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An in-process http server answering requests with fixed responses, so the benchmarks
+ * measure the client instead of the network and the paydirekt system.
+ */
+final class StubServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    StubServer() {
+        this(4);
+    }
+
+    /**
+     * @param threads The number of threads answering requests, which limits the requests served concurrently.
+     */
+    StubServer(int threads) {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newFixedThreadPool(threads));
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Answers all requests to the given path with status 200 and the given body.
+     *
+     * @return The URL of the path.
+     */
+    String respond(String path, String contentType, String body) {
+        return respond(path, contentType, body, 0);
+    }
+
+    /**
+     * Answers all requests to the given path with status 200 and the given body after a delay,
+     * which simulates the latency of the network and the paydirekt system.
+     *
+     * @return The URL of the path.
+     */
+    String respond(String path, String contentType, String body, long delayMillis) {
+        byte[] bytes = body.getBytes(UTF_8);
+        server.createContext(path, exchange -> {
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+        });
+        return url(path);
+    }
+
+    /**
+     * @return The URL of the given path.
+     */
+    String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        ((java.util.concurrent.ExecutorService) server.getExecutor()).shutdownNow();
+    }
+}
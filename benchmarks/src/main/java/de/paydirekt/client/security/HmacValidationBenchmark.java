@@ -0,0 +1,66 @@
+package de.paydirekt.client.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Benchmarks the input validation of {@link Hmac} against the former regular expression based validation.
+ * <p>
+ * Located in the package of {@link Hmac} to access the package local validators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HmacValidationBenchmark {
+
+    private String apiKey = "e81d298b-60dd-4f46-9ec9-1dbc72f5b5df";
+    private String apiSecret = "JrXRHCnUegQJAYSJ5J6OvEuOUOpy2q2-MHPoH_IECRY=";
+    private String nonce = "Qg5f0Q3ly1Cwh5M9zcw57jwHI_HPoKbjdHLurXGpPg0yazdC6OWPpwnYi22bnB6S";
+
+    @Benchmark
+    public boolean isUuid() {
+        return Hmac.isUuid(apiKey);
+    }
+
+    @Benchmark
+    public boolean isUuidRegex() {
+        return apiKey.matches("^[0-9a-f]{8}-[0-9a-f]{4}-[1-5][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$");
+    }
+
+    @Benchmark
+    public boolean isBase64UrlEncoded() {
+        return Hmac.isBase64UrlEncoded(nonce);
+    }
+
+    @Benchmark
+    public boolean isBase64UrlEncodedRegex() {
+        return nonce.matches("[a-zA-Z0-9_-]+[=]{0,2}");
+    }
+
+    @Benchmark
+    public void validateApiSecret() {
+        Hmac.validateApiSecret(apiSecret);
+    }
+
+    @Benchmark
+    public boolean validateApiSecretRegex() {
+        return apiSecret.matches("[a-zA-Z0-9_-]+[=]{0,2}")
+                && Base64.getUrlDecoder().decode(apiSecret.getBytes(UTF_8)).length >= 32;
+    }
+
+}
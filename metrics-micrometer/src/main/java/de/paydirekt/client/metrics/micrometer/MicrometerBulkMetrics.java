@@ -0,0 +1,79 @@
+package de.paydirekt.client.metrics.micrometer;
+
+import de.paydirekt.client.bulk.BulkMetrics;
+import de.paydirekt.client.bulk.BulkSummary;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records the metrics of the bulk operations of a {@link de.paydirekt.client.bulk.BulkExecutor} in a Micrometer {@link MeterRegistry}.
+ * <p>
+ * Meters:
+ * <ul>
+ * <li>{@code paydirekt.bulk.items}: timer of the operations on single items tagged with {@code operation} and {@code outcome}</li>
+ * <li>{@code paydirekt.bulk.duration}: timer of the whole bulk operations tagged with {@code operation}</li>
+ * <li>{@code paydirekt.bulk.throughput}: distribution summary of the items processed per second
+ * tagged with {@code operation}</li>
+ * </ul>
+ */
+public class MicrometerBulkMetrics implements BulkMetrics {
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+
+    /**
+     * Constructor.
+     *
+     * @param registry The registry to record the meters in.
+     */
+    public MicrometerBulkMetrics(MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param registry The registry to record the meters in.
+     * @param tags     Common tags of all meters, e.g. to distinguish several executors.
+     */
+    public MicrometerBulkMetrics(MeterRegistry registry, Iterable<Tag> tags) {
+        requireNonNull(registry);
+        requireNonNull(tags);
+
+        this.registry = registry;
+        this.tags = Tags.of(tags);
+    }
+
+    @Override
+    public void itemCompleted(String operation, boolean successful, long durationNanos) {
+        Timer.builder("paydirekt.bulk.items")
+                .tags(tags)
+                .tag("operation", operation)
+                .tag("outcome", successful ? "SUCCESS" : "FAILURE")
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void bulkCompleted(BulkSummary summary) {
+        Timer.builder("paydirekt.bulk.duration")
+                .tags(tags)
+                .tag("operation", summary.getOperation())
+                .register(registry)
+                .record(summary.getElapsed().toNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("paydirekt.bulk.throughput")
+                .baseUnit("items/s")
+                .tags(tags)
+                .tag("operation", summary.getOperation())
+                .register(registry)
+                .record(summary.getThroughput());
+    }
+
+}
@@ -0,0 +1,146 @@
+package de.paydirekt.client.metrics.micrometer;
+
+import de.paydirekt.client.rest.CallRejectedException;
+import de.paydirekt.client.rest.ConcurrencyLimiter;
+import de.paydirekt.client.rest.RequestMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.http.pool.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records the request metrics of a {@link de.paydirekt.client.rest.RequestExecutor} in a Micrometer {@link MeterRegistry}.
+ * <p>
+ * Meters:
+ * <ul>
+ * <li>{@code paydirekt.requests}: timer tagged with {@code endpoint}, {@code status} and {@code outcome}</li>
+ * <li>{@code paydirekt.requests.rejected}: counter of the requests rejected by circuit breakers and bulkheads
+ * tagged with {@code endpoint} and {@code reason}</li>
+ * <li>{@code paydirekt.requests.queued}: timer of the time requests waited for the concurrency limiter
+ * tagged with {@code endpoint}</li>
+ * <li>{@code paydirekt.response.size}: distribution summary of the body sizes in bytes tagged with {@code endpoint}</li>
+ * <li>{@code paydirekt.deserialization}: timer tagged with {@code endpoint} and {@code type}</li>
+ * <li>{@code paydirekt.pool.leased}, {@code paydirekt.pool.pending}, {@code paydirekt.pool.available}: gauges of the connection pool</li>
+ * <li>{@code paydirekt.concurrency.limit}, {@code paydirekt.concurrency.inflight}, {@code paydirekt.concurrency.queued}:
+ * gauges of the concurrency limiter</li>
+ * </ul>
+ * The count of the request timer per status serves as status code counter.
+ */
+public class MicrometerRequestMetrics implements RequestMetrics {
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+
+    /**
+     * Constructor.
+     *
+     * @param registry The registry to record the meters in.
+     */
+    public MicrometerRequestMetrics(MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param registry The registry to record the meters in.
+     * @param tags     Common tags of all meters, e.g. to distinguish several executors.
+     */
+    public MicrometerRequestMetrics(MeterRegistry registry, Iterable<Tag> tags) {
+        requireNonNull(registry);
+        requireNonNull(tags);
+
+        this.registry = registry;
+        this.tags = Tags.of(tags);
+    }
+
+    @Override
+    public void requestCompleted(String endpoint, int statusCode, long durationNanos) {
+        requestTimer(endpoint, Integer.toString(statusCode), statusCode < 400 ? "SUCCESS" : statusCode < 500 ? "CLIENT_ERROR" : "SERVER_ERROR")
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void requestFailed(String endpoint, Throwable error, long durationNanos) {
+        requestTimer(endpoint, "NONE", "FAILURE").record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void requestRejected(String endpoint, CallRejectedException.Reason reason) {
+        Counter.builder("paydirekt.requests.rejected")
+                .tags(tags)
+                .tag("endpoint", endpoint)
+                .tag("reason", reason.name())
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public void requestQueued(String endpoint, long waitNanos) {
+        Timer.builder("paydirekt.requests.queued")
+                .tags(tags)
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void responseBodyRead(String endpoint, long bytes) {
+        DistributionSummary.builder("paydirekt.response.size")
+                .baseUnit("bytes")
+                .tags(tags)
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .record(bytes);
+    }
+
+    @Override
+    public void responseDeserialized(String endpoint, Class<?> type, long durationNanos) {
+        Timer.builder("paydirekt.deserialization")
+                .tags(tags)
+                .tag("endpoint", endpoint)
+                .tag("type", type.getSimpleName())
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void bindConnectionPool(Supplier<PoolStats> poolStats) {
+        poolGauge("paydirekt.pool.leased", poolStats, PoolStats::getLeased);
+        poolGauge("paydirekt.pool.pending", poolStats, PoolStats::getPending);
+        poolGauge("paydirekt.pool.available", poolStats, PoolStats::getAvailable);
+    }
+
+    @Override
+    public void bindConcurrencyLimiter(ConcurrencyLimiter limiter) {
+        Gauge.builder("paydirekt.concurrency.limit", limiter, ConcurrencyLimiter::getLimit).tags(tags).register(registry);
+        Gauge.builder("paydirekt.concurrency.inflight", limiter, ConcurrencyLimiter::getInFlight).tags(tags).register(registry);
+        Gauge.builder("paydirekt.concurrency.queued", limiter, ConcurrencyLimiter::getQueued).tags(tags).register(registry);
+    }
+
+    private Timer requestTimer(String endpoint, String status, String outcome) {
+        return Timer.builder("paydirekt.requests")
+                .tags(tags)
+                .tag("endpoint", endpoint)
+                .tag("status", status)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private void poolGauge(String name, Supplier<PoolStats> poolStats, ToIntFunction<PoolStats> value) {
+        Gauge.builder(name, poolStats, stats -> value.applyAsInt(stats.get()))
+                .tags(tags)
+                .register(registry);
+    }
+
+}
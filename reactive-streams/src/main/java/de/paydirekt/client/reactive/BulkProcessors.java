@@ -0,0 +1,80 @@
+package de.paydirekt.client.reactive;
+
+import de.paydirekt.client.capture.CaptureClient;
+import de.paydirekt.client.capture.model.Capture;
+import de.paydirekt.client.capture.model.CaptureRequest;
+import de.paydirekt.client.checkout.model.Checkout;
+import de.paydirekt.client.refund.RefundClient;
+import de.paydirekt.client.refund.model.Refund;
+import de.paydirekt.client.refund.model.RefundRequest;
+import de.paydirekt.client.security.AccessTokenProvider;
+
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Processors creating captures and refunds for the elements of a stream with bounded concurrency,
+ * e.g. for the approved orders consumed from a message queue.
+ * <p>
+ * The elements are of the caller's type, the checkout and the request are derived from each element.
+ * All requests share the token of the given provider.
+ */
+public final class BulkProcessors {
+
+    private BulkProcessors() {
+    }
+
+    /**
+     * Creates a processor creating a capture per element.
+     *
+     * @param captureClient       The capture client.
+     * @param accessTokenProvider The provider of the access token.
+     * @param checkoutOf          Derives the checkout to capture from an element.
+     * @param captureRequestOf    Derives the capture request from an element.
+     * @param maxConcurrency      The maximum number of elements being captured or waiting to be published.
+     * @param executor            The executor of the requests.
+     * @param <T>                 The element type.
+     * @return The processor publishing the outcome of every element.
+     */
+    public static <T> ConcurrentProcessor<T, Capture> captures(CaptureClient captureClient, AccessTokenProvider accessTokenProvider,
+                                                              Function<? super T, Checkout> checkoutOf,
+                                                              Function<? super T, CaptureRequest> captureRequestOf,
+                                                              int maxConcurrency, Executor executor) {
+        requireNonNull(captureClient);
+        requireNonNull(accessTokenProvider);
+        requireNonNull(checkoutOf);
+        requireNonNull(captureRequestOf);
+        return new ConcurrentProcessor<>(element -> captureClient.createCapture(captureRequestOf.apply(element),
+                checkoutOf.apply(element), accessTokenProvider.getAccessToken()), maxConcurrency, executor);
+    }
+
+    /**
+     * Creates a processor creating a refund per element. The refunds of the same checkout, identified by its
+     * self link, are created one after another in the order of the elements, so they never race for the remaining
+     * refundable amount.
+     *
+     * @param refundClient        The refund client.
+     * @param accessTokenProvider The provider of the access token.
+     * @param checkoutOf          Derives the checkout to refund from an element.
+     * @param refundRequestOf     Derives the refund request from an element.
+     * @param maxConcurrency      The maximum number of elements being refunded or waiting to be published.
+     * @param executor            The executor of the requests.
+     * @param <T>                 The element type.
+     * @return The processor publishing the outcome of every element.
+     */
+    public static <T> ConcurrentProcessor<T, Refund> refunds(RefundClient refundClient, AccessTokenProvider accessTokenProvider,
+                                                            Function<? super T, Checkout> checkoutOf,
+                                                            Function<? super T, RefundRequest> refundRequestOf,
+                                                            int maxConcurrency, Executor executor) {
+        requireNonNull(refundClient);
+        requireNonNull(accessTokenProvider);
+        requireNonNull(checkoutOf);
+        requireNonNull(refundRequestOf);
+        return new ConcurrentProcessor<>(element -> refundClient.createRefund(refundRequestOf.apply(element),
+                checkoutOf.apply(element), accessTokenProvider.getAccessToken()),
+                element -> checkoutOf.apply(element).getSelfLink().getHref(), maxConcurrency, executor);
+    }
+
+}
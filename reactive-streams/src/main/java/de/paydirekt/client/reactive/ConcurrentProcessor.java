@@ -0,0 +1,281 @@
+package de.paydirekt.client.reactive;
+
+import de.paydirekt.client.bulk.BulkResult;
+import de.paydirekt.client.bulk.StripedExecutor;
+import org.reactivestreams.Processor;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Applies a blocking operation, e.g. creating a capture, to the elements of a stream with bounded concurrency
+ * and publishes the {@link BulkResult} of every element, in the order of completion.
+ * <p>
+ * At most {@code maxConcurrency} elements are requested from upstream which have not been published downstream yet,
+ * so the operations in flight and the buffered outcomes are bounded, and a slow subscriber slows down the upstream.
+ * Failed operations are published as failed outcomes without terminating the stream. Errors of the upstream are
+ * published after the outcomes of all elements received before. Elements which must not be processed concurrently,
+ * e.g. the refunds of the same checkout, are serialized by key if a key function is given.
+ * <p>
+ * The processor subscribes to one upstream and serves a single subscriber.
+ *
+ * @param <T> The element type.
+ * @param <R> The result type of the operation.
+ */
+public final class ConcurrentProcessor<T, R> implements Processor<T, BulkResult<T, R>> {
+
+    private final Function<? super T, ? extends R> operation;
+    private final Function<? super T, ?> keyOf;
+    private final int maxConcurrency;
+    private final Executor executor;
+    private final StripedExecutor stripes;
+
+    private final Queue<BulkResult<T, R>> outcomes = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger work = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    private volatile Subscription upstream;
+    private volatile Subscriber<? super BulkResult<T, R>> downstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamError;
+    private volatile boolean cancelled;
+    private volatile boolean invalidRequest;
+    private boolean started;
+    private boolean terminated;
+
+    /**
+     * Constructor.
+     *
+     * @param operation      The blocking operation applied to each element.
+     * @param maxConcurrency The maximum number of elements being processed or waiting to be published.
+     * @param executor       The executor of the operations, e.g. one starting a virtual thread per task.
+     */
+    public ConcurrentProcessor(Function<? super T, ? extends R> operation, int maxConcurrency, Executor executor) {
+        this(operation, null, maxConcurrency, executor);
+    }
+
+    /**
+     * Constructor of a processor which processes one element at a time per key, in the order of arrival.
+     *
+     * @param operation      The blocking operation applied to each element.
+     * @param keyOf          Determines the key of an element, or {@code null} to process all elements concurrently.
+     *                       Elements with equal keys are never processed concurrently.
+     * @param maxConcurrency The maximum number of elements being processed or waiting to be published.
+     * @param executor       The executor of the operations, e.g. one starting a virtual thread per task.
+     */
+    public ConcurrentProcessor(Function<? super T, ? extends R> operation, Function<? super T, ?> keyOf,
+                               int maxConcurrency, Executor executor) {
+        requireNonNull(operation);
+        requireNonNull(executor);
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive.");
+        }
+
+        this.operation = operation;
+        this.keyOf = keyOf;
+        this.maxConcurrency = maxConcurrency;
+        this.executor = executor;
+        this.stripes = keyOf != null ? new StripedExecutor(executor, maxConcurrency) : null;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super BulkResult<T, R>> subscriber) {
+        requireNonNull(subscriber);
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(NoSubscription.INSTANCE);
+            subscriber.onError(new IllegalStateException("The processor serves a single subscriber"));
+            return;
+        }
+        downstream = subscriber;
+        subscriber.onSubscribe(new DownstreamSubscription());
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        requireNonNull(subscription);
+        if (upstream != null) {
+            // rule 2.5: only one upstream
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        drain();
+    }
+
+    @Override
+    public void onNext(T element) {
+        requireNonNull(element);
+        pending.incrementAndGet();
+        if (stripes == null) {
+            try {
+                executor.execute(() -> process(element));
+            } catch (RejectedExecutionException e) {
+                reject(element, e);
+            }
+            return;
+        }
+        Object key;
+        try {
+            key = keyOf.apply(element);
+        } catch (RuntimeException e) {
+            reject(element, e);
+            return;
+        }
+        stripes.execute(key, new StripedExecutor.Task() {
+            @Override
+            public void run() {
+                process(element);
+            }
+
+            @Override
+            public void reject(RuntimeException failure) {
+                ConcurrentProcessor.this.reject(element, failure);
+            }
+        });
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        requireNonNull(error);
+        upstreamError = error;
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    private void process(T element) {
+        BulkResult<T, R> outcome;
+        long start = System.nanoTime();
+        try {
+            outcome = BulkResult.success(element, operation.apply(element), System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            outcome = BulkResult.failure(element, e, System.nanoTime() - start);
+        }
+        outcomes.offer(outcome);
+        drain();
+    }
+
+    private void reject(T element, RuntimeException failure) {
+        outcomes.offer(BulkResult.failure(element, failure, 0));
+        drain();
+    }
+
+
+    /**
+     * Publishes the outcomes as far as requested and the terminal signal, entered by one thread at a time.
+     * All requests to and the cancellation of the upstream are issued from here, thus serially (rule 2.7).
+     */
+    private void drain() {
+        if (downstream == null || work.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Subscriber<? super BulkResult<T, R>> subscriber = downstream;
+            Subscription subscription = upstream;
+            if (subscription == null) {
+                // the first elements are requested once both the upstream and the subscriber are present
+                missed = work.addAndGet(-missed);
+                continue;
+            }
+            if (!started && !cancelled) {
+                started = true;
+                subscription.request(maxConcurrency);
+            }
+            long demand = requested.get();
+            long emitted = 0;
+            while (emitted != demand && !cancelled && !terminated) {
+                BulkResult<T, R> outcome = outcomes.poll();
+                if (outcome == null) {
+                    break;
+                }
+                subscriber.onNext(outcome);
+                emitted++;
+            }
+            if (emitted > 0) {
+                requested.addAndGet(-emitted);
+                pending.addAndGet((int) -emitted);
+                if (!upstreamDone && !cancelled && !terminated) {
+                    // the published elements free their slots
+                    subscription.request(emitted);
+                }
+            }
+            if (terminated) {
+                outcomes.clear();
+            } else if (cancelled) {
+                terminated = true;
+                outcomes.clear();
+                subscription.cancel();
+            } else if (invalidRequest) {
+                terminated = true;
+                subscription.cancel();
+                subscriber.onError(new IllegalArgumentException("Rule 3.9: the number of requested elements must be positive"));
+            } else if (upstreamDone && pending.get() == 0) {
+                terminated = true;
+                Throwable error = upstreamError;
+                if (error != null) {
+                    subscriber.onError(error);
+                } else {
+                    subscriber.onComplete();
+                }
+            }
+            missed = work.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * The subscription of the downstream subscriber.
+     */
+    private final class DownstreamSubscription implements Subscription {
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = true;
+            } else {
+                requested.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+    }
+
+    /**
+     * The subscription of rejected subscribers.
+     */
+    private enum NoSubscription implements Subscription {
+        INSTANCE;
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package de.paydirekt.client.reactive;
+
+import de.paydirekt.client.reports.ReportsClient;
+import de.paydirekt.client.reports.model.Transaction;
+import de.paydirekt.client.reports.model.TransactionReportQueryParameters;
+import de.paydirekt.client.security.AccessTokenProvider;
+import de.paydirekt.client.security.model.AccessToken;
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.Executor;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Publishes transaction reports as Reactive Streams, backed by a {@link ReportsClient}.
+ * <p>
+ * The report is requested per subscriber once it requests the first transactions. The transactions are
+ * deserialized from the response only as far as requested, so a slow subscriber, e.g. a Kafka producer,
+ * throttles the download instead of buffering the report in memory.
+ * Use {@code org.reactivestreams.FlowAdapters} to obtain a {@code java.util.concurrent.Flow.Publisher}.
+ */
+public class ReactiveReportsClient {
+
+    private final ReportsClient reportsClient;
+    private final Executor executor;
+
+    /**
+     * Constructor.
+     *
+     * @param reportsClient The client of the reports endpoint.
+     * @param executor      The executor reading the responses, e.g. one starting a virtual thread per task.
+     */
+    public ReactiveReportsClient(ReportsClient reportsClient, Executor executor) {
+        requireNonNull(reportsClient);
+        requireNonNull(executor);
+
+        this.reportsClient = reportsClient;
+        this.executor = executor;
+    }
+
+    /**
+     * Publishes the transactions of a report.
+     *
+     * @param transactionRequest The request.
+     * @param accessToken        The access token.
+     * @return The publisher of the transactions, which requests the report for every subscriber.
+     */
+    public Publisher<Transaction> publishTransactions(TransactionReportQueryParameters transactionRequest, AccessToken accessToken) {
+        return new StreamPublisher<>(() -> reportsClient.streamTransactions(transactionRequest, accessToken), executor);
+    }
+
+    /**
+     * Publishes the transactions of a report. The token is retrieved from the provider when the report is requested.
+     *
+     * @param transactionRequest  The request.
+     * @param accessTokenProvider The provider of the access token.
+     * @return The publisher of the transactions, which requests the report for every subscriber.
+     */
+    public Publisher<Transaction> publishTransactions(TransactionReportQueryParameters transactionRequest, AccessTokenProvider accessTokenProvider) {
+        return new StreamPublisher<>(() -> reportsClient.streamTransactions(transactionRequest, accessTokenProvider.getAccessToken()), executor);
+    }
+
+}
@@ -0,0 +1,175 @@
+package de.paydirekt.client.reactive;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Publishes the elements of a blocking stream, e.g. the transactions read from a http response, with backpressure.
+ * <p>
+ * The stream is opened per subscriber on its first request. Elements are pulled from the stream only as far as
+ * requested, so the http response is read no further than the subscriber demands. The blocking reads run on the
+ * given executor, at most one at a time per subscriber. The stream is closed once it is exhausted, fails or the
+ * subscription is cancelled.
+ *
+ * @param <T> The element type.
+ */
+public final class StreamPublisher<T> implements Publisher<T> {
+
+    private final Supplier<? extends Stream<? extends T>> streamFactory;
+    private final Executor executor;
+
+    /**
+     * Constructor.
+     *
+     * @param streamFactory Opens the stream of a subscriber.
+     * @param executor      The executor of the blocking reads.
+     */
+    public StreamPublisher(Supplier<? extends Stream<? extends T>> streamFactory, Executor executor) {
+        requireNonNull(streamFactory);
+        requireNonNull(executor);
+
+        this.streamFactory = streamFactory;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        requireNonNull(subscriber);
+        StreamSubscription subscription = new StreamSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * The subscription of a single subscriber. All signals are emitted by the drain loop,
+     * which runs on the executor and is entered by one thread at a time.
+     */
+    private final class StreamSubscription implements Subscription, Runnable {
+
+        private final Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger work = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile boolean invalidRequest;
+        private boolean done;
+        private Stream<? extends T> stream;
+        private Iterator<? extends T> iterator;
+
+        private StreamSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = true;
+            } else {
+                requested.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (work.getAndIncrement() != 0) {
+                return;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                cancelled = true;
+                work.set(0);
+                closeStream();
+                subscriber.onError(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                terminate(null, false);
+                return;
+            }
+            if (invalidRequest) {
+                terminate(new IllegalArgumentException("Rule 3.9: the number of requested elements must be positive"), true);
+                return;
+            }
+            try {
+                if (iterator == null) {
+                    stream = streamFactory.get();
+                    iterator = stream.iterator();
+                }
+                long emitted = 0;
+                long demand = requested.get();
+                while (emitted != demand && !cancelled) {
+                    if (!iterator.hasNext()) {
+                        terminate(null, true);
+                        return;
+                    }
+                    subscriber.onNext(iterator.next());
+                    emitted++;
+                    if (emitted == demand) {
+                        demand = requested.addAndGet(-emitted);
+                        emitted = 0;
+                    }
+                }
+                if (cancelled) {
+                    terminate(null, false);
+                } else if (!iterator.hasNext()) {
+                    // completes without further demand, so the connection is released right after the last element
+                    terminate(null, true);
+                }
+            } catch (RuntimeException e) {
+                terminate(e, true);
+            }
+        }
+
+        private void terminate(Throwable error, boolean signal) {
+            done = true;
+            closeStream();
+            if (!signal) {
+                return;
+            }
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+
+        private void closeStream() {
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+    }
+
+}
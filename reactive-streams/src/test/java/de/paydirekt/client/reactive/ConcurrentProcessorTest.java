@@ -0,0 +1,198 @@
+package de.paydirekt.client.reactive;
+
+import de.paydirekt.client.bulk.BulkResult;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit Test for {@link ConcurrentProcessor}.
+ */
+public class ConcurrentProcessorTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger pulled = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldPublishBulkResultOfEveryElement() throws Exception {
+        ConcurrentProcessor<Integer, Integer> subject = new ConcurrentProcessor<>(number -> number * 10, 4, executor);
+        TestSubscriber<BulkResult<Integer, Integer>> subscriber = subscribe(subject, 20);
+
+        subscriber.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.awaitTermination(), is(true));
+        assertThat(subscriber.completed, is(true));
+        assertThat(results(subscriber), containsInAnyOrder(IntStream.range(0, 20).map(number -> number * 10).boxed().toArray()));
+    }
+
+    @Test
+    public void shouldLimitOperationsInFlight() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ConcurrentProcessor<Integer, Integer> subject = new ConcurrentProcessor<>(number -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(5);
+            inFlight.decrementAndGet();
+            return number;
+        }, 3, executor);
+        TestSubscriber<BulkResult<Integer, Integer>> subscriber = subscribe(subject, 30);
+
+        subscriber.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.awaitTermination(), is(true));
+        assertThat(subscriber.elements.size(), is(30));
+        assertThat(maxInFlight.get(), is(lessThanOrEqualTo(3)));
+    }
+
+    @Test
+    public void shouldProcessElementsWithEqualKeysOneAfterAnother() throws Exception {
+        Map<Integer, AtomicInteger> inFlightByKey = new ConcurrentHashMap<>();
+        AtomicInteger maxInFlightByKey = new AtomicInteger();
+        Map<Integer, List<Integer>> processedByKey = new ConcurrentHashMap<>();
+        ConcurrentProcessor<Integer, Integer> subject = new ConcurrentProcessor<>(number -> {
+            AtomicInteger inFlight = inFlightByKey.computeIfAbsent(number % 3, key -> new AtomicInteger());
+            maxInFlightByKey.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(2);
+            processedByKey.computeIfAbsent(number % 3, key -> new CopyOnWriteArrayList<>()).add(number);
+            inFlight.decrementAndGet();
+            return number;
+        }, number -> number % 3, 8, executor);
+        TestSubscriber<BulkResult<Integer, Integer>> subscriber = subscribe(subject, 30);
+
+        subscriber.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.awaitTermination(), is(true));
+        assertThat(subscriber.elements.size(), is(30));
+        assertThat(maxInFlightByKey.get(), is(1));
+        assertThat(processedByKey.get(1), contains(1, 4, 7, 10, 13, 16, 19, 22, 25, 28));
+    }
+
+    @Test
+    public void shouldPublishFailureOfKeyFunction() throws Exception {
+        ConcurrentProcessor<Integer, Integer> subject = new ConcurrentProcessor<>(number -> number, number -> {
+            if (number == 2) {
+                throw new IllegalStateException("no key");
+            }
+            return number;
+        }, 2, executor);
+        TestSubscriber<BulkResult<Integer, Integer>> subscriber = subscribe(subject, 4);
+
+        subscriber.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.awaitTermination(), is(true));
+        assertThat(subscriber.completed, is(true));
+        assertThat(results(subscriber), containsInAnyOrder(0, 1, 3));
+    }
+
+    @Test
+    public void shouldPullNoMoreElementsThanPublishedPlusMaxConcurrency() throws Exception {
+        ConcurrentProcessor<Integer, Integer> subject = new ConcurrentProcessor<>(number -> number, 4, executor);
+        TestSubscriber<BulkResult<Integer, Integer>> subscriber = subscribe(subject, 100);
+
+        subscriber.request(2);
+        subscriber.awaitElements(2);
+        Thread.sleep(50);
+
+        assertThat(subscriber.elements.size(), is(2));
+        // 2 published and 4 processed or buffered, plus the element read ahead by the upstream
+        assertThat(pulled.get(), is(lessThanOrEqualTo(7)));
+    }
+
+    @Test
+    public void shouldPublishFailuresWithoutTerminating() throws Exception {
+        ConcurrentProcessor<Integer, Integer> subject = new ConcurrentProcessor<>(number -> {
+            if (number % 2 == 1) {
+                throw new IllegalStateException("odd " + number);
+            }
+            return number;
+        }, 2, executor);
+        TestSubscriber<BulkResult<Integer, Integer>> subscriber = subscribe(subject, 6);
+
+        subscriber.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.awaitTermination(), is(true));
+        assertThat(subscriber.completed, is(true));
+        List<Integer> failed = subscriber.elements.stream()
+                .filter(outcome -> !outcome.isSuccessful())
+                .map(BulkResult::getItem)
+                .collect(Collectors.toList());
+        assertThat(failed, containsInAnyOrder(1, 3, 5));
+        assertThat(results(subscriber), containsInAnyOrder(0, 2, 4));
+    }
+
+    @Test
+    public void shouldSignalErrorOfUpstreamAfterPendingBulkResults() throws Exception {
+        ConcurrentProcessor<Integer, Integer> subject = new ConcurrentProcessor<>(number -> number, 2, executor);
+        new StreamPublisher<Integer>(() -> Stream.of(1, 2, 3).peek(number -> {
+            if (number == 3) {
+                throw new IllegalStateException("upstream failed");
+            }
+        }), executor).subscribe(subject);
+        TestSubscriber<BulkResult<Integer, Integer>> subscriber = new TestSubscriber<>();
+        subject.subscribe(subscriber);
+
+        subscriber.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.awaitTermination(), is(true));
+        assertThat(subscriber.error, instanceOf(IllegalStateException.class));
+        assertThat(results(subscriber), containsInAnyOrder(1, 2));
+    }
+
+    @Test
+    public void shouldRejectSecondSubscriber() throws Exception {
+        ConcurrentProcessor<Integer, Integer> subject = new ConcurrentProcessor<>(number -> number, 2, executor);
+        subscribe(subject, 1);
+        TestSubscriber<BulkResult<Integer, Integer>> second = new TestSubscriber<>();
+
+        subject.subscribe(second);
+
+        assertThat(second.awaitTermination(), is(true));
+        assertThat(second.error, instanceOf(IllegalStateException.class));
+    }
+
+    private TestSubscriber<BulkResult<Integer, Integer>> subscribe(ConcurrentProcessor<Integer, Integer> processor, int count) {
+        new StreamPublisher<>(() -> IntStream.range(0, count).boxed().peek(number -> pulled.incrementAndGet()), executor)
+                .subscribe(processor);
+        TestSubscriber<BulkResult<Integer, Integer>> subscriber = new TestSubscriber<>();
+        processor.subscribe(subscriber);
+        return subscriber;
+    }
+
+    private static List<Integer> results(TestSubscriber<BulkResult<Integer, Integer>> subscriber) {
+        return subscriber.elements.stream()
+                .filter(BulkResult::isSuccessful)
+                .map(BulkResult::getResult)
+                .collect(Collectors.toList());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
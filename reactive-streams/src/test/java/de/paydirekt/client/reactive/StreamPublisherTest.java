@@ -0,0 +1,132 @@
+package de.paydirekt.client.reactive;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit Test for {@link StreamPublisher}.
+ */
+public class StreamPublisherTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger pulled = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldOpenStreamOnFirstRequest() throws Exception {
+        StreamPublisher<Integer> subject = new StreamPublisher<>(() -> numbers(10), executor);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+
+        subject.subscribe(subscriber);
+        Thread.sleep(20);
+        assertThat(opened.get(), is(0));
+
+        subscriber.request(1);
+        subscriber.awaitElements(1);
+        assertThat(opened.get(), is(1));
+    }
+
+    @Test
+    public void shouldPullElementsOnlyOnDemand() throws Exception {
+        StreamPublisher<Integer> subject = new StreamPublisher<>(() -> numbers(10), executor);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        subject.subscribe(subscriber);
+
+        subscriber.request(3);
+        subscriber.awaitElements(3);
+        Thread.sleep(20);
+
+        assertThat(subscriber.elements, contains(0, 1, 2));
+        // the next element is read ahead to complete without further demand
+        assertThat(pulled.get(), is(4));
+
+        subscriber.request(Long.MAX_VALUE);
+        assertThat(subscriber.awaitTermination(), is(true));
+        assertThat(subscriber.completed, is(true));
+        assertThat(subscriber.elements.size(), is(10));
+        assertThat(closed.get(), is(true));
+    }
+
+    @Test
+    public void shouldCompleteWithoutFurtherDemandAfterLastElement() throws Exception {
+        StreamPublisher<Integer> subject = new StreamPublisher<>(() -> numbers(2), executor);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        subject.subscribe(subscriber);
+
+        subscriber.request(2);
+
+        assertThat(subscriber.awaitTermination(), is(true));
+        assertThat(subscriber.completed, is(true));
+        assertThat(closed.get(), is(true));
+    }
+
+    @Test
+    public void shouldCloseStreamOnCancel() throws Exception {
+        StreamPublisher<Integer> subject = new StreamPublisher<>(() -> numbers(10), executor);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        subject.subscribe(subscriber);
+        subscriber.request(2);
+        subscriber.awaitElements(2);
+
+        subscriber.cancel();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!closed.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+
+        assertThat(closed.get(), is(true));
+        assertThat(subscriber.completed, is(false));
+    }
+
+    @Test
+    public void shouldSignalErrorOfStream() throws Exception {
+        StreamPublisher<Integer> subject = new StreamPublisher<>(() -> {
+            throw new IllegalStateException("report failed");
+        }, executor);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        subject.subscribe(subscriber);
+
+        subscriber.request(1);
+
+        assertThat(subscriber.awaitTermination(), is(true));
+        assertThat(subscriber.error, instanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    public void shouldSignalErrorOnNonPositiveRequest() throws Exception {
+        StreamPublisher<Integer> subject = new StreamPublisher<>(() -> numbers(10), executor);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        subject.subscribe(subscriber);
+
+        subscriber.request(0);
+
+        assertThat(subscriber.awaitTermination(), is(true));
+        assertThat(subscriber.error, instanceOf(IllegalArgumentException.class));
+    }
+
+    private Stream<Integer> numbers(int count) {
+        opened.incrementAndGet();
+        return IntStream.range(0, count).boxed()
+                .peek(number -> pulled.incrementAndGet())
+                .onClose(() -> closed.set(true));
+    }
+
+}
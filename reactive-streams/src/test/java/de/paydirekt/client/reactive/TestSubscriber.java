@@ -0,0 +1,63 @@
+package de.paydirekt.client.reactive;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscriber recording the signals it receives, which requests elements only when told to.
+ */
+final class TestSubscriber<T> implements Subscriber<T> {
+
+    final List<T> elements = new CopyOnWriteArrayList<>();
+    volatile Throwable error;
+    volatile boolean completed;
+
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private volatile Subscription subscription;
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(T element) {
+        elements.add(element);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        this.error = error;
+        terminated.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+        completed = true;
+        terminated.countDown();
+    }
+
+    void request(long n) {
+        subscription.request(n);
+    }
+
+    void cancel() {
+        subscription.cancel();
+    }
+
+    void awaitElements(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (elements.size() < count && terminated.getCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    boolean awaitTermination() throws InterruptedException {
+        return terminated.await(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,294 @@
+package de.paydirekt.client.bulk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Applies a blocking operation, e.g. creating a capture, to many items in parallel. Use the
+ * {@link BulkExecutorBuilder} to create an instance.
+ * <p>
+ * At most {@code parallelism} operations are in flight. The items are pulled from the iterator only as fast as
+ * they are processed, so a lazily computed source of items is never materialized in memory. A failed operation
+ * is reported as a failed {@link BulkResult} and does not abort the remaining items. Items which must not be
+ * processed concurrently, e.g. the refunds of the same checkout, are serialized by key via {@code executeByKey}.
+ * <p>
+ * This class is thread-safe, several bulk operations may be executed concurrently and share the executor.
+ */
+public final class BulkExecutor implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkExecutor.class);
+
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final int parallelism;
+    private final BulkMetrics metrics;
+
+    /**
+     * Constructor.
+     *
+     * @param executor     The executor of the operations.
+     * @param ownsExecutor Whether the executor is shut down on {@link #close()}.
+     * @param parallelism  The maximum number of operations in flight per bulk operation.
+     * @param metrics      The metrics of the bulk operations.
+     */
+    BulkExecutor(ExecutorService executor, boolean ownsExecutor, int parallelism, BulkMetrics metrics) {
+        this.executor = requireNonNull(executor);
+        this.ownsExecutor = ownsExecutor;
+        this.parallelism = parallelism;
+        this.metrics = requireNonNull(metrics);
+    }
+
+    /**
+     * Applies the operation to every item and collects the results.
+     *
+     * @param operationName The name of the operation, used in the summary and the metrics.
+     * @param items         The items.
+     * @param operation     The blocking operation of an item.
+     * @param <T>           The item type.
+     * @param <R>           The result type.
+     * @return The results in the order of the items and the summary.
+     * @throws CancellationException If the calling thread was interrupted. The operations in flight are completed,
+     *                               the remaining items are not processed.
+     */
+    public <T, R> BulkReport<T, R> execute(String operationName, Iterator<? extends T> items,
+                                           Function<? super T, ? extends R> operation) {
+        // each item claims its slot on submission, so the results keep the order of the items
+        List<Slot<T, R>> slots = new ArrayList<>();
+        BulkSummary summary = this.<T, R>execute(operationName, items, null, operation, slots::add, null);
+        List<BulkResult<T, R>> results = new ArrayList<>(slots.size());
+        for (Slot<T, R> slot : slots) {
+            results.add(slot.result);
+        }
+        return new BulkReport<>(results, summary);
+    }
+
+    /**
+     * Applies the operation to every item and passes each result to the consumer as soon as it is available,
+     * so the results need not be kept in memory. The consumer is called by one thread at a time, in the order
+     * of completion.
+     *
+     * @param operationName The name of the operation, used in the summary and the metrics.
+     * @param items         The items.
+     * @param operation     The blocking operation of an item.
+     * @param consumer      The consumer of the results. If it throws, the failure is logged and counted in
+     *                      {@link BulkSummary#getConsumerFailures()}, the other items are not affected.
+     * @param <T>           The item type.
+     * @param <R>           The result type.
+     * @return The summary.
+     * @throws CancellationException If the calling thread was interrupted. The operations in flight are completed,
+     *                               the remaining items are not processed.
+     */
+    public <T, R> BulkSummary execute(String operationName, Iterator<? extends T> items,
+                                      Function<? super T, ? extends R> operation,
+                                      Consumer<? super BulkResult<T, R>> consumer) {
+        requireNonNull(consumer);
+        return this.<T, R>execute(operationName, items, null, operation, null, consumer);
+    }
+
+    /**
+     * Applies the operation to every item like {@link #execute(String, Iterator, Function)}, but one item at a time
+     * per key, e.g. the refunds of the same checkout. Items with the same key are processed in the order of the items,
+     * items with different keys in parallel.
+     * <p>
+     * The keys are mapped to a fixed number of stripes, so items with different keys occasionally share a stripe
+     * and are serialized as well. Items waiting for another item of their stripe count against the parallelism.
+     *
+     * @param operationName The name of the operation, used in the summary and the metrics.
+     * @param items         The items.
+     * @param keyOf         Determines the key of an item. Items with equal keys are never processed concurrently.
+     * @param operation     The blocking operation of an item.
+     * @param <T>           The item type.
+     * @param <R>           The result type.
+     * @return The results in the order of the items and the summary.
+     * @throws CancellationException If the calling thread was interrupted. The operations in flight are completed,
+     *                               the remaining items are not processed.
+     */
+    public <T, R> BulkReport<T, R> executeByKey(String operationName, Iterator<? extends T> items, Function<? super T, ?> keyOf,
+                                                Function<? super T, ? extends R> operation) {
+        requireNonNull(keyOf);
+        List<Slot<T, R>> slots = new ArrayList<>();
+        BulkSummary summary = this.<T, R>execute(operationName, items, keyOf, operation, slots::add, null);
+        List<BulkResult<T, R>> results = new ArrayList<>(slots.size());
+        for (Slot<T, R> slot : slots) {
+            results.add(slot.result);
+        }
+        return new BulkReport<>(results, summary);
+    }
+
+    /**
+     * Applies the operation to every item like {@link #execute(String, Iterator, Function, Consumer)}, but one item
+     * at a time per key, see {@link #executeByKey(String, Iterator, Function, Function)}.
+     *
+     * @param operationName The name of the operation, used in the summary and the metrics.
+     * @param items         The items.
+     * @param keyOf         Determines the key of an item. Items with equal keys are never processed concurrently.
+     * @param operation     The blocking operation of an item.
+     * @param consumer      The consumer of the results. If it throws, the failure is logged and counted in
+     *                      {@link BulkSummary#getConsumerFailures()}, the other items are not affected.
+     * @param <T>           The item type.
+     * @param <R>           The result type.
+     * @return The summary.
+     * @throws CancellationException If the calling thread was interrupted. The operations in flight are completed,
+     *                               the remaining items are not processed.
+     */
+    public <T, R> BulkSummary executeByKey(String operationName, Iterator<? extends T> items, Function<? super T, ?> keyOf,
+                                           Function<? super T, ? extends R> operation,
+                                           Consumer<? super BulkResult<T, R>> consumer) {
+        requireNonNull(keyOf);
+        requireNonNull(consumer);
+        return this.<T, R>execute(operationName, items, keyOf, operation, null, consumer);
+    }
+
+    private <T, R> BulkSummary execute(String operationName, Iterator<? extends T> items, Function<? super T, ?> keyOf,
+                                       Function<? super T, ? extends R> operation,
+                                       Consumer<Slot<T, R>> reserve, Consumer<? super BulkResult<T, R>> consumer) {
+        requireNonNull(operationName);
+        requireNonNull(items);
+        requireNonNull(operation);
+        Semaphore permits = new Semaphore(parallelism);
+        StripedExecutor stripes = keyOf != null ? new StripedExecutor(executor, parallelism) : null;
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong consumerFailures = new AtomicLong();
+        Lock consumerLock = new ReentrantLock();
+        long start = System.nanoTime();
+
+        // failures of the consumer and the metrics are logged instead of thrown, since they must neither leak
+        // the permit of the item nor stall the items queued behind it
+        Consumer<BulkResult<T, R>> complete = result -> {
+            try {
+                (result.isSuccessful() ? succeeded : failed).incrementAndGet();
+                try {
+                    metrics.itemCompleted(operationName, result.isSuccessful(), result.getDurationNanos());
+                } catch (RuntimeException e) {
+                    logger.warn("Metrics of bulk operation {} failed to record an item.", operationName, e);
+                }
+                if (consumer != null) {
+                    consumerLock.lock();
+                    try {
+                        consumer.accept(result);
+                    } catch (RuntimeException e) {
+                        consumerFailures.incrementAndGet();
+                        logger.warn("Consumer of bulk operation {} failed to process the result of {}.", operationName, result.getItem(), e);
+                    } finally {
+                        consumerLock.unlock();
+                    }
+                }
+            } finally {
+                permits.release();
+            }
+        };
+
+        boolean interrupted = false;
+        try {
+            while (items.hasNext()) {
+                permits.acquire();
+                T item;
+                try {
+                    item = items.next();
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+                Slot<T, R> slot = new Slot<>();
+                if (reserve != null) {
+                    reserve.accept(slot);
+                }
+                StripedExecutor.Task task = new StripedExecutor.Task() {
+                    @Override
+                    public void run() {
+                        slot.result = apply(item, operation);
+                        complete.accept(slot.result);
+                    }
+
+                    @Override
+                    public void reject(RuntimeException failure) {
+                        slot.result = BulkResult.failure(item, failure, 0);
+                        complete.accept(slot.result);
+                    }
+                };
+                if (stripes == null) {
+                    try {
+                        executor.execute(task);
+                    } catch (RejectedExecutionException e) {
+                        task.reject(e);
+                    }
+                } else {
+                    Object key;
+                    try {
+                        key = keyOf.apply(item);
+                    } catch (RuntimeException e) {
+                        task.reject(e);
+                        continue;
+                    }
+                    stripes.execute(key, task);
+                }
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } finally {
+            // waits for the operations in flight, which complete even if the submission was aborted
+            permits.acquireUninterruptibly(parallelism);
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Bulk operation " + operationName + " was interrupted.");
+        }
+
+        BulkSummary summary = new BulkSummary(operationName, succeeded.get(), failed.get(), consumerFailures.get(),
+                System.nanoTime() - start);
+        try {
+            metrics.bulkCompleted(summary);
+        } catch (RuntimeException e) {
+            logger.warn("Metrics of bulk operation {} failed to record the summary.", operationName, e);
+        }
+        if (summary.getConsumerFailures() > 0) {
+            logger.warn("Consumer of bulk operation {} failed to process {} results.", operationName, summary.getConsumerFailures());
+        }
+        return summary;
+    }
+
+    private static <T, R> BulkResult<T, R> apply(T item, Function<? super T, ? extends R> operation) {
+        long start = System.nanoTime();
+        try {
+            return BulkResult.success(item, operation.apply(item), System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            return BulkResult.failure(item, e, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Shuts down the executor if it was created by the builder.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * The result of an item, written by the thread of the operation and read after all permits were returned.
+     */
+    private static final class Slot<T, R> {
+        private BulkResult<T, R> result;
+    }
+
+}
@@ -0,0 +1,66 @@
+package de.paydirekt.client.bulk;
+
+import de.paydirekt.client.common.VirtualThreads;
+
+import java.util.concurrent.ExecutorService;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builder for a {@link BulkExecutor}.
+ * <p>
+ * By default the operations run on virtual threads on Java 21 and later, otherwise on a pool of
+ * {@code parallelism} platform threads, which is shut down together with the built executor.
+ */
+public final class BulkExecutorBuilder {
+
+    static final int DEFAULT_PARALLELISM = 16;
+
+    private int parallelism = DEFAULT_PARALLELISM;
+    private ExecutorService executor;
+    private BulkMetrics metrics = BulkMetrics.NONE;
+
+    private BulkExecutorBuilder() {
+    }
+
+    public static BulkExecutorBuilder aBulkExecutor() {
+        return new BulkExecutorBuilder();
+    }
+
+    /**
+     * Sets the maximum number of operations in flight per bulk operation. It should not exceed the connection
+     * pool limits of the {@code RequestExecutor} used by the operations.
+     */
+    public BulkExecutorBuilder withParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Runs the operations on the given executor, which is not shut down together with the built executor.
+     */
+    public BulkExecutorBuilder withExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Sets the receiver of the durations and the throughput of the bulk operations.
+     */
+    public BulkExecutorBuilder withMetrics(BulkMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public BulkExecutor build() {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive.");
+        }
+        requireNonNull(metrics);
+        if (executor != null) {
+            return new BulkExecutor(executor, false, parallelism, metrics);
+        }
+        return new BulkExecutor(VirtualThreads.newBoundedExecutor("paydirekt-bulk-", parallelism), true, parallelism, metrics);
+    }
+
+}
@@ -0,0 +1,36 @@
+package de.paydirekt.client.bulk;
+
+/**
+ * Receives the metrics of the bulk operations executed by a {@link BulkExecutor}, e.g. to bind them to a
+ * metrics library like Micrometer.
+ * <p>
+ * Implementations are called concurrently by the threads processing the items, so they must be thread-safe
+ * and must not block. All methods default to doing nothing.
+ */
+public interface BulkMetrics {
+
+    /**
+     * Records nothing.
+     */
+    BulkMetrics NONE = new BulkMetrics() {
+    };
+
+    /**
+     * Called when the operation on an item has completed.
+     *
+     * @param operation     The name of the operation, e.g. {@code capture.create}.
+     * @param successful    Whether the operation succeeded.
+     * @param durationNanos The duration of the operation in nanoseconds.
+     */
+    default void itemCompleted(String operation, boolean successful, long durationNanos) {
+    }
+
+    /**
+     * Called when all items of a bulk operation have been processed.
+     *
+     * @param summary The counts and the throughput of the bulk operation.
+     */
+    default void bulkCompleted(BulkSummary summary) {
+    }
+
+}
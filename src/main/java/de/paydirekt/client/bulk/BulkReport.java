@@ -0,0 +1,47 @@
+package de.paydirekt.client.bulk;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The results of all items of a completed bulk operation, in the order of the items, and its summary.
+ *
+ * @param <T> The item type.
+ * @param <R> The result type.
+ */
+public final class BulkReport<T, R> {
+
+    private final List<BulkResult<T, R>> results;
+    private final BulkSummary summary;
+
+    /**
+     * Constructor.
+     *
+     * @param results The results in the order of the items.
+     * @param summary The summary.
+     */
+    public BulkReport(List<BulkResult<T, R>> results, BulkSummary summary) {
+        this.results = Collections.unmodifiableList(results);
+        this.summary = summary;
+    }
+
+    /**
+     * @return The results in the order of the items.
+     */
+    public List<BulkResult<T, R>> getResults() {
+        return results;
+    }
+
+    /**
+     * @return The results of the failed items.
+     */
+    public List<BulkResult<T, R>> getFailures() {
+        return results.stream().filter(result -> !result.isSuccessful()).collect(Collectors.toList());
+    }
+
+    public BulkSummary getSummary() {
+        return summary;
+    }
+
+}
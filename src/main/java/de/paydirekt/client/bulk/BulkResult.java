@@ -0,0 +1,95 @@
+package de.paydirekt.client.bulk;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The result of the operation on a single item of a bulk operation, either its result or its failure.
+ * A failed item does not abort the bulk operation.
+ *
+ * @param <T> The item type.
+ * @param <R> The result type.
+ */
+public final class BulkResult<T, R> {
+
+    private final T item;
+    private final R result;
+    private final RuntimeException failure;
+    private final long durationNanos;
+
+    private BulkResult(T item, R result, RuntimeException failure, long durationNanos) {
+        this.item = item;
+        this.result = result;
+        this.failure = failure;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Creates the result of a successful operation.
+     *
+     * @param item          The item.
+     * @param result        The result of the operation.
+     * @param durationNanos The duration of the operation in nanoseconds.
+     * @param <T>           The item type.
+     * @param <R>           The result type.
+     * @return The result.
+     */
+    public static <T, R> BulkResult<T, R> success(T item, R result, long durationNanos) {
+        return new BulkResult<>(item, result, null, durationNanos);
+    }
+
+    /**
+     * Creates the result of a failed operation.
+     *
+     * @param item          The item.
+     * @param failure       The failure of the operation.
+     * @param durationNanos The duration until the failure in nanoseconds.
+     * @param <T>           The item type.
+     * @param <R>           The result type.
+     * @return The result.
+     */
+    public static <T, R> BulkResult<T, R> failure(T item, RuntimeException failure, long durationNanos) {
+        requireNonNull(failure);
+        return new BulkResult<>(item, null, failure, durationNanos);
+    }
+
+    /**
+     * @return The item the operation was applied to.
+     */
+    public T getItem() {
+        return item;
+    }
+
+    /**
+     * @return The result of the operation, {@code null} if it failed.
+     */
+    public R getResult() {
+        return result;
+    }
+
+    /**
+     * @return The failure of the operation, {@code null} if it succeeded.
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return The duration of the operation in nanoseconds.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return {@code true} if the operation succeeded.
+     */
+    public boolean isSuccessful() {
+        return failure == null;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccessful() ? "BulkResult{" + item + " -> " + result + "}" : "BulkResult{" + item + " failed: " + failure + "}";
+    }
+
+}
@@ -0,0 +1,86 @@
+package de.paydirekt.client.bulk;
+
+import java.time.Duration;
+
+/**
+ * The counts and the throughput of a completed bulk operation.
+ */
+public final class BulkSummary {
+
+    private final String operation;
+    private final long succeeded;
+    private final long failed;
+    private final long consumerFailures;
+    private final long elapsedNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param operation    The name of the operation, e.g. {@code capture.create}.
+     * @param succeeded    The number of items processed successfully.
+     * @param failed       The number of items whose operation failed.
+     * @param elapsedNanos The time elapsed from the start until all items were processed, in nanoseconds.
+     */
+    public BulkSummary(String operation, long succeeded, long failed, long elapsedNanos) {
+        this(operation, succeeded, failed, 0, elapsedNanos);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param operation        The name of the operation, e.g. {@code capture.create}.
+     * @param succeeded        The number of items processed successfully.
+     * @param failed           The number of items whose operation failed.
+     * @param consumerFailures The number of results the consumer of the results failed to process.
+     * @param elapsedNanos     The time elapsed from the start until all items were processed, in nanoseconds.
+     */
+    public BulkSummary(String operation, long succeeded, long failed, long consumerFailures, long elapsedNanos) {
+        this.operation = operation;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.consumerFailures = consumerFailures;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getTotal() {
+        return succeeded + failed;
+    }
+
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return The number of results the consumer of the results threw an exception for. These results are lost
+     * unless the consumer recorded them otherwise.
+     */
+    public long getConsumerFailures() {
+        return consumerFailures;
+    }
+
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * @return The number of items processed per second.
+     */
+    public double getThroughput() {
+        return elapsedNanos > 0 ? getTotal() * 1e9 / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d succeeded, %d failed, %d not consumed in %d ms (%.1f/s)",
+                operation, succeeded, failed, consumerFailures, elapsedNanos / 1_000_000, getThroughput());
+    }
+
+}
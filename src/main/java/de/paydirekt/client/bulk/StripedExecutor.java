@@ -0,0 +1,113 @@
+package de.paydirekt.client.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Executes tasks on a shared executor one at a time per key, in the order of submission, while the tasks of
+ * different keys run concurrently, e.g. to serialize the refunds of the same checkout.
+ * <p>
+ * The keys are mapped to stripes, each a serial queue drained on the executor without occupying a thread while it
+ * is empty. There are four stripes per task in flight, which keeps the chance that tasks of different keys block
+ * each other low.
+ * <p>
+ * Tasks must be submitted by one thread at a time.
+ */
+public final class StripedExecutor {
+
+    private static final int STRIPES_PER_TASK = 4;
+
+    private final Executor executor;
+    private final List<Stripe> stripes;
+
+    /**
+     * Constructor.
+     *
+     * @param executor    The executor of the tasks.
+     * @param concurrency The maximum number of tasks in flight, which sizes the stripes.
+     */
+    public StripedExecutor(Executor executor, int concurrency) {
+        requireNonNull(executor);
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive.");
+        }
+        this.executor = executor;
+        this.stripes = new ArrayList<>(concurrency * STRIPES_PER_TASK);
+        for (int i = 0; i < concurrency * STRIPES_PER_TASK; i++) {
+            stripes.add(new Stripe());
+        }
+    }
+
+    /**
+     * Executes a task after the tasks submitted before with the same key.
+     *
+     * @param key  The key of the task, may be {@code null}.
+     * @param task The task. If the executor rejects it, the task and the ones queued behind it are rejected.
+     */
+    public void execute(Object key, Task task) {
+        requireNonNull(task);
+        stripes.get(Math.floorMod(spread(key), stripes.size())).execute(task);
+    }
+
+    private static int spread(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A task which is completed with a failure if it cannot be executed.
+     */
+    public interface Task extends Runnable {
+
+        /**
+         * Completes the task with a failure instead of running it.
+         *
+         * @param failure The failure, e.g. the rejection by the executor.
+         */
+        void reject(RuntimeException failure);
+
+    }
+
+    /**
+     * Runs the tasks of the keys mapped to it one at a time, in the order of submission, on the shared executor.
+     */
+    private final class Stripe {
+
+        private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        void execute(Task task) {
+            tasks.offer(task);
+            if (running.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    Task rejected;
+                    while ((rejected = tasks.poll()) != null) {
+                        rejected.reject(e);
+                    }
+                    running.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                Task task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                running.set(false);
+            } while (!tasks.isEmpty() && running.compareAndSet(false, true));
+        }
+
+    }
+
+}
@@ -1,16 +1,30 @@
 package de.paydirekt.client.capture;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import de.paydirekt.client.bulk.BulkExecutor;
+import de.paydirekt.client.bulk.BulkReport;
+import de.paydirekt.client.bulk.BulkResult;
+import de.paydirekt.client.bulk.BulkSummary;
 import de.paydirekt.client.capture.model.Capture;
 import de.paydirekt.client.capture.model.CaptureRequest;
 import de.paydirekt.client.checkout.model.Checkout;
 import de.paydirekt.client.rest.GetRequestBuilder;
+import de.paydirekt.client.rest.IdempotencyRegistry;
+import de.paydirekt.client.rest.JsonCodec;
 import de.paydirekt.client.rest.Link;
 import de.paydirekt.client.rest.PostRequestBuilder;
 import de.paydirekt.client.rest.RequestExecutor;
+import de.paydirekt.client.rest.RetryPolicy;
+import de.paydirekt.client.security.AccessTokenProvider;
 import de.paydirekt.client.security.model.AccessToken;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -20,8 +34,12 @@ import static java.util.Objects.requireNonNull;
 public class CaptureClient {
 
     private static final String CAPTURE_LINK_REL = "captures";
+    private static final String BULK_OPERATION = "capture.create";
+
+    private static final JsonCodec jsonCodec = JsonCodec.getDefault();
 
     private final RequestExecutor requestExecutor;
+    private final IdempotencyRegistry idempotencyRegistry;
 
     /**
      * Default constructor, initializes all dependencies.
@@ -36,9 +54,21 @@ public class CaptureClient {
      * @param requestExecutor The requestExecutor.
      */
     public CaptureClient(RequestExecutor requestExecutor) {
+        this(requestExecutor, new IdempotencyRegistry());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param requestExecutor     The requestExecutor.
+     * @param idempotencyRegistry The record of the captures created idempotently.
+     */
+    public CaptureClient(RequestExecutor requestExecutor, IdempotencyRegistry idempotencyRegistry) {
         requireNonNull(requestExecutor);
+        requireNonNull(idempotencyRegistry);
 
         this.requestExecutor = requestExecutor;
+        this.idempotencyRegistry = idempotencyRegistry;
     }
 
     /**
@@ -49,10 +79,19 @@ public class CaptureClient {
      * @return The retrieved capture.
      */
     public Capture getCapture(Link link, AccessToken accessToken) {
-        HttpGet get = new GetRequestBuilder(link.getHref())
-                .withDefaultHeaders(accessToken)
-                .build();
-        return requestExecutor.executeRequest(get, Capture.class);
+        return requestExecutor.executeRequest(getCaptureRequest(link, accessToken), Capture.class);
+    }
+
+    /**
+     * Retrieves a capture.
+     *
+     * @param link        The link to the capture.
+     * @param accessToken The accessToken.
+     * @param retryPolicy The retry policy of this request, overriding the one of the request executor.
+     * @return The retrieved capture.
+     */
+    public Capture getCapture(Link link, AccessToken accessToken, RetryPolicy retryPolicy) {
+        return requestExecutor.executeRequest(getCaptureRequest(link, accessToken), Capture.class, retryPolicy);
     }
 
     /**
@@ -64,12 +103,179 @@ public class CaptureClient {
      * @return The created capture.
      */
     public Capture createCapture(CaptureRequest captureRequest, Checkout checkout, AccessToken accessToken) {
-        HttpPost post = new PostRequestBuilder(getCaptureEndpoint(checkout))
+        return requestExecutor.executeRequest(createCaptureRequest(captureRequest, checkout, accessToken), Capture.class);
+    }
+
+    /**
+     * Creates a capture for a given checkout at most once. The capture is identified by the
+     * merchantCaptureReferenceNumber of the request, which must be unique per checkout.
+     * <p>
+     * All attempts carry the same X-Request-ID, derived from the checkout and the reference number.
+     * If an attempt fails ambiguously, e.g. by a timeout, the captures of the checkout are searched for the
+     * reference number before the capture is created again, so retries never charge the buyer twice.
+     * Transient errors are retried according to the retry policy of the request executor.
+     *
+     * @param captureRequest The request body.
+     * @param checkout       The checkout to create the capture for.
+     * @param accessToken    The access token.
+     * @return The created capture.
+     */
+    public Capture createCaptureIdempotently(CaptureRequest captureRequest, Checkout checkout, AccessToken accessToken) {
+        String referenceNumber = captureRequest.getMerchantCaptureReferenceNumber();
+        if (referenceNumber == null || referenceNumber.trim().isEmpty()) {
+            throw new IllegalArgumentException("The merchantCaptureReferenceNumber identifies the capture and must be set.");
+        }
+        String key = getCaptureEndpoint(checkout) + "#" + referenceNumber;
+        String requestId = IdempotencyRegistry.requestIdOf(key);
+
+        return idempotencyRegistry.execute(key,
+                () -> requestExecutor.executeRequest(createCaptureRequest(captureRequest, checkout, accessToken, requestId), Capture.class, RetryPolicy.NONE),
+                () -> findCapture(checkout, referenceNumber, accessToken),
+                requestExecutor.getRetryPolicy());
+    }
+
+    /**
+     * Retrieves a capture.
+     *
+     * @param link                The link to the capture.
+     * @param accessTokenProvider The provider of the access token.
+     * @return The retrieved capture.
+     */
+    public Capture getCapture(Link link, AccessTokenProvider accessTokenProvider) {
+        return getCapture(link, accessTokenProvider.getAccessToken());
+    }
+
+    /**
+     * Creates a capture for a given checkout.
+     *
+     * @param captureRequest      The request body.
+     * @param checkout            The checkout to make the capture for.
+     * @param accessTokenProvider The provider of the access token.
+     * @return The created capture.
+     */
+    public Capture createCapture(CaptureRequest captureRequest, Checkout checkout, AccessTokenProvider accessTokenProvider) {
+        return createCapture(captureRequest, checkout, accessTokenProvider.getAccessToken());
+    }
+
+    /**
+     * Retrieves a capture asynchronously.
+     *
+     * @param link        The link to the capture.
+     * @param accessToken The accessToken.
+     * @return The future retrieved capture.
+     */
+    public CompletableFuture<Capture> getCaptureAsync(Link link, AccessToken accessToken) {
+        return requestExecutor.executeRequestAsync(getCaptureRequest(link, accessToken), Capture.class);
+    }
+
+    /**
+     * Creates a capture for a given checkout asynchronously.
+     *
+     * @param captureRequest The request body.
+     * @param checkout       The checkout to make the capture for.
+     * @param accessToken    The access token.
+     * @return The future created capture.
+     */
+    public CompletableFuture<Capture> createCaptureAsync(CaptureRequest captureRequest, Checkout checkout, AccessToken accessToken) {
+        return requestExecutor.executeRequestAsync(createCaptureRequest(captureRequest, checkout, accessToken), Capture.class);
+    }
+
+    /**
+     * Creates the captures of many checkouts in parallel, e.g. at the end of a shipping wave.
+     * A failed capture does not abort the others.
+     *
+     * @param items        The captures to create.
+     * @param accessToken  The access token shared by all requests, which must stay valid until all captures are created.
+     * @param bulkExecutor The executor limiting the requests in flight.
+     * @return The created capture or the failure of every item, in the order of the items, and the throughput.
+     */
+    public BulkReport<CaptureItem, Capture> createCaptures(Collection<? extends CaptureItem> items, AccessToken accessToken,
+                                                          BulkExecutor bulkExecutor) {
+        requireNonNull(accessToken);
+        return bulkExecutor.execute(BULK_OPERATION, items.iterator(),
+                item -> createCapture(item.getCaptureRequest(), item.getCheckout(), accessToken));
+    }
+
+    /**
+     * Creates the captures of many checkouts in parallel, e.g. at the end of a shipping wave.
+     * A failed capture does not abort the others. The access token is shared by all requests and refreshed
+     * by the provider when it expires during a long-running batch.
+     *
+     * @param items               The captures to create, pulled only as fast as they are processed.
+     * @param accessTokenProvider The provider of the access token.
+     * @param bulkExecutor        The executor limiting the requests in flight.
+     * @return The created capture or the failure of every item, in the order of the items, and the throughput.
+     */
+    public BulkReport<CaptureItem, Capture> createCaptures(Iterator<? extends CaptureItem> items, AccessTokenProvider accessTokenProvider,
+                                                          BulkExecutor bulkExecutor) {
+        requireNonNull(accessTokenProvider);
+        return bulkExecutor.execute(BULK_OPERATION, items,
+                item -> createCapture(item.getCaptureRequest(), item.getCheckout(), accessTokenProvider));
+    }
+
+    /**
+     * Creates the captures of many checkouts in parallel and passes each result to the consumer as soon as
+     * it is available, so that batches of any size can be processed in constant memory.
+     * A failed capture does not abort the others.
+     *
+     * @param items               The captures to create, pulled only as fast as they are processed.
+     * @param accessTokenProvider The provider of the access token.
+     * @param bulkExecutor        The executor limiting the requests in flight.
+     * @param consumer            The consumer of the results, called by one thread at a time.
+     * @return The counts and the throughput.
+     */
+    public BulkSummary createCaptures(Iterator<? extends CaptureItem> items, AccessTokenProvider accessTokenProvider,
+                                      BulkExecutor bulkExecutor, Consumer<? super BulkResult<CaptureItem, Capture>> consumer) {
+        requireNonNull(accessTokenProvider);
+        return bulkExecutor.execute(BULK_OPERATION, items,
+                item -> createCapture(item.getCaptureRequest(), item.getCheckout(), accessTokenProvider), consumer);
+    }
+
+    private HttpGet getCaptureRequest(Link link, AccessToken accessToken) {
+        return new GetRequestBuilder(link.getHref())
+                .withDefaultHeaders(accessToken)
+                .build();
+    }
+
+    private HttpPost createCaptureRequest(CaptureRequest captureRequest, Checkout checkout, AccessToken accessToken) {
+        return new PostRequestBuilder(getCaptureEndpoint(checkout))
                 .withDefaultHeaders(accessToken)
                 .withEntity(captureRequest)
                 .build();
-        Capture capture = requestExecutor.executeRequest(post, Capture.class);
-        return capture;
+    }
+
+    private HttpPost createCaptureRequest(CaptureRequest captureRequest, Checkout checkout, AccessToken accessToken, String requestId) {
+        HttpPost request = createCaptureRequest(captureRequest, checkout, accessToken);
+        request.addHeader("X-Request-ID", requestId);
+        return request;
+    }
+
+    /**
+     * Searches the captures of a checkout for the given reference number.
+     * <p>
+     * The captures endpoint answers with a HAL collection, which embeds the captures as {@code _embedded.captures}.
+     * An empty collection may omit the {@code captures} array. A response without {@code _embedded} is no such
+     * collection, it is an error rather than "not found", which would create the capture again.
+     *
+     * @return The capture, {@code null} if the checkout has no such capture.
+     * @throws IllegalStateException If the response embeds no resources.
+     */
+    private Capture findCapture(Checkout checkout, String referenceNumber, AccessToken accessToken) {
+        HttpGet request = new GetRequestBuilder(getCaptureEndpoint(checkout))
+                .withDefaultHeaders(accessToken)
+                .build();
+        JsonNode embedded = requestExecutor.executeRequest(request, JsonNode.class, RetryPolicy.NONE)
+                .path("_embedded");
+        if (!embedded.isObject()) {
+            throw new IllegalStateException(String.format("The captures of %s embed no resources", request.getURI()));
+        }
+        JsonNode captures = embedded.path(CAPTURE_LINK_REL);
+        for (JsonNode capture : captures) {
+            if (referenceNumber.equals(capture.path("merchantCaptureReferenceNumber").asText(null))) {
+                return jsonCodec.convertValue(capture, Capture.class);
+            }
+        }
+        return null;
     }
 
     private String getCaptureEndpoint(Checkout checkout) {
@@ -0,0 +1,43 @@
+package de.paydirekt.client.capture;
+
+import de.paydirekt.client.capture.model.CaptureRequest;
+import de.paydirekt.client.checkout.model.Checkout;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A capture to be created for a checkout by {@link CaptureClient#createCaptures}.
+ */
+public final class CaptureItem {
+
+    private final Checkout checkout;
+    private final CaptureRequest captureRequest;
+
+    /**
+     * Constructor.
+     *
+     * @param checkout       The checkout to make the capture for.
+     * @param captureRequest The request body.
+     */
+    public CaptureItem(Checkout checkout, CaptureRequest captureRequest) {
+        requireNonNull(checkout);
+        requireNonNull(captureRequest);
+
+        this.checkout = checkout;
+        this.captureRequest = captureRequest;
+    }
+
+    public Checkout getCheckout() {
+        return checkout;
+    }
+
+    public CaptureRequest getCaptureRequest() {
+        return captureRequest;
+    }
+
+    @Override
+    public String toString() {
+        return "CaptureItem{" + captureRequest.getMerchantCaptureReferenceNumber() + "}";
+    }
+
+}
@@ -6,10 +6,14 @@ import de.paydirekt.client.rest.GetRequestBuilder;
 import de.paydirekt.client.rest.Link;
 import de.paydirekt.client.rest.PostRequestBuilder;
 import de.paydirekt.client.rest.RequestExecutor;
+import de.paydirekt.client.rest.RetryPolicy;
+import de.paydirekt.client.security.AccessTokenProvider;
 import de.paydirekt.client.security.model.AccessToken;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 
+import java.util.concurrent.CompletableFuture;
+
 import static de.paydirekt.client.rest.EndpointProperties.getCheckoutEndpoint;
 import static java.util.Objects.requireNonNull;
 
@@ -54,11 +58,7 @@ public class CheckoutClient {
      * @return The created checkout.
      */
     public Checkout createCheckout(CheckoutRequest checkoutRequest, AccessToken accessToken) {
-        HttpPost post = new PostRequestBuilder(checkoutEndpoint)
-                .withDefaultHeaders(accessToken)
-                .withEntity(checkoutRequest)
-                .build();
-        return requestExecutor.executeRequest(post, Checkout.class);
+        return requestExecutor.executeRequest(createCheckoutRequest(checkoutRequest, accessToken), Checkout.class);
     }
 
     /**
@@ -69,10 +69,19 @@ public class CheckoutClient {
      * @return The retrieved checkout.
      */
     public Checkout getCheckout(Link link, AccessToken accessToken) {
-        HttpGet get = new GetRequestBuilder(link.getHref())
-                .withDefaultHeaders(accessToken)
-                .build();
-        return requestExecutor.executeRequest(get, Checkout.class);
+        return requestExecutor.executeRequest(getCheckoutRequest(link, accessToken), Checkout.class);
+    }
+
+    /**
+     * Retrieves a checkout.
+     *
+     * @param link        The link to the checkout.
+     * @param accessToken The access token.
+     * @param retryPolicy The retry policy of this request, overriding the one of the request executor.
+     * @return The retrieved checkout.
+     */
+    public Checkout getCheckout(Link link, AccessToken accessToken, RetryPolicy retryPolicy) {
+        return requestExecutor.executeRequest(getCheckoutRequest(link, accessToken), Checkout.class, retryPolicy);
     }
 
     /**
@@ -84,10 +93,92 @@ public class CheckoutClient {
      * @return The closed checkout.
      */
     public Checkout closeCheckout(Checkout checkout, AccessToken accessToken) {
-        HttpPost post = new PostRequestBuilder(getCloseEndpoint(checkout))
+        return requestExecutor.executeRequest(closeCheckoutRequest(checkout, accessToken), Checkout.class);
+    }
+
+    /**
+     * Creates a checkout.
+     *
+     * @param checkoutRequest     The request body.
+     * @param accessTokenProvider The provider of the access token.
+     * @return The created checkout.
+     */
+    public Checkout createCheckout(CheckoutRequest checkoutRequest, AccessTokenProvider accessTokenProvider) {
+        return createCheckout(checkoutRequest, accessTokenProvider.getAccessToken());
+    }
+
+    /**
+     * Retrieves a checkout.
+     *
+     * @param link                The link to the checkout.
+     * @param accessTokenProvider The provider of the access token.
+     * @return The retrieved checkout.
+     */
+    public Checkout getCheckout(Link link, AccessTokenProvider accessTokenProvider) {
+        return getCheckout(link, accessTokenProvider.getAccessToken());
+    }
+
+    /**
+     * Closes a checkout for the capture process.
+     *
+     * @param checkout            The checkout to be closed.
+     * @param accessTokenProvider The provider of the access token.
+     * @return The closed checkout.
+     */
+    public Checkout closeCheckout(Checkout checkout, AccessTokenProvider accessTokenProvider) {
+        return closeCheckout(checkout, accessTokenProvider.getAccessToken());
+    }
+
+    /**
+     * Creates a checkout asynchronously.
+     *
+     * @param checkoutRequest The request body.
+     * @param accessToken     The access token.
+     * @return The future created checkout.
+     */
+    public CompletableFuture<Checkout> createCheckoutAsync(CheckoutRequest checkoutRequest, AccessToken accessToken) {
+        return requestExecutor.executeRequestAsync(createCheckoutRequest(checkoutRequest, accessToken), Checkout.class);
+    }
+
+    /**
+     * Retrieves a checkout asynchronously.
+     *
+     * @param link        The link to the checkout.
+     * @param accessToken The access token.
+     * @return The future retrieved checkout.
+     */
+    public CompletableFuture<Checkout> getCheckoutAsync(Link link, AccessToken accessToken) {
+        return requestExecutor.executeRequestAsync(getCheckoutRequest(link, accessToken), Checkout.class);
+    }
+
+    /**
+     * Closes a checkout for the capture process asynchronously.
+     *
+     * @param checkout    The checkout to be closed.
+     * @param accessToken The access token.
+     * @return The future closed checkout.
+     */
+    public CompletableFuture<Checkout> closeCheckoutAsync(Checkout checkout, AccessToken accessToken) {
+        return requestExecutor.executeRequestAsync(closeCheckoutRequest(checkout, accessToken), Checkout.class);
+    }
+
+    private HttpPost createCheckoutRequest(CheckoutRequest checkoutRequest, AccessToken accessToken) {
+        return new PostRequestBuilder(checkoutEndpoint)
+                .withDefaultHeaders(accessToken)
+                .withEntity(checkoutRequest)
+                .build();
+    }
+
+    private HttpGet getCheckoutRequest(Link link, AccessToken accessToken) {
+        return new GetRequestBuilder(link.getHref())
+                .withDefaultHeaders(accessToken)
+                .build();
+    }
+
+    private HttpPost closeCheckoutRequest(Checkout checkout, AccessToken accessToken) {
+        return new PostRequestBuilder(getCloseEndpoint(checkout))
                 .withDefaultHeaders(accessToken)
                 .build();
-        return requestExecutor.executeRequest(post, Checkout.class);
     }
 
     private String getCloseEndpoint(Checkout checkout) {
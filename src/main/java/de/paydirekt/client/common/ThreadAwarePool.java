@@ -0,0 +1,87 @@
+package de.paydirekt.client.common;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Provides instances of a type which is expensive to create and not thread-safe, e.g. a keyed {@code Mac}.
+ * <p>
+ * Platform threads are long-lived, so each keeps its own instance in a {@link ThreadLocal}. Virtual threads
+ * are typically started per task, thus they borrow an instance from a bounded pool and return it afterwards,
+ * instead of creating a new one per thread.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @param <T> The type of the instances.
+ */
+public final class ThreadAwarePool<T> {
+
+    private final Supplier<T> factory;
+    private final ThreadLocal<T> threadLocal;
+    private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final int maxIdle;
+
+    /**
+     * Constructor. Keeps twice as many idle instances for virtual threads as there are processors.
+     *
+     * @param factory The factory of new instances.
+     */
+    public ThreadAwarePool(Supplier<T> factory) {
+        this(factory, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param factory The factory of new instances.
+     * @param maxIdle The maximum number of idle instances kept for virtual threads.
+     */
+    public ThreadAwarePool(Supplier<T> factory, int maxIdle) {
+        requireNonNull(factory);
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("maxIdle must not be negative.");
+        }
+        this.factory = factory;
+        this.threadLocal = ThreadLocal.withInitial(factory);
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Acquires an instance for exclusive use by the current thread until it is released.
+     *
+     * @return The instance.
+     */
+    public T acquire() {
+        if (!VirtualThreads.isVirtual(Thread.currentThread())) {
+            return threadLocal.get();
+        }
+        T instance = idle.poll();
+        if (instance == null) {
+            return factory.get();
+        }
+        idleCount.decrementAndGet();
+        return instance;
+    }
+
+    /**
+     * Releases an instance acquired by the current thread.
+     *
+     * @param instance The instance.
+     */
+    public void release(T instance) {
+        if (!VirtualThreads.isVirtual(Thread.currentThread())) {
+            return;
+        }
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(instance);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package de.paydirekt.client.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Access to the virtual threads of Java 21 and later, with a fallback to platform threads on older versions.
+ * <p>
+ * The support is compiled from {@code src/main/java21} and loaded reflectively, so the library still runs on Java 8.
+ */
+public final class VirtualThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final ThreadSupport support = loadSupport();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks whether this JVM supports virtual threads.
+     *
+     * @return {@code true} on Java 21 and later.
+     */
+    public static boolean isSupported() {
+        return support != PlatformThreadSupport.INSTANCE;
+    }
+
+    /**
+     * Checks whether a thread is a virtual thread.
+     *
+     * @param thread The thread.
+     * @return {@code true} if the thread is virtual, always {@code false} before Java 21.
+     */
+    public static boolean isVirtual(Thread thread) {
+        return support.isVirtual(thread);
+    }
+
+    /**
+     * Creates an executor which starts a new virtual thread for every task.
+     * Without support of virtual threads, the tasks are executed by a cached pool of daemon platform threads.
+     *
+     * @param name The name prefix of the threads.
+     * @return The executor, to be shut down by the caller.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String name) {
+        return support.newThreadPerTaskExecutor(name);
+    }
+
+    /**
+     * Creates an executor for blocking tasks whose concurrency is limited by the caller, e.g. by a semaphore.
+     * It starts a new virtual thread for every task. Without support of virtual threads, the tasks are executed
+     * by a fixed pool of {@code maxConcurrency} daemon platform threads.
+     *
+     * @param name           The name prefix of the threads.
+     * @param maxConcurrency The maximum number of tasks executed at a time, which sizes the pool of platform threads.
+     * @return The executor, to be shut down by the caller.
+     */
+    public static ExecutorService newBoundedExecutor(String name, int maxConcurrency) {
+        if (isSupported()) {
+            return support.newThreadPerTaskExecutor(name);
+        }
+        return Executors.newFixedThreadPool(maxConcurrency, daemonThreads(name));
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static ThreadSupport loadSupport() {
+        try {
+            return (ThreadSupport) Class.forName("de.paydirekt.client.common.VirtualThreadSupport")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ClassNotFoundException | LinkageError e) {
+            // compiled without or running before Java 21
+            return PlatformThreadSupport.INSTANCE;
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Could not load the support of virtual threads, falling back to platform threads", e);
+            return PlatformThreadSupport.INSTANCE;
+        }
+    }
+
+    /**
+     * The thread operations differing between Java versions.
+     */
+    interface ThreadSupport {
+
+        boolean isVirtual(Thread thread);
+
+        ExecutorService newThreadPerTaskExecutor(String name);
+    }
+
+    /**
+     * Thread operations before Java 21.
+     */
+    private static final class PlatformThreadSupport implements ThreadSupport {
+
+        private static final PlatformThreadSupport INSTANCE = new PlatformThreadSupport();
+
+        @Override
+        public boolean isVirtual(Thread thread) {
+            return false;
+        }
+
+        @Override
+        public ExecutorService newThreadPerTaskExecutor(String name) {
+            return Executors.newCachedThreadPool(daemonThreads(name));
+        }
+    }
+
+}
@@ -1,16 +1,30 @@
 package de.paydirekt.client.refund;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import de.paydirekt.client.bulk.BulkExecutor;
+import de.paydirekt.client.bulk.BulkReport;
+import de.paydirekt.client.bulk.BulkResult;
+import de.paydirekt.client.bulk.BulkSummary;
 import de.paydirekt.client.checkout.model.Checkout;
 import de.paydirekt.client.refund.model.Refund;
 import de.paydirekt.client.refund.model.RefundRequest;
 import de.paydirekt.client.rest.GetRequestBuilder;
+import de.paydirekt.client.rest.IdempotencyRegistry;
+import de.paydirekt.client.rest.JsonCodec;
 import de.paydirekt.client.rest.Link;
 import de.paydirekt.client.rest.PostRequestBuilder;
 import de.paydirekt.client.rest.RequestExecutor;
+import de.paydirekt.client.rest.RetryPolicy;
+import de.paydirekt.client.security.AccessTokenProvider;
 import de.paydirekt.client.security.model.AccessToken;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -21,8 +35,12 @@ import static java.util.Objects.requireNonNull;
 public class RefundClient {
 
     private static final String REFUND_LINK_REL = "refunds";
+    private static final String BULK_OPERATION = "refund.create";
+
+    private static final JsonCodec jsonCodec = JsonCodec.getDefault();
 
     private final RequestExecutor requestExecutor;
+    private final IdempotencyRegistry idempotencyRegistry;
 
     /**
      * Default constructor, initializes all dependencies.
@@ -37,9 +55,21 @@ public class RefundClient {
      * @param requestExecutor The requestExecutor.
      */
     public RefundClient(RequestExecutor requestExecutor) {
+        this(requestExecutor, new IdempotencyRegistry());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param requestExecutor     The requestExecutor.
+     * @param idempotencyRegistry The record of the refunds created idempotently.
+     */
+    public RefundClient(RequestExecutor requestExecutor, IdempotencyRegistry idempotencyRegistry) {
         requireNonNull(requestExecutor);
+        requireNonNull(idempotencyRegistry);
 
         this.requestExecutor = requestExecutor;
+        this.idempotencyRegistry = idempotencyRegistry;
     }
 
     /**
@@ -50,10 +80,19 @@ public class RefundClient {
      * @return The retrieved refund.
      */
     public Refund getRefund(Link link, AccessToken accessToken) {
-        HttpGet get = new GetRequestBuilder(link.getHref())
-                .withDefaultHeaders(accessToken)
-                .build();
-        return requestExecutor.executeRequest(get, Refund.class);
+        return requestExecutor.executeRequest(getRefundRequest(link, accessToken), Refund.class);
+    }
+
+    /**
+     * Retrieves a refund.
+     *
+     * @param link        The link to the refund.
+     * @param accessToken The accessToken.
+     * @param retryPolicy The retry policy of this request, overriding the one of the request executor.
+     * @return The retrieved refund.
+     */
+    public Refund getRefund(Link link, AccessToken accessToken, RetryPolicy retryPolicy) {
+        return requestExecutor.executeRequest(getRefundRequest(link, accessToken), Refund.class, retryPolicy);
     }
 
     /**
@@ -65,11 +104,185 @@ public class RefundClient {
      * @return The created refund.
      */
     public Refund createRefund(RefundRequest refundRequest, Checkout checkout, AccessToken accessToken) {
-        HttpPost post = new PostRequestBuilder(getRefundsEndpoint(checkout))
+        return requestExecutor.executeRequest(createRefundRequest(refundRequest, checkout, accessToken), Refund.class);
+    }
+
+    /**
+     * Creates a refund for a given checkout at most once. The refund is identified by the
+     * merchantRefundReferenceNumber of the request, which must be unique per checkout.
+     * <p>
+     * All attempts carry the same X-Request-ID, derived from the checkout and the reference number.
+     * If an attempt fails ambiguously, e.g. by a timeout, the refunds of the checkout are searched for the
+     * reference number before the refund is created again, so retries never refund the buyer twice.
+     * Transient errors are retried according to the retry policy of the request executor.
+     *
+     * @param refundRequest The request body.
+     * @param checkout      The checkout to create the refund for.
+     * @param accessToken   The access token.
+     * @return The created refund.
+     */
+    public Refund createRefundIdempotently(RefundRequest refundRequest, Checkout checkout, AccessToken accessToken) {
+        String referenceNumber = refundRequest.getMerchantRefundReferenceNumber();
+        if (referenceNumber == null || referenceNumber.trim().isEmpty()) {
+            throw new IllegalArgumentException("The merchantRefundReferenceNumber identifies the refund and must be set.");
+        }
+        String key = getRefundsEndpoint(checkout) + "#" + referenceNumber;
+        String requestId = IdempotencyRegistry.requestIdOf(key);
+
+        return idempotencyRegistry.execute(key,
+                () -> requestExecutor.executeRequest(createRefundRequest(refundRequest, checkout, accessToken, requestId), Refund.class, RetryPolicy.NONE),
+                () -> findRefund(checkout, referenceNumber, accessToken),
+                requestExecutor.getRetryPolicy());
+    }
+
+    /**
+     * Retrieves a refund.
+     *
+     * @param link                The link to the refund.
+     * @param accessTokenProvider The provider of the access token.
+     * @return The retrieved refund.
+     */
+    public Refund getRefund(Link link, AccessTokenProvider accessTokenProvider) {
+        return getRefund(link, accessTokenProvider.getAccessToken());
+    }
+
+    /**
+     * Creates a refund for a given checkout.
+     *
+     * @param refundRequest       The refund request.
+     * @param checkout            The checkout to create a refund for.
+     * @param accessTokenProvider The provider of the access token.
+     * @return The created refund.
+     */
+    public Refund createRefund(RefundRequest refundRequest, Checkout checkout, AccessTokenProvider accessTokenProvider) {
+        return createRefund(refundRequest, checkout, accessTokenProvider.getAccessToken());
+    }
+
+    /**
+     * Retrieves a refund asynchronously.
+     *
+     * @param link        The link to the refund.
+     * @param accessToken The accessToken.
+     * @return The future retrieved refund.
+     */
+    public CompletableFuture<Refund> getRefundAsync(Link link, AccessToken accessToken) {
+        return requestExecutor.executeRequestAsync(getRefundRequest(link, accessToken), Refund.class);
+    }
+
+    /**
+     * Creates a refund for a given checkout asynchronously.
+     *
+     * @param refundRequest The refund request.
+     * @param checkout      The checkout to create a refund for.
+     * @param accessToken   The access token.
+     * @return The future created refund.
+     */
+    public CompletableFuture<Refund> createRefundAsync(RefundRequest refundRequest, Checkout checkout, AccessToken accessToken) {
+        return requestExecutor.executeRequestAsync(createRefundRequest(refundRequest, checkout, accessToken), Refund.class);
+    }
+
+    /**
+     * Creates many refunds in parallel, e.g. when processing returns. The refunds of the same checkout,
+     * identified by its self link, are created one after another in the order of the items, so they never race
+     * for the remaining refundable amount. A failed refund does not abort the others.
+     *
+     * @param items        The refunds to create.
+     * @param accessToken  The access token shared by all requests, which must stay valid until all refunds are created.
+     * @param bulkExecutor The executor limiting the requests in flight.
+     * @return The created refund or the failure of every item, in the order of the items, and the throughput.
+     */
+    public BulkReport<RefundItem, Refund> createRefunds(Collection<? extends RefundItem> items, AccessToken accessToken,
+                                                       BulkExecutor bulkExecutor) {
+        requireNonNull(accessToken);
+        return bulkExecutor.executeByKey(BULK_OPERATION, items.iterator(), RefundClient::getCheckoutKey,
+                item -> createRefund(item.getRefundRequest(), item.getCheckout(), accessToken));
+    }
+
+    /**
+     * Creates many refunds in parallel, e.g. when processing returns. The refunds of the same checkout,
+     * identified by its self link, are created one after another in the order of the items.
+     * A failed refund does not abort the others. The access token is shared by all requests and refreshed
+     * by the provider when it expires during a long-running batch.
+     *
+     * @param items               The refunds to create, pulled only as fast as they are processed.
+     * @param accessTokenProvider The provider of the access token.
+     * @param bulkExecutor        The executor limiting the requests in flight.
+     * @return The created refund or the failure of every item, in the order of the items, and the throughput.
+     */
+    public BulkReport<RefundItem, Refund> createRefunds(Iterator<? extends RefundItem> items, AccessTokenProvider accessTokenProvider,
+                                                       BulkExecutor bulkExecutor) {
+        requireNonNull(accessTokenProvider);
+        return bulkExecutor.executeByKey(BULK_OPERATION, items, RefundClient::getCheckoutKey,
+                item -> createRefund(item.getRefundRequest(), item.getCheckout(), accessTokenProvider));
+    }
+
+    /**
+     * Creates many refunds in parallel and passes each result to the consumer as soon as it is available, so that
+     * batches of any size can be processed in constant memory. The refunds of the same checkout, identified by its
+     * self link, are created one after another in the order of the items. A failed refund does not abort the others.
+     *
+     * @param items               The refunds to create, pulled only as fast as they are processed.
+     * @param accessTokenProvider The provider of the access token.
+     * @param bulkExecutor        The executor limiting the requests in flight.
+     * @param consumer            The consumer of the results, called by one thread at a time.
+     * @return The counts and the throughput.
+     */
+    public BulkSummary createRefunds(Iterator<? extends RefundItem> items, AccessTokenProvider accessTokenProvider,
+                                     BulkExecutor bulkExecutor, Consumer<? super BulkResult<RefundItem, Refund>> consumer) {
+        requireNonNull(accessTokenProvider);
+        return bulkExecutor.executeByKey(BULK_OPERATION, items, RefundClient::getCheckoutKey,
+                item -> createRefund(item.getRefundRequest(), item.getCheckout(), accessTokenProvider), consumer);
+    }
+
+    private HttpGet getRefundRequest(Link link, AccessToken accessToken) {
+        return new GetRequestBuilder(link.getHref())
+                .withDefaultHeaders(accessToken)
+                .build();
+    }
+
+    private HttpPost createRefundRequest(RefundRequest refundRequest, Checkout checkout, AccessToken accessToken) {
+        return new PostRequestBuilder(getRefundsEndpoint(checkout))
                 .withDefaultHeaders(accessToken)
                 .withEntity(refundRequest)
                 .build();
-        return requestExecutor.executeRequest(post, Refund.class);
+    }
+
+    private HttpPost createRefundRequest(RefundRequest refundRequest, Checkout checkout, AccessToken accessToken, String requestId) {
+        HttpPost request = createRefundRequest(refundRequest, checkout, accessToken);
+        request.addHeader("X-Request-ID", requestId);
+        return request;
+    }
+
+    /**
+     * Searches the refunds of a checkout for the given reference number.
+     * <p>
+     * The refunds endpoint answers with a HAL collection, which embeds the refunds as {@code _embedded.refunds}.
+     * An empty collection may omit the {@code refunds} array. A response without {@code _embedded} is no such
+     * collection, it is an error rather than "not found", which would create the refund again.
+     *
+     * @return The refund, {@code null} if the checkout has no such refund.
+     * @throws IllegalStateException If the response embeds no resources.
+     */
+    private Refund findRefund(Checkout checkout, String referenceNumber, AccessToken accessToken) {
+        HttpGet request = new GetRequestBuilder(getRefundsEndpoint(checkout))
+                .withDefaultHeaders(accessToken)
+                .build();
+        JsonNode embedded = requestExecutor.executeRequest(request, JsonNode.class, RetryPolicy.NONE)
+                .path("_embedded");
+        if (!embedded.isObject()) {
+            throw new IllegalStateException(String.format("The refunds of %s embed no resources", request.getURI()));
+        }
+        JsonNode refunds = embedded.path(REFUND_LINK_REL);
+        for (JsonNode refund : refunds) {
+            if (referenceNumber.equals(refund.path("merchantRefundReferenceNumber").asText(null))) {
+                return jsonCodec.convertValue(refund, Refund.class);
+            }
+        }
+        return null;
+    }
+
+    private static String getCheckoutKey(RefundItem item) {
+        return item.getCheckout().getSelfLink().getHref();
     }
 
     private String getRefundsEndpoint(Checkout checkoutResponse) {
@@ -0,0 +1,43 @@
+package de.paydirekt.client.refund;
+
+import de.paydirekt.client.checkout.model.Checkout;
+import de.paydirekt.client.refund.model.RefundRequest;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A refund to be created for a checkout by {@link RefundClient#createRefunds}.
+ */
+public final class RefundItem {
+
+    private final Checkout checkout;
+    private final RefundRequest refundRequest;
+
+    /**
+     * Constructor.
+     *
+     * @param checkout      The checkout to create the refund for.
+     * @param refundRequest The request body.
+     */
+    public RefundItem(Checkout checkout, RefundRequest refundRequest) {
+        requireNonNull(checkout);
+        requireNonNull(refundRequest);
+
+        this.checkout = checkout;
+        this.refundRequest = refundRequest;
+    }
+
+    public Checkout getCheckout() {
+        return checkout;
+    }
+
+    public RefundRequest getRefundRequest() {
+        return refundRequest;
+    }
+
+    @Override
+    public String toString() {
+        return "RefundItem{" + refundRequest.getMerchantRefundReferenceNumber() + "}";
+    }
+
+}
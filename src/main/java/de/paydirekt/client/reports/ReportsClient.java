@@ -1,9 +1,12 @@
 package de.paydirekt.client.reports;
 
+import de.paydirekt.client.reports.model.Transaction;
 import de.paydirekt.client.reports.model.TransactionReport;
 import de.paydirekt.client.reports.model.TransactionReportQueryParameters;
 import de.paydirekt.client.rest.GetRequestBuilder;
 import de.paydirekt.client.rest.RequestExecutor;
+import de.paydirekt.client.rest.RetryPolicy;
+import de.paydirekt.client.security.AccessTokenProvider;
 import de.paydirekt.client.security.model.AccessToken;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -14,13 +17,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static de.paydirekt.client.rest.EndpointProperties.getTransactionReportsEndpoint;
 import static java.util.Objects.requireNonNull;
@@ -32,6 +46,10 @@ import static java.util.Objects.requireNonNull;
 public class ReportsClient {
 
     private static final Logger logger = LoggerFactory.getLogger(ReportsClient.class);
+    private static final String TRANSACTIONS_FIELD = "transactions";
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT
+            .withFirstRecordAsHeader()
+            .withSkipHeaderRecord();
 
     private final String reportsEndpoint;
     private final RequestExecutor requestExecutor;
@@ -65,11 +83,87 @@ public class ReportsClient {
      * @return The created report.
      */
     public TransactionReport getTransactions(TransactionReportQueryParameters transactionRequest, AccessToken accessToken) {
-        URI uri = addQueryParams(reportsEndpoint, transactionRequest);
-        HttpGet get = new GetRequestBuilder(uri.toString())
-                .withDefaultHeaders(accessToken)
-                .build();
-        return requestExecutor.executeRequest(get, TransactionReport.class);
+        return requestExecutor.executeRequest(getTransactionsRequest(transactionRequest, accessToken), TransactionReport.class);
+    }
+
+    /**
+     * Creates a transaction report.
+     *
+     * @param transactionRequest The request.
+     * @param accessToken        The access token.
+     * @param retryPolicy        The retry policy of this request, overriding the one of the request executor.
+     * @return The created report.
+     */
+    public TransactionReport getTransactions(TransactionReportQueryParameters transactionRequest, AccessToken accessToken, RetryPolicy retryPolicy) {
+        return requestExecutor.executeRequest(getTransactionsRequest(transactionRequest, accessToken), TransactionReport.class, retryPolicy);
+    }
+
+    /**
+     * Creates a transaction report and deserializes the transactions one by one while they are read from the response.
+     * <p>
+     * The memory needed is independent of the size of the report. The connection is held until the
+     * returned stream is closed, so it must always be closed, e.g. using try-with-resources.
+     *
+     * @param transactionRequest The request.
+     * @param accessToken        The access token.
+     * @return The transactions of the report.
+     */
+    public Stream<Transaction> streamTransactions(TransactionReportQueryParameters transactionRequest, AccessToken accessToken) {
+        return requestExecutor.executeRequestStreaming(getTransactionsRequest(transactionRequest, accessToken),
+                TRANSACTIONS_FIELD, Transaction.class);
+    }
+
+    /**
+     * Creates a transaction report and passes each transaction to the consumer while it is read from the response.
+     *
+     * @param transactionRequest The request.
+     * @param accessToken        The access token.
+     * @param consumer           The consumer of the transactions.
+     */
+    public void forEachTransaction(TransactionReportQueryParameters transactionRequest, AccessToken accessToken,
+                                   Consumer<Transaction> consumer) {
+        try (Stream<Transaction> transactions = streamTransactions(transactionRequest, accessToken)) {
+            transactions.forEach(consumer);
+        }
+    }
+
+    /**
+     * Creates a transaction report for a large time range by splitting it into slices,
+     * which are fetched concurrently.
+     * <p>
+     * The transactions are emitted in chronological order of the slices and ordered by transaction date
+     * within each slice. At most {@code parallelism} slices are fetched or held in memory at a time.
+     * Closing the stream cancels the slices which have not been consumed yet.
+     * <p>
+     * The slices are disjoint, see {@link TransactionReportQueryParameters#split(Duration)}, so every transaction
+     * is emitted once, including transactions stamped exactly on the boundary of two slices.
+     *
+     * @param transactionRequest The request, {@code from} and {@code to} must be set.
+     * @param accessToken        The access token.
+     * @param sliceLength        The length of the time range of each slice, e.g. a day or an hour.
+     * @param parallelism        The maximum number of slices fetched concurrently.
+     * @return The transactions of the report.
+     */
+    public Stream<Transaction> streamTransactionsInSlices(TransactionReportQueryParameters transactionRequest, AccessToken accessToken,
+                                                          Duration sliceLength, int parallelism) {
+        return streamTransactionsInSlices(transactionRequest, () -> accessToken, sliceLength, parallelism);
+    }
+
+    /**
+     * Creates a transaction report for a large time range by splitting it into slices,
+     * which are fetched concurrently. The token is retrieved from the provider for each slice,
+     * so long running downloads are not affected by the expiry of the token.
+     *
+     * @param transactionRequest  The request, {@code from} and {@code to} must be set.
+     * @param accessTokenProvider The provider of the access token.
+     * @param sliceLength         The length of the time range of each slice, e.g. a day or an hour.
+     * @param parallelism         The maximum number of slices fetched concurrently.
+     * @return The transactions of the report.
+     * @see #streamTransactionsInSlices(TransactionReportQueryParameters, AccessToken, Duration, int)
+     */
+    public Stream<Transaction> streamTransactionsInSlices(TransactionReportQueryParameters transactionRequest, AccessTokenProvider accessTokenProvider,
+                                                          Duration sliceLength, int parallelism) {
+        return streamTransactionsInSlices(transactionRequest, accessTokenProvider::getAccessToken, sliceLength, parallelism);
     }
 
     /**
@@ -80,22 +174,117 @@ public class ReportsClient {
      * @return The created report as CSV.
      */
     public List<CSVRecord> getTransactionsAsCSV(TransactionReportQueryParameters transactionReportQueryParameters, AccessToken accessToken) {
+        try (Stream<CSVRecord> csvRecords = streamTransactionsAsCSV(transactionReportQueryParameters, accessToken)) {
+            return csvRecords.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Creates a transaction report and parses the CSV rows while they are read from the response.
+     * <p>
+     * The memory needed is independent of the size of the report. The connection is held until the
+     * returned stream is closed, so it must always be closed, e.g. using try-with-resources.
+     *
+     * @param transactionReportQueryParameters The request.
+     * @param accessToken                      The access token.
+     * @return The rows of the report as CSV.
+     */
+    public Stream<CSVRecord> streamTransactionsAsCSV(TransactionReportQueryParameters transactionReportQueryParameters, AccessToken accessToken) {
+        InputStream response = requestExecutor.executeRequestStreaming(getTransactionsAsCSVRequest(transactionReportQueryParameters, accessToken));
+        CSVParser csvParser = openCsvParser(response);
+        return StreamSupport.stream(csvParser.spliterator(), false)
+                .onClose(() -> closeCsvParser(csvParser));
+    }
+
+    /**
+     * Creates a transaction report and passes each CSV row to the consumer while it is read from the response.
+     *
+     * @param transactionReportQueryParameters The request.
+     * @param accessToken                      The access token.
+     * @param consumer                         The consumer of the rows.
+     */
+    public void forEachTransactionAsCSV(TransactionReportQueryParameters transactionReportQueryParameters, AccessToken accessToken,
+                                        Consumer<CSVRecord> consumer) {
+        try (Stream<CSVRecord> csvRecords = streamTransactionsAsCSV(transactionReportQueryParameters, accessToken)) {
+            csvRecords.forEach(consumer);
+        }
+    }
+
+    /**
+     * Creates a transaction report.
+     *
+     * @param transactionRequest  The request.
+     * @param accessTokenProvider The provider of the access token.
+     * @return The created report.
+     */
+    public TransactionReport getTransactions(TransactionReportQueryParameters transactionRequest, AccessTokenProvider accessTokenProvider) {
+        return getTransactions(transactionRequest, accessTokenProvider.getAccessToken());
+    }
+
+    /**
+     * Creates a transaction report.
+     *
+     * @param transactionReportQueryParameters The request.
+     * @param accessTokenProvider              The provider of the access token.
+     * @return The created report as CSV.
+     */
+    public List<CSVRecord> getTransactionsAsCSV(TransactionReportQueryParameters transactionReportQueryParameters, AccessTokenProvider accessTokenProvider) {
+        return getTransactionsAsCSV(transactionReportQueryParameters, accessTokenProvider.getAccessToken());
+    }
+
+    /**
+     * Creates a transaction report asynchronously.
+     *
+     * @param transactionRequest The request.
+     * @param accessToken        The access token.
+     * @return The future created report.
+     */
+    public CompletableFuture<TransactionReport> getTransactionsAsync(TransactionReportQueryParameters transactionRequest, AccessToken accessToken) {
+        return requestExecutor.executeRequestAsync(getTransactionsRequest(transactionRequest, accessToken), TransactionReport.class);
+    }
+
+    /**
+     * Creates a transaction report asynchronously.
+     *
+     * @param transactionReportQueryParameters The request.
+     * @param accessToken                      The access token.
+     * @return The future created report as CSV.
+     */
+    public CompletableFuture<List<CSVRecord>> getTransactionsAsCSVAsync(TransactionReportQueryParameters transactionReportQueryParameters, AccessToken accessToken) {
+        return requestExecutor.executeRequestAsync(getTransactionsAsCSVRequest(transactionReportQueryParameters, accessToken))
+                .thenApply(this::parseCsvRecords);
+    }
+
+    private Stream<Transaction> streamTransactionsInSlices(TransactionReportQueryParameters transactionRequest, Supplier<AccessToken> accessToken,
+                                                           Duration sliceLength, int parallelism) {
+        SlicedTransactionsIterator iterator = new SlicedTransactionsIterator(
+                transactionRequest.split(sliceLength),
+                slice -> getTransactionsAsync(slice, accessToken.get()),
+                parallelism);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::cancel);
+    }
+
+    private HttpGet getTransactionsRequest(TransactionReportQueryParameters transactionRequest, AccessToken accessToken) {
+        URI uri = addQueryParams(reportsEndpoint, transactionRequest);
+        return new GetRequestBuilder(uri.toString())
+                .withDefaultHeaders(accessToken)
+                .build();
+    }
+
+    private HttpGet getTransactionsAsCSVRequest(TransactionReportQueryParameters transactionReportQueryParameters, AccessToken accessToken) {
         URI uri = addQueryParams(reportsEndpoint, transactionReportQueryParameters);
-        HttpGet get = new GetRequestBuilder(uri.toString())
+        return new GetRequestBuilder(uri.toString())
                 .withAuthorizationHeader(accessToken)
                 .withHeader("Accept", "text/csv")
                 .build();
-        String response = requestExecutor.executeRequest(get);
-        return parseCsvRecords(response);
     }
 
     private List<CSVRecord> parseCsvRecords(String data) {
         List<CSVRecord> csvRecords = null;
         try {
             csvRecords = CSVParser
-                    .parse(data, CSVFormat.DEFAULT
-                            .withFirstRecordAsHeader()
-                            .withSkipHeaderRecord())
+                    .parse(data, CSV_FORMAT)
                     .getRecords();
         } catch (IOException e) {
             logger.error("IOException while trying to parse CSV from {}", data);
@@ -104,6 +293,28 @@ public class ReportsClient {
         return csvRecords;
     }
 
+    private CSVParser openCsvParser(InputStream data) {
+        try {
+            return new CSVParser(new InputStreamReader(data, RequestExecutor.charsetOf(data)), CSV_FORMAT);
+        } catch (IOException e) {
+            logger.error("IOException while trying to read the CSV header");
+            try {
+                data.close();
+            } catch (IOException closeException) {
+                e.addSuppressed(closeException);
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void closeCsvParser(CSVParser csvParser) {
+        try {
+            csvParser.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private URI addQueryParams(String endpoint, TransactionReportQueryParameters transactionReportQueryParameters) {
         try {
             return new URIBuilder(endpoint)
@@ -0,0 +1,104 @@
+package de.paydirekt.client.reports;
+
+import de.paydirekt.client.reports.model.Transaction;
+import de.paydirekt.client.reports.model.TransactionReport;
+import de.paydirekt.client.reports.model.TransactionReportQueryParameters;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Iterates over the transactions of consecutive time slices, which are fetched concurrently.
+ * <p>
+ * At most {@code parallelism} slices are requested or buffered at a time. The slices are emitted in
+ * chronological order, the transactions of each slice are ordered by transaction date.
+ */
+final class SlicedTransactionsIterator implements Iterator<Transaction> {
+
+    private static final Comparator<Transaction> BY_TRANSACTION_DATE = Comparator.comparing(
+            Transaction::getTransactionDate, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final Iterator<TransactionReportQueryParameters> pendingSlices;
+    private final Function<TransactionReportQueryParameters, CompletableFuture<TransactionReport>> fetchSlice;
+    private final Deque<CompletableFuture<List<Transaction>>> fetchedSlices = new ArrayDeque<>();
+
+    private Iterator<Transaction> currentSlice = Collections.emptyIterator();
+
+    /**
+     * Constructor. Starts fetching the first slices.
+     *
+     * @param slices      The slices in chronological order.
+     * @param fetchSlice  Fetches the report of a slice.
+     * @param parallelism The maximum number of slices fetched concurrently.
+     */
+    SlicedTransactionsIterator(List<TransactionReportQueryParameters> slices,
+                               Function<TransactionReportQueryParameters, CompletableFuture<TransactionReport>> fetchSlice,
+                               int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive, but was " + parallelism);
+        }
+        this.pendingSlices = slices.iterator();
+        this.fetchSlice = fetchSlice;
+        for (int i = 0; i < parallelism; i++) {
+            fetchNextSlice();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentSlice.hasNext()) {
+            CompletableFuture<List<Transaction>> nextSlice = fetchedSlices.poll();
+            if (nextSlice == null) {
+                return false;
+            }
+            fetchNextSlice();
+            currentSlice = join(nextSlice).iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public Transaction next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentSlice.next();
+    }
+
+    /**
+     * Cancels the slices which have not been consumed yet.
+     */
+    void cancel() {
+        fetchedSlices.forEach(slice -> slice.cancel(false));
+        fetchedSlices.clear();
+        currentSlice = Collections.emptyIterator();
+    }
+
+    private void fetchNextSlice() {
+        if (pendingSlices.hasNext()) {
+            fetchedSlices.add(fetchSlice.apply(pendingSlices.next()).thenApply(report -> {
+                List<Transaction> transactions = new ArrayList<>(report.getTransactions());
+                transactions.sort(BY_TRANSACTION_DATE);
+                return transactions;
+            }));
+        }
+    }
+
+    private List<Transaction> join(CompletableFuture<List<Transaction>> slice) {
+        try {
+            return slice.join();
+        } catch (CompletionException e) {
+            cancel();
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import de.paydirekt.client.rest.Link;
 import java.util.List;
 import java.util.Map;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.unmodifiableList;
 
 /**
@@ -28,7 +29,7 @@ public class TransactionReport extends HalResource {
             @JsonProperty("_embedded") Map<String, Object> embedded,
             @JsonProperty("_links") Map<String, Link> links) {
         super(embedded, links);
-        this.transactions = unmodifiableList(transactions);
+        this.transactions = transactions != null ? unmodifiableList(transactions) : emptyList();
     }
 
     public List<Transaction> getTransactions() {
@@ -1,6 +1,8 @@
 package de.paydirekt.client.reports.model;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -12,6 +14,11 @@ import static java.util.Collections.unmodifiableList;
  */
 public class TransactionReportQueryParameters {
 
+    /**
+     * The resolution of the time stamps of the API.
+     */
+    public static final Duration RESOLUTION = Duration.ofMillis(1);
+
     private final Optional<ZonedDateTime> from;
     private final Optional<ZonedDateTime> to;
     private final List<String> fields;
@@ -49,4 +56,35 @@ public class TransactionReportQueryParameters {
     public List<String> getFields() {
         return fields;
     }
+
+    /**
+     * Splits the time range of these parameters into disjoint slices of the given length.
+     * <p>
+     * The API treats {@code from} and {@code to} as inclusive, so each slice ends one {@link #RESOLUTION} before
+     * the next one starts. A transaction stamped exactly on the boundary of two slices is thereby reported by
+     * the later slice only. The last slice ends at {@link #getTo()} and may be shorter.
+     *
+     * @param sliceLength The length of each slice, at least one {@link #RESOLUTION}.
+     * @return The parameters of the slices, in chronological order.
+     */
+    public List<TransactionReportQueryParameters> split(Duration sliceLength) {
+        if (!from.isPresent() || !to.isPresent()) {
+            throw new IllegalStateException("from and to must be set to split the time range");
+        }
+        if (sliceLength.compareTo(RESOLUTION) < 0) {
+            throw new IllegalArgumentException("sliceLength must be at least " + RESOLUTION + ", but was " + sliceLength);
+        }
+        List<TransactionReportQueryParameters> slices = new ArrayList<>();
+        ZonedDateTime sliceFrom = from.get();
+        while (!sliceFrom.isAfter(to.get())) {
+            ZonedDateTime sliceTo = sliceFrom.plus(sliceLength).minus(RESOLUTION);
+            if (!sliceTo.plus(RESOLUTION).isBefore(to.get())) {
+                // the remainder would be a slice of the single instant to
+                sliceTo = to.get();
+            }
+            slices.add(new TransactionReportQueryParameters(sliceFrom, sliceTo, fields));
+            sliceFrom = sliceTo.plus(RESOLUTION);
+        }
+        return slices;
+    }
 }
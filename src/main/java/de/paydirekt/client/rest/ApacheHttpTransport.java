@@ -0,0 +1,157 @@
+package de.paydirekt.client.rest;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.pool.PoolStats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Sends requests via the blocking Apache HttpClient and the non-blocking HttpAsyncClient.
+ * <p>
+ * The non-blocking client and its I/O threads are only created when the first asynchronous request is executed.
+ */
+final class ApacheHttpTransport implements HttpTransport {
+
+    private final CloseableHttpClient httpClient;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final Supplier<CloseableHttpAsyncClient> asyncClientFactory;
+
+    private volatile CloseableHttpAsyncClient asyncClient;
+    private boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param httpClient         The blocking http client.
+     * @param connectionManager  The connection manager of the blocking http client.
+     * @param asyncClientFactory Creates the non-blocking http client.
+     */
+    ApacheHttpTransport(CloseableHttpClient httpClient,
+                        PoolingHttpClientConnectionManager connectionManager,
+                        Supplier<CloseableHttpAsyncClient> asyncClientFactory) {
+        this.httpClient = httpClient;
+        this.connectionManager = connectionManager;
+        this.asyncClientFactory = asyncClientFactory;
+    }
+
+    @Override
+    public TransportResponse execute(HttpRequestBase request) throws IOException {
+        CloseableHttpResponse response = httpClient.execute(request);
+        return new ApacheResponse(response, response);
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(HttpRequestBase request) {
+        CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+
+        // the response entity is buffered in memory by the async client, thus reading it does not block
+        getAsyncClient().execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                result.complete(new ApacheResponse(response, null));
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+
+        return result;
+    }
+
+    private CloseableHttpAsyncClient getAsyncClient() {
+        CloseableHttpAsyncClient client = asyncClient;
+        if (client == null) {
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("The request executor is closed");
+                }
+                client = asyncClient;
+                if (client == null) {
+                    client = asyncClientFactory.get();
+                    client.start();
+                    asyncClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    @Override
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @Override
+    public void close() throws IOException {
+        CloseableHttpAsyncClient client;
+        synchronized (this) {
+            closed = true;
+            client = asyncClient;
+        }
+        try {
+            httpClient.close();
+        } finally {
+            if (client != null) {
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * Response of the Apache clients.
+     */
+    private static final class ApacheResponse implements TransportResponse {
+
+        private final HttpResponse response;
+        private final Closeable connection;
+
+        private ApacheResponse(HttpResponse response, Closeable connection) {
+            this.response = response;
+            this.connection = connection;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.getStatusLine().getStatusCode();
+        }
+
+        @Override
+        public String getContentType() {
+            HttpEntity entity = response.getEntity();
+            Header contentType = entity != null ? entity.getContentType() : null;
+            return contentType != null ? contentType.getValue() : null;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            HttpEntity entity = response.getEntity();
+            return entity != null ? entity.getContent() : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+}
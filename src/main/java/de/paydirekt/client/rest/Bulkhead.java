@@ -0,0 +1,50 @@
+package de.paydirekt.client.rest;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of concurrent calls, so a slow endpoint cannot occupy all threads and connections.
+ */
+final class Bulkhead {
+
+    private final int maxConcurrentCalls;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+
+    Bulkhead(int maxConcurrentCalls, long maxWaitNanos) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitNanos = maxWaitNanos;
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    /**
+     * Acquires a permit, waiting up to the maximum wait time if the bulkhead is full.
+     *
+     * @param wait Whether to wait, asynchronous calls must not block the calling thread.
+     * @return Whether a permit has been acquired.
+     */
+    boolean tryAcquire(boolean wait) {
+        if (!wait || maxWaitNanos == 0) {
+            return permits.tryAcquire();
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    int getAvailableConcurrentCalls() {
+        return permits.availablePermits();
+    }
+}
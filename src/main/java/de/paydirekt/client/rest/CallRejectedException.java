@@ -0,0 +1,40 @@
+package de.paydirekt.client.rest;
+
+/**
+ * This Exception is thrown when a request is rejected without being sent, because the circuit breaker
+ * of its endpoint family is open, the bulkhead of its endpoint family is full or the concurrency limit is exceeded.
+ */
+public class CallRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The reason of the rejection.
+     */
+    public enum Reason {
+        CIRCUIT_OPEN, BULKHEAD_FULL, LIMIT_EXCEEDED
+    }
+
+    private final String endpoint;
+    private final Reason reason;
+
+    /**
+     * Constructor.
+     *
+     * @param endpoint The name of the endpoint.
+     * @param reason   The reason of the rejection.
+     */
+    public CallRejectedException(String endpoint, Reason reason) {
+        super(String.format("Request to %s rejected: %s", endpoint, reason));
+        this.endpoint = endpoint;
+        this.reason = reason;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
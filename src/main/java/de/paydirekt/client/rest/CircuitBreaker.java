@@ -0,0 +1,228 @@
+package de.paydirekt.client.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calling an endpoint which is failing or slow, so callers fail fast instead of waiting for timeouts.
+ * <p>
+ * The outcomes of the last calls are kept in a sliding window. If the rate of failed calls or the rate of
+ * slow calls reaches its threshold, the circuit opens and calls are rejected. After the open duration the
+ * circuit is half-open: a few probing calls are permitted, which either close the circuit again or reopen it.
+ * <p>
+ * A permission is tied to the state it has been granted in. The outcome of a call which has been permitted before
+ * the last change of the state is ignored, so e.g. a slow call permitted while closed is no probing call.
+ * <p>
+ * This class is thread-safe. Create instances via {@link CircuitBreakerBuilder}.
+ */
+public final class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    /**
+     * The state of a circuit breaker.
+     */
+    public enum State {
+        /**
+         * Calls are permitted.
+         */
+        CLOSED,
+        /**
+         * Calls are rejected.
+         */
+        OPEN,
+        /**
+         * A limited number of probing calls is permitted.
+         */
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final int minimumNumberOfCalls;
+    private final long openDurationNanos;
+    private final int permittedCallsInHalfOpenState;
+    private final LongSupplier nanoClock;
+
+    // guarded by this
+    private final byte[] window;
+    private int windowIndex;
+    private int calls;
+    private int failedCalls;
+    private int slowCalls;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    // incremented on every change of the state, permissions granted before carry an older generation
+    private long generation;
+
+    CircuitBreaker(String name,
+                   double failureRateThreshold,
+                   double slowCallRateThreshold,
+                   long slowCallDurationNanos,
+                   int slidingWindowSize,
+                   int minimumNumberOfCalls,
+                   long openDurationNanos,
+                   int permittedCallsInHalfOpenState,
+                   LongSupplier nanoClock) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationNanos = slowCallDurationNanos;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.openDurationNanos = openDurationNanos;
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        this.nanoClock = nanoClock;
+        this.window = new byte[slidingWindowSize];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieves the current state. An open circuit whose open duration has elapsed is reported as open
+     * until the next call is attempted.
+     *
+     * @return The state of the circuit.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Acquires the permission of a call. Every permitted call must be followed by
+     * {@link Permission#onResult(boolean, long)} or {@link Permission#release()}.
+     *
+     * @return The permission, check {@link Permission#isPermitted()}.
+     */
+    public synchronized Permission tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openDurationNanos) {
+                return Permission.REJECTED;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits >= permittedCallsInHalfOpenState) {
+                return Permission.REJECTED;
+            }
+            halfOpenPermits++;
+        }
+        return new Permission(this, generation);
+    }
+
+    private synchronized void release(long permissionGeneration) {
+        if (permissionGeneration == generation && state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    private synchronized void onResult(long permissionGeneration, boolean failed, long durationNanos) {
+        if (permissionGeneration != generation) {
+            // the call has been permitted before the state changed, e.g. before the circuit opened
+            return;
+        }
+        record((byte) ((failed ? FAILED : 0) | (durationNanos >= slowCallDurationNanos ? SLOW : 0)));
+
+        if (state == State.HALF_OPEN) {
+            if (calls >= permittedCallsInHalfOpenState) {
+                transitionTo(exceedsThresholds() ? State.OPEN : State.CLOSED);
+            }
+        } else if (calls >= minimumNumberOfCalls && exceedsThresholds()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void record(byte outcome) {
+        if (calls == window.length) {
+            byte evicted = window[windowIndex];
+            failedCalls -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            calls++;
+        }
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % window.length;
+        failedCalls += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+    }
+
+    private boolean exceedsThresholds() {
+        return failedCalls >= failureRateThreshold * calls || slowCalls >= slowCallRateThreshold * calls;
+    }
+
+    private void transitionTo(State newState) {
+        if (newState == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+            logger.warn("Circuit breaker {} opened after {} failed and {} slow of {} calls", name, failedCalls, slowCalls, calls);
+        } else {
+            logger.info("Circuit breaker {} changed to {}", name, newState);
+        }
+        state = newState;
+        generation++;
+        // every state starts with an empty window
+        calls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+        windowIndex = 0;
+        halfOpenPermits = 0;
+    }
+
+    /**
+     * The permission of a call, tied to the state of the circuit it has been granted in.
+     * The outcome is recorded or the permission released once.
+     */
+    public static final class Permission {
+
+        private static final Permission REJECTED = new Permission(null, -1);
+
+        private final CircuitBreaker circuitBreaker;
+        private final long generation;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Permission(CircuitBreaker circuitBreaker, long generation) {
+            this.circuitBreaker = circuitBreaker;
+            this.generation = generation;
+        }
+
+        /**
+         * Checks whether the call is permitted.
+         *
+         * @return {@code false} if the call is rejected.
+         */
+        public boolean isPermitted() {
+            return circuitBreaker != null;
+        }
+
+        /**
+         * Records the outcome of the permitted call.
+         *
+         * @param failed        Whether the call failed.
+         * @param durationNanos The duration of the call in nanoseconds.
+         */
+        public void onResult(boolean failed, long durationNanos) {
+            if (circuitBreaker != null && completed.compareAndSet(false, true)) {
+                circuitBreaker.onResult(generation, failed, durationNanos);
+            }
+        }
+
+        /**
+         * Returns the permission of a call which has not been executed.
+         */
+        public void release() {
+            if (circuitBreaker != null && completed.compareAndSet(false, true)) {
+                circuitBreaker.release(generation);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package de.paydirekt.client.rest;
+
+import java.time.Duration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builder for a {@link CircuitBreaker}.
+ * <p>
+ * By default the circuit opens if at least half of the last 20 calls failed or took 5 seconds or longer,
+ * once at least 10 calls have been recorded. It stays open for 30 seconds and then permits 3 probing calls.
+ */
+public final class CircuitBreakerBuilder {
+
+    static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+    static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 0.5;
+    static final Duration DEFAULT_SLOW_CALL_DURATION = Duration.ofSeconds(5);
+    static final int DEFAULT_SLIDING_WINDOW_SIZE = 20;
+    static final int DEFAULT_MINIMUM_NUMBER_OF_CALLS = 10;
+    static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+    static final int DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE = 3;
+
+    private double failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+    private double slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+    private Duration slowCallDuration = DEFAULT_SLOW_CALL_DURATION;
+    private int slidingWindowSize = DEFAULT_SLIDING_WINDOW_SIZE;
+    private int minimumNumberOfCalls = DEFAULT_MINIMUM_NUMBER_OF_CALLS;
+    private Duration openDuration = DEFAULT_OPEN_DURATION;
+    private int permittedCallsInHalfOpenState = DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE;
+
+    private CircuitBreakerBuilder() {
+    }
+
+    public static CircuitBreakerBuilder aCircuitBreaker() {
+        return new CircuitBreakerBuilder();
+    }
+
+    /**
+     * Sets the rate of failed calls, between 0 and 1, at which the circuit opens.
+     */
+    public CircuitBreakerBuilder withFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    /**
+     * Sets the duration from which on calls are slow and the rate of slow calls, between 0 and 1,
+     * at which the circuit opens.
+     */
+    public CircuitBreakerBuilder withSlowCallThreshold(Duration slowCallDuration, double slowCallRateThreshold) {
+        this.slowCallDuration = slowCallDuration;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        return this;
+    }
+
+    /**
+     * Sets the number of the last calls whose outcomes are recorded.
+     */
+    public CircuitBreakerBuilder withSlidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = slidingWindowSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of calls which must be recorded before the rates are evaluated.
+     */
+    public CircuitBreakerBuilder withMinimumNumberOfCalls(int minimumNumberOfCalls) {
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        return this;
+    }
+
+    /**
+     * Sets the time the circuit stays open before probing calls are permitted.
+     */
+    public CircuitBreakerBuilder withOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+        return this;
+    }
+
+    /**
+     * Sets the number of probing calls permitted while the circuit is half-open.
+     */
+    public CircuitBreakerBuilder withPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        return this;
+    }
+
+    public CircuitBreaker build() {
+        return build("paydirekt");
+    }
+
+    /**
+     * Builds a circuit breaker with the given name, which identifies it in the log.
+     */
+    public CircuitBreaker build(String name) {
+        requireNonNull(name);
+        requireNonNull(slowCallDuration);
+        requireNonNull(openDuration);
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1 || slowCallRateThreshold <= 0 || slowCallRateThreshold > 1) {
+            throw new IllegalArgumentException("Rate thresholds must be greater than 0 and at most 1.");
+        }
+        if (slidingWindowSize < 1 || minimumNumberOfCalls < 1 || permittedCallsInHalfOpenState < 1) {
+            throw new IllegalArgumentException("The window size and the numbers of calls must be positive.");
+        }
+        if (permittedCallsInHalfOpenState > slidingWindowSize) {
+            throw new IllegalArgumentException("The probing calls must fit into the sliding window.");
+        }
+        if (slowCallDuration.isNegative() || openDuration.isNegative()) {
+            throw new IllegalArgumentException("Durations must not be negative.");
+        }
+        return new CircuitBreaker(name, failureRateThreshold, slowCallRateThreshold, slowCallDuration.toNanos(),
+                slidingWindowSize, Math.min(minimumNumberOfCalls, slidingWindowSize), openDuration.toNanos(),
+                permittedCallsInHalfOpenState, System::nanoTime);
+    }
+}
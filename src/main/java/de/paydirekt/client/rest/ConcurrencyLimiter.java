@@ -0,0 +1,331 @@
+package de.paydirekt.client.rest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of requests in flight to a limit which adapts to the observed latencies (AIMD).
+ * <p>
+ * While responses arrive within the latency tolerance of the average latency, the limit grows by one per
+ * limit of successful requests (additive increase). If a request fails without response or is throttled
+ * (429, 503), or the latencies of several consecutive requests exceed the tolerance, the limit shrinks by the
+ * backoff ratio (multiplicative decrease). The limit shrinks at most once per window: overload signals of requests
+ * which were already in flight at the last decrease are ignored, so a burst of concurrent failures caused by the same
+ * overload shrinks the limit once, and a single latency outlier, e.g. by a GC pause, does not shrink it at all.
+ * So the limit approaches the concurrency the API sustains without queueing, instead of tipping it into overload.
+ * <p>
+ * Latencies beyond the tolerance move the average only slowly. A sustained overload therefore shrinks the limit
+ * several times, while a permanent rise of the latency, e.g. by a slower network route, becomes the new average
+ * after some requests and the limit grows again.
+ * <p>
+ * Requests beyond the limit are queued in order of arrival. Blocking requests wait up to the maximum wait time,
+ * asynchronous requests wait without blocking a thread. Requests are rejected with a
+ * {@link CallRejectedException} if the queue is full or the wait time elapses.
+ * <p>
+ * This class is thread-safe and may be shared by several executors. Create instances via
+ * {@link ConcurrencyLimiterBuilder}.
+ */
+public final class ConcurrencyLimiter {
+
+    /**
+     * Limits nothing.
+     */
+    public static final ConcurrencyLimiter NONE = new ConcurrencyLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 1, Double.MAX_VALUE, 0, 0);
+
+    /**
+     * The weight of a new latency in the average latency.
+     */
+    private static final double SMOOTHING = 0.05;
+
+    /**
+     * The weight of a latency beyond the tolerance in the average latency.
+     */
+    private static final double SLOW_SMOOTHING = 0.01;
+
+    /**
+     * The number of consecutive requests exceeding the latency tolerance which signal overload.
+     */
+    static final int SLOW_SAMPLES = 3;
+
+    private static final Permit UNLIMITED = new Permit(null, 0, 0);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final boolean unlimited;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private double averageLatencyNanos;
+    private int slowSamples;
+    // incremented on every decrease, permits granted before carry an older window
+    private long window;
+
+    private final LongAdder rejected = new LongAdder();
+
+    ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance, int maxQueued, long maxWaitNanos) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = maxWaitNanos;
+        this.unlimited = minLimit == Integer.MAX_VALUE;
+    }
+
+    /**
+     * Acquires a permit, waiting up to the maximum wait time if the limit is reached.
+     *
+     * @param endpoint The name of the endpoint to be called.
+     * @return The permit, which must be released.
+     * @throws CallRejectedException If the queue is full or the wait time elapsed.
+     */
+    public Permit acquire(String endpoint) {
+        CompletableFuture<Permit> waiter = enqueue(endpoint);
+        if (waiter.isDone()) {
+            return waiter.join();
+        }
+        try {
+            return waiter.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return abandon(waiter, endpoint);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return abandon(waiter, endpoint);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Acquires a permit without blocking the calling thread.
+     *
+     * @param endpoint The name of the endpoint to be called.
+     * @return The future permit, which must be released. Completed exceptionally with a
+     * {@link CallRejectedException} if the queue is full.
+     */
+    public CompletableFuture<Permit> acquireAsync(String endpoint) {
+        return enqueue(endpoint);
+    }
+
+    private CompletableFuture<Permit> enqueue(String endpoint) {
+        CompletableFuture<Permit> waiter = new CompletableFuture<>();
+        if (unlimited) {
+            waiter.complete(UNLIMITED);
+            return waiter;
+        }
+        lock.lock();
+        try {
+            if (queue.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                waiter.complete(new Permit(this, 0, window));
+            } else if (queue.size() < maxQueued) {
+                queue.add(new Waiter(waiter, System.nanoTime()));
+            } else {
+                rejected.increment();
+                waiter.completeExceptionally(new CallRejectedException(endpoint, CallRejectedException.Reason.LIMIT_EXCEEDED));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return waiter;
+    }
+
+    private Permit abandon(CompletableFuture<Permit> waiter, String endpoint) {
+        lock.lock();
+        try {
+            queue.removeIf(queued -> queued.future == waiter);
+        } finally {
+            lock.unlock();
+        }
+        if (!waiter.completeExceptionally(new CallRejectedException(endpoint, CallRejectedException.Reason.LIMIT_EXCEEDED))) {
+            // the permit has been granted meanwhile
+            waiter.join().release();
+        }
+        rejected.increment();
+        throw new CallRejectedException(endpoint, CallRejectedException.Reason.LIMIT_EXCEEDED);
+    }
+
+    /**
+     * Adapts the limit to the outcome of a request and releases its permit.
+     */
+    private void onResult(int statusCode, long latencyNanos, long permitWindow) {
+        lock.lock();
+        try {
+            boolean throttled = statusCode == 0 || statusCode == 429 || statusCode == 503;
+            boolean slow = !throttled && averageLatencyNanos > 0 && latencyNanos > latencyTolerance * averageLatencyNanos;
+            slowSamples = slow ? slowSamples + 1 : 0;
+            boolean overloaded = throttled || slowSamples >= SLOW_SAMPLES;
+            if (!throttled) {
+                // slow latencies are included as well, otherwise a permanent rise would stay slow forever
+                double weight = slow ? SLOW_SMOOTHING : SMOOTHING;
+                averageLatencyNanos = averageLatencyNanos == 0
+                        ? latencyNanos
+                        : (1 - weight) * averageLatencyNanos + weight * latencyNanos;
+            }
+
+            if (overloaded) {
+                if (permitWindow == window) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    window++;
+                    slowSamples = 0;
+                }
+            } else if (!slow && inFlight * 2 >= (int) limit) {
+                // only grow while the limit is used, otherwise it would grow without bounds at low load
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+        release();
+    }
+
+    private void release() {
+        List<Waiter> granted = new ArrayList<>();
+        long grantedWindow;
+        lock.lock();
+        try {
+            grantedWindow = window;
+            inFlight--;
+            while (!queue.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                granted.add(queue.poll());
+            }
+        } finally {
+            lock.unlock();
+        }
+        // waiters are completed outside of the lock, since asynchronous requests continue on completion
+        for (Waiter waiter : granted) {
+            if (!waiter.future.complete(new Permit(this, System.nanoTime() - waiter.enqueuedAt, grantedWindow))) {
+                // the waiter has been abandoned meanwhile
+                release();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the current limit of requests in flight.
+     *
+     * @return The current limit.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return unlimited ? Integer.MAX_VALUE : (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the number of requests in flight.
+     *
+     * @return The number of requests in flight.
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the number of requests waiting for a permit.
+     *
+     * @return The number of queued requests.
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the number of requests rejected since the limiter has been built.
+     *
+     * @return The number of rejected requests.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * The permission of a request. The outcome is recorded and the permit released once.
+     */
+    public static final class Permit {
+
+        private final ConcurrencyLimiter limiter;
+        private final long queuedNanos;
+        private final long window;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(ConcurrencyLimiter limiter, long queuedNanos, long window) {
+            this.limiter = limiter;
+            this.queuedNanos = queuedNanos;
+            this.window = window;
+        }
+
+        /**
+         * Retrieves the time the request waited for the permit.
+         *
+         * @return The time waited in nanoseconds, 0 if the permit has been granted immediately.
+         */
+        public long getQueuedNanos() {
+            return queuedNanos;
+        }
+
+        /**
+         * Records the outcome of the request, which adapts the limit, and releases the permit.
+         *
+         * @param statusCode   The status code of the response, 0 if the request failed without response.
+         * @param latencyNanos The latency of the request in nanoseconds.
+         */
+        public void onResult(int statusCode, long latencyNanos) {
+            if (limiter != null && released.compareAndSet(false, true)) {
+                limiter.onResult(statusCode, latencyNanos, window);
+            }
+        }
+
+        /**
+         * Releases the permit of a request without outcome, e.g. one which has not been sent.
+         */
+        public void release() {
+            if (limiter != null && released.compareAndSet(false, true)) {
+                limiter.release();
+            }
+        }
+    }
+
+    /**
+     * A request waiting for a permit.
+     */
+    private static final class Waiter {
+        private final CompletableFuture<Permit> future;
+        private final long enqueuedAt;
+
+        private Waiter(CompletableFuture<Permit> future, long enqueuedAt) {
+            this.future = future;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
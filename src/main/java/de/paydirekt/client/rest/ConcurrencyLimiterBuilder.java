@@ -0,0 +1,101 @@
+package de.paydirekt.client.rest;
+
+import java.time.Duration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builder for a {@link ConcurrencyLimiter}.
+ * <p>
+ * By default the limit starts at 20 requests in flight and adapts between 2 and 200. It shrinks by 10 percent
+ * if a request is throttled, fails or takes more than twice the average latency. Up to 1000 requests are
+ * queued for up to 1 second.
+ */
+public final class ConcurrencyLimiterBuilder {
+
+    static final int DEFAULT_INITIAL_LIMIT = 20;
+    static final int DEFAULT_MIN_LIMIT = 2;
+    static final int DEFAULT_MAX_LIMIT = 200;
+    static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+    static final int DEFAULT_MAX_QUEUED = 1000;
+    static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(1);
+
+    private int initialLimit = DEFAULT_INITIAL_LIMIT;
+    private int minLimit = DEFAULT_MIN_LIMIT;
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+    private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+    private double latencyTolerance = DEFAULT_LATENCY_TOLERANCE;
+    private int maxQueued = DEFAULT_MAX_QUEUED;
+    private Duration maxWait = DEFAULT_MAX_WAIT;
+
+    private ConcurrencyLimiterBuilder() {
+    }
+
+    public static ConcurrencyLimiterBuilder aConcurrencyLimiter() {
+        return new ConcurrencyLimiterBuilder();
+    }
+
+    public ConcurrencyLimiterBuilder withInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+        return this;
+    }
+
+    /**
+     * Sets the bounds of the limit. The upper bound should not exceed the connections per route of the executor.
+     */
+    public ConcurrencyLimiterBuilder withLimitRange(int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    /**
+     * Sets the factor, between 0 and 1, the limit is multiplied with on overload.
+     */
+    public ConcurrencyLimiterBuilder withBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    /**
+     * Sets the multiple of the average latency from which on a latency indicates overload.
+     */
+    public ConcurrencyLimiterBuilder withLatencyTolerance(double latencyTolerance) {
+        this.latencyTolerance = latencyTolerance;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of requests waiting for a permit, 0 rejects requests beyond the limit immediately.
+     */
+    public ConcurrencyLimiterBuilder withMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+        return this;
+    }
+
+    /**
+     * Sets the time blocking requests wait for a permit.
+     */
+    public ConcurrencyLimiterBuilder withMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+        return this;
+    }
+
+    public ConcurrencyLimiter build() {
+        requireNonNull(maxWait);
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("The limits must be positive and the initial limit within the bounds.");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("The backoff ratio must be between 0 and 1.");
+        }
+        if (latencyTolerance <= 1) {
+            throw new IllegalArgumentException("The latency tolerance must be greater than 1.");
+        }
+        if (maxQueued < 0 || maxWait.isNegative()) {
+            throw new IllegalArgumentException("The queue limits must not be negative.");
+        }
+        return new ConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance, maxQueued, maxWait.toNanos());
+    }
+}
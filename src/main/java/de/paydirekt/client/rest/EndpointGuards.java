@@ -0,0 +1,206 @@
+package de.paydirekt.client.rest;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Guards the endpoint families of the paydirekt system by a circuit breaker and a bulkhead each,
+ * so one degraded endpoint fails fast instead of exhausting the threads and connections of the others.
+ * All requests are additionally subject to the adaptive {@link ConcurrencyLimiter}.
+ */
+final class EndpointGuards {
+
+    /**
+     * Guards nothing.
+     */
+    static final EndpointGuards NONE = new EndpointGuards(Collections.emptyMap(), Collections.emptyMap(), ConcurrencyLimiter.NONE);
+
+    private static final Permit UNGUARDED = new Permit(null, null);
+
+    private final Map<String, CircuitBreaker> circuitBreakers;
+    private final Map<String, Bulkhead> bulkheads;
+    private final ConcurrencyLimiter limiter;
+    private final boolean unguarded;
+
+    EndpointGuards(Map<String, CircuitBreaker> circuitBreakers, Map<String, Bulkhead> bulkheads, ConcurrencyLimiter limiter) {
+        this.circuitBreakers = Collections.unmodifiableMap(new HashMap<>(circuitBreakers));
+        this.bulkheads = Collections.unmodifiableMap(new HashMap<>(bulkheads));
+        this.limiter = limiter;
+        this.unguarded = circuitBreakers.isEmpty() && bulkheads.isEmpty() && limiter == ConcurrencyLimiter.NONE;
+    }
+
+    /**
+     * Acquires the permission to call an endpoint, waiting for a full bulkhead or concurrency limit.
+     *
+     * @param endpoint The name of the endpoint.
+     * @return The permit, which must be released.
+     * @throws CallRejectedException If the circuit is open, the bulkhead is full or the limit is exceeded.
+     */
+    Permit acquire(String endpoint) {
+        if (unguarded) {
+            return UNGUARDED;
+        }
+        Permit permit = acquireFamily(endpoint, true);
+        try {
+            permit.limiterPermit = limiter.acquire(endpoint);
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+        return permit;
+    }
+
+    /**
+     * Acquires the permission to call an endpoint without blocking the calling thread.
+     *
+     * @param endpoint The name of the endpoint.
+     * @return The future permit, which must be released. Completed exceptionally with a
+     * {@link CallRejectedException} if the circuit is open, the bulkhead is full or the limit is exceeded.
+     */
+    CompletableFuture<Permit> acquireAsync(String endpoint) {
+        if (unguarded) {
+            return CompletableFuture.completedFuture(UNGUARDED);
+        }
+        Permit permit;
+        try {
+            permit = acquireFamily(endpoint, false);
+        } catch (CallRejectedException e) {
+            CompletableFuture<Permit> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+        CompletableFuture<Permit> result = new CompletableFuture<>();
+        limiter.acquireAsync(endpoint).whenComplete((limiterPermit, error) -> {
+            if (error != null) {
+                permit.release();
+                result.completeExceptionally(error);
+                return;
+            }
+            permit.limiterPermit = limiterPermit;
+            result.complete(permit);
+        });
+        return result;
+    }
+
+    private Permit acquireFamily(String endpoint, boolean wait) {
+        String family = Endpoints.familyOf(endpoint);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(family);
+        Bulkhead bulkhead = bulkheads.get(family);
+
+        // an open circuit must not wait for the bulkhead
+        CircuitBreaker.Permission permission = circuitBreaker != null ? circuitBreaker.tryAcquirePermission() : null;
+        if (permission != null && !permission.isPermitted()) {
+            throw new CallRejectedException(endpoint, CallRejectedException.Reason.CIRCUIT_OPEN);
+        }
+        if (bulkhead != null && !bulkhead.tryAcquire(wait)) {
+            if (permission != null) {
+                permission.release();
+            }
+            throw new CallRejectedException(endpoint, CallRejectedException.Reason.BULKHEAD_FULL);
+        }
+        return new Permit(permission, bulkhead);
+    }
+
+    CircuitBreaker getCircuitBreaker(String family) {
+        return circuitBreakers.get(family);
+    }
+
+    Bulkhead getBulkhead(String family) {
+        return bulkheads.get(family);
+    }
+
+    ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Server errors, throttling and failures without response count as failed calls.
+     * Other client errors indicate erroneous requests, not a degraded endpoint.
+     */
+    static boolean isFailure(int statusCode) {
+        return statusCode == 0 || statusCode >= 500 || statusCode == 408 || statusCode == 429;
+    }
+
+    /**
+     * The permission of a call. The outcome is recorded once and the permits are released once,
+     * the latter possibly later, e.g. when a streamed response is closed.
+     */
+    static final class Permit {
+
+        private final CircuitBreaker.Permission circuitPermission;
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private ConcurrencyLimiter.Permit limiterPermit;
+        private volatile int statusCode = -1;
+        private volatile long durationNanos;
+
+        private Permit(CircuitBreaker.Permission circuitPermission, Bulkhead bulkhead) {
+            this.circuitPermission = circuitPermission;
+            this.bulkhead = bulkhead;
+        }
+
+        /**
+         * The time waited for the concurrency limiter in nanoseconds, 0 if the permit has been granted immediately.
+         */
+        long getQueuedNanos() {
+            return limiterPermit != null ? limiterPermit.getQueuedNanos() : 0;
+        }
+
+        /**
+         * Records the outcome of the call.
+         *
+         * @param statusCode    The status code of the response, 0 if the call failed without response.
+         * @param durationNanos The duration of the call in nanoseconds.
+         */
+        void record(int statusCode, long durationNanos) {
+            if (isUnguarded()) {
+                return;
+            }
+            if (recorded.compareAndSet(false, true)) {
+                this.statusCode = statusCode;
+                this.durationNanos = durationNanos;
+                if (circuitPermission != null) {
+                    circuitPermission.onResult(isFailure(statusCode), durationNanos);
+                }
+            }
+        }
+
+        /**
+         * Releases the bulkhead and the concurrency limit. If no outcome has been recorded,
+         * the call has not been executed.
+         */
+        void release() {
+            if (isUnguarded()) {
+                return;
+            }
+            if (recorded.compareAndSet(false, true) && circuitPermission != null) {
+                circuitPermission.release();
+            }
+            if (released.compareAndSet(false, true)) {
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+                if (limiterPermit != null) {
+                    if (statusCode >= 0) {
+                        limiterPermit.onResult(statusCode, durationNanos);
+                    } else {
+                        limiterPermit.release();
+                    }
+                }
+            }
+        }
+
+        void complete(int statusCode, long durationNanos) {
+            record(statusCode, durationNanos);
+            release();
+        }
+
+        private boolean isUnguarded() {
+            return circuitPermission == null && bulkhead == null && limiterPermit == null;
+        }
+    }
+}
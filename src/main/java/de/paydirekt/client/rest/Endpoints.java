@@ -0,0 +1,97 @@
+package de.paydirekt.client.rest;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Names the endpoints of the paydirekt system for metrics, circuit breakers and bulkheads.
+ * <p>
+ * Endpoint names consist of the family and the operation, such as {@code checkout.create}.
+ */
+public final class Endpoints {
+
+    public static final String CHECKOUT_CREATE = "checkout.create";
+    public static final String CHECKOUT_GET = "checkout.get";
+    public static final String CHECKOUT_CLOSE = "checkout.close";
+    public static final String CAPTURE_CREATE = "capture.create";
+    public static final String CAPTURE_GET = "capture.get";
+    public static final String REFUND_CREATE = "refund.create";
+    public static final String REFUND_GET = "refund.get";
+    public static final String TOKEN_OBTAIN = "token.obtain";
+    public static final String REPORTS_TRANSACTIONS = "reports.transactions";
+    public static final String OTHER = "other";
+
+    /**
+     * The endpoint families: checkout, capture, refund, reports, token and other.
+     */
+    public static final List<String> FAMILIES = Collections.unmodifiableList(
+            Arrays.asList("checkout", "capture", "refund", "reports", "token", OTHER));
+
+    /**
+     * Private constructor.
+     * <p>
+     * This class provides static functions only.
+     */
+    private Endpoints() {
+    }
+
+    /**
+     * Determines the endpoint of a request by its method and the path of its URI.
+     *
+     * @param method The http method of the request.
+     * @param uri    The URI of the request.
+     * @return The name of the endpoint, {@link #OTHER} for unknown endpoints.
+     */
+    public static String nameOf(String method, URI uri) {
+        String path = uri.getPath() != null ? uri.getPath() : "";
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        path = path.substring(0, end);
+        // splitting at a single char does not compile a regular expression
+        String[] segments = path.split("/");
+        boolean post = "POST".equals(method);
+
+        if (path.endsWith("/token/obtain")) {
+            return TOKEN_OBTAIN;
+        }
+        if (path.endsWith("/reports/transactions")) {
+            return REPORTS_TRANSACTIONS;
+        }
+        for (int i = segments.length - 1; i >= 0; i--) {
+            int remaining = segments.length - 1 - i;
+            switch (segments[i]) {
+                case "captures":
+                    return remaining == 0 && post ? CAPTURE_CREATE : remaining == 1 ? CAPTURE_GET : OTHER;
+                case "refunds":
+                    return remaining == 0 && post ? REFUND_CREATE : remaining == 1 ? REFUND_GET : OTHER;
+                case "checkouts":
+                    if (remaining == 0 && post) {
+                        return CHECKOUT_CREATE;
+                    }
+                    if (remaining == 1) {
+                        return CHECKOUT_GET;
+                    }
+                    return remaining == 2 && post && "close".equals(segments[i + 2]) ? CHECKOUT_CLOSE : OTHER;
+                default:
+                    break;
+            }
+        }
+        return OTHER;
+    }
+
+    /**
+     * Determines the family of an endpoint.
+     *
+     * @param endpoint The name of the endpoint, such as {@code checkout.create}.
+     * @return The family of the endpoint, such as {@code checkout}.
+     */
+    public static String familyOf(String endpoint) {
+        int dot = endpoint.indexOf('.');
+        return dot < 0 ? endpoint : endpoint.substring(0, dot);
+    }
+
+}
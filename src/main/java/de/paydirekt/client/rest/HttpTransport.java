@@ -0,0 +1,50 @@
+package de.paydirekt.client.rest;
+
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.pool.PoolStats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends the requests of a {@link RequestExecutor} over the wire.
+ * <p>
+ * The default transport is backed by Apache HttpClient and HttpAsyncClient and speaks HTTP/1.1.
+ * On Java 11 and later, {@link RequestExecutorBuilder#withJdkHttpClient()} selects a transport backed by
+ * {@code java.net.http.HttpClient}, which multiplexes concurrent requests over few HTTP/2 connections.
+ * <p>
+ * Implementations must be thread-safe.
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * Sends a request and waits for the response headers. The body is read from the returned response,
+     * which must be closed to release the connection.
+     *
+     * @param request The request to be sent.
+     * @return The response.
+     * @throws IOException If the request failed without response.
+     */
+    TransportResponse execute(HttpRequestBase request) throws IOException;
+
+    /**
+     * Sends a request without blocking the calling thread. The body of the response is buffered in memory,
+     * so reading it does not block either.
+     *
+     * @param request The request to be sent.
+     * @return The future response, completed exceptionally with an {@link IOException} if the request failed
+     * without response.
+     */
+    CompletableFuture<TransportResponse> executeAsync(HttpRequestBase request);
+
+    /**
+     * Retrieves the current statistics of the connection pool.
+     *
+     * @return The total statistics of the connection pool, zeros if the transport has no such pool.
+     */
+    default PoolStats getPoolStats() {
+        return new PoolStats(0, 0, 0, 0);
+    }
+
+}
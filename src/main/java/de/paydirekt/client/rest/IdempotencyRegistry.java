@@ -0,0 +1,154 @@
+package de.paydirekt.client.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Bounded local record of idempotent operations, such as creating a capture, identified by a client-generated key.
+ * <p>
+ * An operation which failed ambiguously, i.e. by an I/O error or a server error after which it is unknown whether
+ * it has been applied, is reconciled before it is attempted again: the reconciliation looks up the result of the
+ * earlier attempt, and only if there is none, the operation is executed again. Completed operations return their
+ * recorded result. The least recently used records are evicted once the capacity is exceeded.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class IdempotencyRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyRegistry.class);
+
+    static final int DEFAULT_CAPACITY = 10000;
+
+    private enum State {
+        IN_FLIGHT, UNCERTAIN, COMPLETED
+    }
+
+    private final Map<String, Record> records;
+
+    /**
+     * Constructor. Records up to 10000 operations.
+     */
+    public IdempotencyRegistry() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The maximum number of recorded operations.
+     */
+    public IdempotencyRegistry(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+        this.records = new LinkedHashMap<String, Record>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Record> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Executes an idempotent operation at most once.
+     *
+     * @param key         The key identifying the operation.
+     * @param operation   Executes the operation. Must not retry by itself.
+     * @param reconcile   Looks up the result of an earlier attempt, {@code null} if the operation has not been applied.
+     * @param retryPolicy The policy of retrying the operation on transient errors.
+     * @param <T>         The result type.
+     * @return The result of the operation.
+     * @throws IllegalStateException If the operation is already in flight.
+     */
+    public <T> T execute(String key, Supplier<T> operation, Supplier<T> reconcile, RetryPolicy retryPolicy) {
+        AtomicBoolean uncertain = new AtomicBoolean();
+        synchronized (records) {
+            Record record = records.get(key);
+            if (record != null && record.state == State.COMPLETED) {
+                return cast(record.result);
+            }
+            if (record != null && record.state == State.IN_FLIGHT) {
+                throw new IllegalStateException(String.format("The operation %s is already in flight", key));
+            }
+            uncertain.set(record != null);
+            records.put(key, new Record(State.IN_FLIGHT, null));
+        }
+
+        try {
+            T result = retryPolicy.execute(() -> {
+                if (uncertain.get()) {
+                    T reconciled = reconcile.get();
+                    if (reconciled != null) {
+                        logger.info("Operation {} has already been applied", key);
+                        return reconciled;
+                    }
+                }
+                try {
+                    return operation.get();
+                } catch (RuntimeException e) {
+                    if (isAmbiguous(e)) {
+                        uncertain.set(true);
+                    }
+                    throw e;
+                }
+            });
+            synchronized (records) {
+                records.put(key, new Record(State.COMPLETED, result));
+            }
+            return result;
+        } catch (RuntimeException e) {
+            synchronized (records) {
+                if (uncertain.get()) {
+                    records.put(key, new Record(State.UNCERTAIN, null));
+                } else {
+                    records.remove(key);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Derives the request ID of an operation, which is the same for every attempt.
+     *
+     * @param key The key identifying the operation.
+     * @return The request ID, a name-based UUID.
+     */
+    public static String requestIdOf(String key) {
+        return UUID.nameUUIDFromBytes(key.getBytes(UTF_8)).toString();
+    }
+
+    /**
+     * Client errors and rejected calls are definite: the operation has not been applied. Otherwise it may have been.
+     */
+    static boolean isAmbiguous(RuntimeException e) {
+        if (e instanceof CallRejectedException) {
+            return false;
+        }
+        return !(e instanceof HttpStatusException) || ((HttpStatusException) e).getStatusCode() >= 500;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object result) {
+        return (T) result;
+    }
+
+    private static final class Record {
+        private final State state;
+        private final Object result;
+
+        private Record(State state, Object result) {
+            this.state = state;
+            this.result = result;
+        }
+    }
+
+}
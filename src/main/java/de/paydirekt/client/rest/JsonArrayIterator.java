@@ -0,0 +1,92 @@
+package de.paydirekt.client.rest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the elements of an array within a JSON object, deserializing one element at a time.
+ * <p>
+ * Only the current element is held in memory, the remaining document is read on demand.
+ *
+ * @param <T> The type of the elements.
+ */
+final class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+
+    private final JsonParser parser;
+    private final ObjectReader elementReader;
+
+    private boolean inArray;
+    private JsonToken nextToken;
+
+    /**
+     * Constructor. Positions the parser at the start of the array.
+     *
+     * @param parser        The parser of the JSON object, which is closed together with this iterator.
+     * @param arrayField    The name of the top-level field holding the array.
+     * @param elementReader The reader for the elements.
+     * @throws IOException If the document could not be read.
+     */
+    JsonArrayIterator(JsonParser parser, String arrayField, ObjectReader elementReader) throws IOException {
+        this.parser = parser;
+        this.elementReader = elementReader;
+        this.inArray = moveToArray(arrayField);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!inArray) {
+            return false;
+        }
+        try {
+            if (nextToken == null) {
+                nextToken = parser.nextToken();
+            }
+            if (nextToken == JsonToken.END_ARRAY || nextToken == null) {
+                inArray = false;
+            }
+            return inArray;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        nextToken = null;
+        try {
+            return elementReader.readValue(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private boolean moveToArray(String arrayField) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (arrayField.equals(field) && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+}
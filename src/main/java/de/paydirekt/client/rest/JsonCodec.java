@@ -0,0 +1,124 @@
+package de.paydirekt.client.rest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.paydirekt.client.capture.model.Capture;
+import de.paydirekt.client.capture.model.CaptureRequest;
+import de.paydirekt.client.checkout.model.Checkout;
+import de.paydirekt.client.checkout.model.CheckoutRequest;
+import de.paydirekt.client.refund.model.Refund;
+import de.paydirekt.client.refund.model.RefundRequest;
+import de.paydirekt.client.reports.model.Transaction;
+import de.paydirekt.client.reports.model.TransactionReport;
+import de.paydirekt.client.security.model.AccessToken;
+import de.paydirekt.client.security.model.ObtainTokenRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Serializes and deserializes the JSON bodies of requests and responses.
+ * <p>
+ * All clients share one configured {@link ObjectMapper}. The type-specific {@link ObjectReader}s and
+ * {@link ObjectWriter}s are cached, so serializers are looked up once per type instead of once per request.
+ * The readers and writers of the model of the merchant API are created eagerly.
+ * <p>
+ * If the Jackson Afterburner module is on the classpath, it is registered to replace reflection
+ * by generated bytecode.
+ */
+public final class JsonCodec {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonCodec.class);
+
+    private static final String AFTERBURNER_MODULE = "com.fasterxml.jackson.module.afterburner.AfterburnerModule";
+
+    private static final List<Class<?>> REQUEST_TYPES = Arrays.asList(
+            CheckoutRequest.class, CaptureRequest.class, RefundRequest.class, ObtainTokenRequest.class);
+    private static final List<Class<?>> RESPONSE_TYPES = Arrays.asList(
+            Checkout.class, Capture.class, Refund.class, AccessToken.class, TransactionReport.class, Transaction.class);
+
+    private static final JsonCodec DEFAULT_INSTANCE = new JsonCodec();
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    private JsonCodec() {
+        objectMapper = new ObjectMapper();
+        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        registerAfterburnerIfPresent(objectMapper);
+
+        REQUEST_TYPES.forEach(this::writerFor);
+        RESPONSE_TYPES.forEach(this::readerFor);
+    }
+
+    /**
+     * Retrieves the codec shared by all clients.
+     *
+     * @return The codec.
+     */
+    public static JsonCodec getDefault() {
+        return DEFAULT_INSTANCE;
+    }
+
+    /**
+     * Retrieves the cached reader for a type.
+     *
+     * @param type The type to deserialize.
+     * @return The reader.
+     */
+    public ObjectReader readerFor(Class<?> type) {
+        return readers.computeIfAbsent(type, objectMapper::readerFor);
+    }
+
+    /**
+     * Retrieves the cached writer for a type.
+     *
+     * @param type The type to serialize.
+     * @return The writer.
+     */
+    public ObjectWriter writerFor(Class<?> type) {
+        return writers.computeIfAbsent(type, objectMapper::writerFor);
+    }
+
+    /**
+     * Converts a deserialized value, e.g. a tree or an embedded resource, into the specified type.
+     *
+     * @param value The value to convert.
+     * @param type  The target type.
+     * @param <T>   The target type.
+     * @return The converted value.
+     */
+    public <T> T convertValue(Object value, Class<T> type) {
+        return objectMapper.convertValue(value, type);
+    }
+
+    /**
+     * Retrieves the factory for streaming parsers and generators.
+     *
+     * @return The factory.
+     */
+    public JsonFactory getFactory() {
+        return objectMapper.getFactory();
+    }
+
+    private static void registerAfterburnerIfPresent(ObjectMapper objectMapper) {
+        try {
+            Class<?> afterburner = Class.forName(AFTERBURNER_MODULE);
+            objectMapper.registerModule((Module) afterburner.getDeclaredConstructor().newInstance());
+            logger.debug("Registered the Jackson Afterburner module");
+        } catch (ClassNotFoundException e) {
+            logger.debug("Jackson Afterburner module not present");
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.warn("Could not register the Jackson Afterburner module", e);
+        }
+    }
+}
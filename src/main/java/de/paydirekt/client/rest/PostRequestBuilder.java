@@ -1,9 +1,9 @@
 package de.paydirekt.client.rest;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,7 +15,8 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class PostRequestBuilder extends RequestBuilder<PostRequestBuilder, HttpPost> {
 
     private static final Logger logger = LoggerFactory.getLogger(PostRequestBuilder.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final JsonCodec jsonCodec = JsonCodec.getDefault();
+    private static final ContentType HAL_JSON = ContentType.create("application/hal+json", UTF_8);
 
     /**
      * Constructor.
@@ -28,6 +29,9 @@ public class PostRequestBuilder extends RequestBuilder<PostRequestBuilder, HttpP
 
     /**
      * Adds an entity to the request.
+     * <p>
+     * The entity is serialized directly into UTF-8 encoded bytes, without an intermediate String.
+     * The resulting body is repeatable and has a known content length.
      *
      * @param entity The entity.
      * @param <E>    The type of the entity.
@@ -35,7 +39,7 @@ public class PostRequestBuilder extends RequestBuilder<PostRequestBuilder, HttpP
      */
     public <E> PostRequestBuilder withEntity(E entity) {
         try {
-            request.setEntity(new StringEntity(objectMapper.writeValueAsString(entity), UTF_8));
+            request.setEntity(new ByteArrayEntity(jsonCodec.writerFor(entity.getClass()).writeValueAsBytes(entity), HAL_JSON));
         } catch (JsonProcessingException e) {
             logger.error("Error while trying to serialize {} ", entity);
             throw new RuntimeException(e);
@@ -1,36 +1,136 @@
 package de.paydirekt.client.rest;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
+import org.apache.http.entity.ContentType;
+import org.apache.http.pool.PoolStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
- * This class encapsulates the HttpClient from Apache HttpComponents (https://hc.apache.org)
- * and provides deserialization of the response body.
+ * This class executes requests via a {@link HttpTransport}, by default the HttpClient from
+ * Apache HttpComponents (https://hc.apache.org), and provides deserialization of the response body.
+ * <p>
+ * Connections are pooled. Executors created via the default constructor share one pool with default limits,
+ * use {@link RequestExecutorBuilder} to create an executor with its own, tuned pool or another transport.
+ * <p>
+ * Asynchronous requests are executed by the non-blocking HttpAsyncClient, so many requests in flight
+ * only occupy a few I/O threads. On Java 21 and later they can be executed as blocking requests on
+ * virtual threads instead, see {@link RequestExecutorBuilder#withVirtualThreads()}.
+ * <p>
+ * Latencies, status codes, body sizes and deserialization times are reported to the {@link RequestMetrics}
+ * configured via {@link RequestExecutorBuilder#withMetrics(RequestMetrics)}.
+ * <p>
+ * Idempotent requests (GET and HEAD) are retried on transient errors according to the {@link RetryPolicy}
+ * configured via {@link RequestExecutorBuilder#withRetryPolicy(RetryPolicy)}. Other requests are executed once,
+ * unless a policy is passed explicitly.
+ * <p>
+ * Optionally, every endpoint family is guarded by a circuit breaker and a bulkhead, configured via
+ * {@link RequestExecutorBuilder#withCircuitBreaker(CircuitBreakerBuilder)} and
+ * {@link RequestExecutorBuilder#withBulkhead(int, java.time.Duration)}. Rejected requests fail with a
+ * {@link CallRejectedException} without being sent.
+ * <p>
+ * The number of requests in flight can be limited adaptively by a {@link ConcurrencyLimiter}, configured via
+ * {@link RequestExecutorBuilder#withConcurrencyLimiter(ConcurrencyLimiter)}.
  */
-public class RequestExecutor {
+public class RequestExecutor implements Closeable {
 
     private static final Logger logger = LoggerFactory.getLogger(RequestExecutor.class);
-    private static final ObjectMapper objectMapper;
-    private static final HttpClient HTTP_CLIENT = HttpClients.createDefault();
+    private static final JsonCodec jsonCodec = JsonCodec.getDefault();
 
-    static {
-        objectMapper = new ObjectMapper();
-        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final HttpTransport transport;
+    private final RequestMetrics metrics;
+    private final RetryPolicy retryPolicy;
+    private final EndpointGuards guards;
+    private final ExecutorService blockingExecutor;
+    private final boolean sharedTransport;
+
+    /**
+     * Default constructor, uses the connection pool shared by all default executors.
+     */
+    public RequestExecutor() {
+        this(SharedInstance.INSTANCE.transport, RequestMetrics.NONE, SharedInstance.INSTANCE.retryPolicy,
+                SharedInstance.INSTANCE.guards, null, true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param transport        The transport to send the requests with.
+     * @param metrics          The receiver of the request metrics.
+     * @param retryPolicy      The retry policy of idempotent requests.
+     * @param guards           The circuit breakers and bulkheads of the endpoint families.
+     * @param blockingExecutor The executor of asynchronous requests executed as blocking requests,
+     *                         {@code null} to execute them via the transport.
+     */
+    RequestExecutor(HttpTransport transport, RequestMetrics metrics, RetryPolicy retryPolicy, EndpointGuards guards,
+                    ExecutorService blockingExecutor) {
+        this(transport, metrics, retryPolicy, guards, blockingExecutor, false);
+    }
+
+    private RequestExecutor(HttpTransport transport, RequestMetrics metrics, RetryPolicy retryPolicy, EndpointGuards guards,
+                            ExecutorService blockingExecutor, boolean sharedTransport) {
+        this.transport = transport;
+        this.metrics = metrics;
+        this.retryPolicy = retryPolicy;
+        this.guards = guards;
+        this.blockingExecutor = blockingExecutor;
+        this.sharedTransport = sharedTransport;
+    }
+
+    /**
+     * Retrieves the retry policy applied to idempotent requests.
+     *
+     * @return The retry policy.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Retrieves the circuit breaker of an endpoint family.
+     *
+     * @param family The endpoint family, one of {@link Endpoints#FAMILIES}.
+     * @return The circuit breaker, {@code null} if the family is not guarded by a circuit breaker.
+     */
+    public CircuitBreaker getCircuitBreaker(String family) {
+        return guards.getCircuitBreaker(family);
+    }
+
+    /**
+     * Retrieves the concurrency limiter of all requests.
+     *
+     * @return The concurrency limiter, {@link ConcurrencyLimiter#NONE} if requests are not limited.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return guards.getLimiter();
     }
 
     /**
      * Executes a request and deserializes the response body into the specified type.
+     * <p>
+     * The body is deserialized directly from the response stream. It is only buffered as String
+     * for erroneous responses, to be provided by the {@link HttpStatusException}.
      *
      * @param request      The request to be executed.
      * @param responseType The class of the response type.
@@ -38,15 +138,46 @@ public class RequestExecutor {
      * @return The deserialized response body.
      */
     public <T> T executeRequest(HttpRequestBase request, Class<T> responseType) {
+        return executeRequest(request, responseType, retryPolicyOf(request));
+    }
+
+    /**
+     * Executes a request with the given retry policy and deserializes the response body into the specified type.
+     *
+     * @param request      The request to be executed. Must be safe to repeat if retries are enabled.
+     * @param responseType The class of the response type.
+     * @param retryPolicy  The retry policy of this request.
+     * @param <T>          The response type.
+     * @return The deserialized response body.
+     */
+    public <T> T executeRequest(HttpRequestBase request, Class<T> responseType, RetryPolicy retryPolicy) {
+        return retryPolicy.execute(() -> executeOnce(request, responseType));
+    }
 
-        String responseString = executeRequest(request);
+    private <T> T executeOnce(HttpRequestBase request, Class<T> responseType) {
 
-        //deserialize the body
-        try {
-            return objectMapper.readValue(responseString, responseType);
+        String endpoint = endpointOf(request);
+        EndpointGuards.Permit permit = acquire(endpoint);
+        long start = System.nanoTime();
+        int statusCode = 0;
+
+        //execute the request
+        try (TransportResponse response = transport.execute(request)) {
+            statusCode = response.getStatusCode();
+            checkStatus(endpoint, response);
+            return deserialize(request, endpoint, response, responseType);
         } catch (IOException e) {
-            logger.error("Error while deserializing {} to {}", responseString, responseType);
+            if (statusCode == 0) {
+                metrics.requestFailed(endpoint, e, System.nanoTime() - start);
+            }
+            logExecutionError(request);
             throw new RuntimeException(e);
+        } finally {
+            long duration = System.nanoTime() - start;
+            permit.complete(statusCode, duration);
+            if (statusCode != 0) {
+                metrics.requestCompleted(endpoint, statusCode, duration);
+            }
         }
     }
 
@@ -58,26 +189,450 @@ public class RequestExecutor {
      * @return The response body as String.
      */
     public String executeRequest(HttpRequestBase request) {
+        return retryPolicyOf(request).execute(() -> executeOnce(request));
+    }
 
-        HttpResponse response;
+    private String executeOnce(HttpRequestBase request) {
+
+        String endpoint = endpointOf(request);
+        EndpointGuards.Permit permit = acquire(endpoint);
+        long start = System.nanoTime();
+        int statusCode = 0;
         String responseString;
 
+        //execute the request
+        try (TransportResponse response = transport.execute(request)) {
+            statusCode = response.getStatusCode();
+            responseString = readBody(endpoint, response);
+        } catch (IOException e) {
+            if (statusCode == 0) {
+                metrics.requestFailed(endpoint, e, System.nanoTime() - start);
+            }
+            logExecutionError(request);
+            throw new RuntimeException(e);
+        } finally {
+            long duration = System.nanoTime() - start;
+            permit.complete(statusCode, duration);
+            if (statusCode != 0) {
+                metrics.requestCompleted(endpoint, statusCode, duration);
+            }
+        }
+
+        if (!isSuccessful(statusCode)) {
+            throw new HttpStatusException(statusCode, responseString);
+        }
+        return responseString;
+    }
+
+    /**
+     * Executes a request and provides the response body as a stream, without buffering it in memory.
+     * <p>
+     * The connection is held until the returned stream is closed, so callers must always close it.
+     *
+     * @param request The request to be executed.
+     * @return The response body as stream, which releases the connection on close.
+     */
+    public InputStream executeRequestStreaming(HttpRequestBase request) {
+        // only establishing the stream is retried, errors while reading it are thrown to the caller
+        return retryPolicyOf(request).execute(() -> executeStreamingOnce(request));
+    }
+
+    private InputStream executeStreamingOnce(HttpRequestBase request) {
+
+        String endpoint = endpointOf(request);
+        EndpointGuards.Permit permit = acquire(endpoint);
+        long start = System.nanoTime();
+        TransportResponse response;
+
         //execute the request
         try {
-            response = HTTP_CLIENT.execute(request);
-            responseString = EntityUtils.toString(response.getEntity(), UTF_8);
+            response = transport.execute(request);
         } catch (IOException e) {
-            logger.error("Error while executing request for location {} with method {} and headers {}",
-                    request.getURI(), request.getMethod(), request.getAllHeaders());
+            long duration = System.nanoTime() - start;
+            permit.complete(0, duration);
+            metrics.requestFailed(endpoint, e, duration);
+            logExecutionError(request);
             throw new RuntimeException(e);
         }
+        long duration = System.nanoTime() - start;
+        int statusCode = response.getStatusCode();
+        // the bulkhead is released when the stream is closed, since the connection is held until then
+        permit.record(statusCode, duration);
+        metrics.requestCompleted(endpoint, statusCode, duration);
 
         // response handling
-        int statusCode = response.getStatusLine().getStatusCode();
-        if (statusCode != 200 && statusCode != 201 && statusCode != 204) {
-            throw new HttpStatusException(statusCode, responseString);
+        try {
+            checkStatus(endpoint, response);
+            InputStream body = response.getBody();
+            if (body == null) {
+                response.close();
+                permit.release();
+                return new ByteArrayInputStream(new byte[0]);
+            }
+            return new ResponseInputStream(response, body, bytes -> {
+                permit.release();
+                metrics.responseBodyRead(endpoint, bytes);
+            });
+        } catch (IOException e) {
+            closeQuietly(response);
+            permit.release();
+            logExecutionError(request);
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            closeQuietly(response);
+            permit.release();
+            throw e;
         }
+    }
 
-        return responseString;
+    /**
+     * Executes a request and deserializes the elements of an array within the response body one by one,
+     * while they are read from the response.
+     * <p>
+     * The connection is held until the returned stream is closed, so callers must always close it.
+     *
+     * @param request     The request to be executed.
+     * @param arrayField  The name of the top-level field of the response object holding the array.
+     * @param elementType The class of the elements.
+     * @param <T>         The element type.
+     * @return The deserialized elements, empty if the response has no such array.
+     */
+    public <T> Stream<T> executeRequestStreaming(HttpRequestBase request, String arrayField, Class<T> elementType) {
+        InputStream responseStream = executeRequestStreaming(request);
+        JsonArrayIterator<T> iterator;
+        try {
+            iterator = new JsonArrayIterator<>(jsonCodec.getFactory().createParser(responseStream),
+                    arrayField, jsonCodec.readerFor(elementType));
+        } catch (IOException e) {
+            logger.error("Error while reading the {} array of the response to {}", arrayField, request.getURI());
+            try {
+                responseStream.close();
+            } catch (IOException closeException) {
+                e.addSuppressed(closeException);
+            }
+            throw new RuntimeException(e);
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        iterator.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Executes a request asynchronously and deserializes the response body into the specified type.
+     * <p>
+     * The calling thread is not blocked. The returned future is completed by an I/O thread, or by a virtual thread
+     * if enabled via {@link RequestExecutorBuilder#withVirtualThreads()}, exceptionally with the same exceptions
+     * {@link #executeRequest(HttpRequestBase, Class)} throws.
+     *
+     * @param request      The request to be executed.
+     * @param responseType The class of the response type.
+     * @param <T>          The response type.
+     * @return The future deserialized response body.
+     */
+    public <T> CompletableFuture<T> executeRequestAsync(HttpRequestBase request, Class<T> responseType) {
+        if (blockingExecutor != null) {
+            return CompletableFuture.supplyAsync(() -> executeRequest(request, responseType), blockingExecutor);
+        }
+        String endpoint = endpointOf(request);
+        return retryPolicyOf(request).executeAsync(() -> executeAsync(request, endpoint)
+                .thenApply(response -> deserialize(request, endpoint, response, responseType)));
+    }
+
+    /**
+     * Executes a request asynchronously without trying to parse the response into a domain object,
+     * instead the raw response body is returned.
+     *
+     * @param request The request to be executed.
+     * @return The future response body as String.
+     */
+    public CompletableFuture<String> executeRequestAsync(HttpRequestBase request) {
+        if (blockingExecutor != null) {
+            return CompletableFuture.supplyAsync(() -> executeRequest(request), blockingExecutor);
+        }
+        String endpoint = endpointOf(request);
+        return retryPolicyOf(request).executeAsync(() -> executeAsync(request, endpoint).thenApply(response -> {
+            try {
+                return readBody(endpoint, response);
+            } catch (IOException e) {
+                logExecutionError(request);
+                throw new RuntimeException(e);
+            }
+        }));
+    }
+
+    private CompletableFuture<TransportResponse> executeAsync(HttpRequestBase request, String endpoint) {
+        // the calling thread must not block, so a full bulkhead rejects immediately
+        // and requests beyond the concurrency limit are sent once a permit is released
+        return guards.acquireAsync(endpoint)
+                .whenComplete((permit, error) -> {
+                    if (error instanceof CallRejectedException) {
+                        metrics.requestRejected(endpoint, ((CallRejectedException) error).getReason());
+                    } else if (permit != null && permit.getQueuedNanos() > 0) {
+                        metrics.requestQueued(endpoint, permit.getQueuedNanos());
+                    }
+                })
+                .thenCompose(permit -> executeAsync(request, endpoint, permit));
+    }
+
+    private CompletableFuture<TransportResponse> executeAsync(HttpRequestBase request, String endpoint, EndpointGuards.Permit permit) {
+        CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+        long start = System.nanoTime();
+
+        CompletableFuture<TransportResponse> sent;
+        try {
+            sent = transport.executeAsync(request);
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+        sent.whenComplete((response, error) -> {
+            long duration = System.nanoTime() - start;
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
+                permit.release();
+                result.cancel(false);
+                return;
+            }
+            if (cause != null) {
+                permit.complete(0, duration);
+                metrics.requestFailed(endpoint, cause, duration);
+                logExecutionError(request);
+                result.completeExceptionally(new RuntimeException(cause));
+                return;
+            }
+            int statusCode = response.getStatusCode();
+            permit.complete(statusCode, duration);
+            metrics.requestCompleted(endpoint, statusCode, duration);
+            try {
+                checkStatus(endpoint, response);
+                result.complete(response);
+            } catch (IOException e) {
+                logExecutionError(request);
+                result.completeExceptionally(new RuntimeException(e));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Retrieves the current statistics of the connection pool.
+     *
+     * @return The total statistics of the connection pool.
+     */
+    public PoolStats getPoolStats() {
+        return transport.getPoolStats();
+    }
+
+    /**
+     * Closes the transport, i.e. the connection pool and its eviction thread.
+     * Executors that use the shared default pool are not affected.
+     */
+    @Override
+    public void close() {
+        if (sharedTransport) {
+            return;
+        }
+        if (blockingExecutor != null) {
+            blockingExecutor.shutdown();
+        }
+        try {
+            transport.close();
+        } catch (IOException e) {
+            logger.warn("Error while closing the http client", e);
+        }
+    }
+
+    private String readBody(String endpoint, TransportResponse response) throws IOException {
+        InputStream content = response.getBody();
+        if (content == null) {
+            return "";
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = content) {
+            byte[] buffer = new byte[4096];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                body.write(buffer, 0, read);
+            }
+        }
+        metrics.responseBodyRead(endpoint, body.size());
+        return new String(body.toByteArray(), charsetOf(response));
+    }
+
+    /**
+     * Determines the charset of a response body streamed by {@link #executeRequestStreaming(HttpRequestBase)}.
+     *
+     * @param responseBody The response body as returned by {@link #executeRequestStreaming(HttpRequestBase)}.
+     * @return The charset declared in the Content-Type of the response, UTF-8 if none is declared.
+     */
+    public static Charset charsetOf(InputStream responseBody) {
+        return responseBody instanceof ResponseInputStream ? ((ResponseInputStream) responseBody).charset : UTF_8;
+    }
+
+    private static Charset charsetOf(TransportResponse response) {
+        String contentType = response.getContentType();
+        if (contentType == null) {
+            return UTF_8;
+        }
+        try {
+            Charset charset = ContentType.parse(contentType).getCharset();
+            return charset != null ? charset : UTF_8;
+        } catch (RuntimeException e) {
+            // unsupported or malformed charsets
+            return UTF_8;
+        }
+    }
+
+    private static boolean isSuccessful(int statusCode) {
+        return statusCode == 200 || statusCode == 201 || statusCode == 204;
+    }
+
+    /**
+     * Throws a {@link HttpStatusException} providing the buffered body if the response is erroneous.
+     */
+    private void checkStatus(String endpoint, TransportResponse response) throws IOException {
+        int statusCode = response.getStatusCode();
+        if (!isSuccessful(statusCode)) {
+            throw new HttpStatusException(statusCode, readBody(endpoint, response));
+        }
+    }
+
+    private static void closeQuietly(TransportResponse response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            logger.warn("Error while closing the response", e);
+        }
+    }
+
+    private <T> T deserialize(HttpRequestBase request, String endpoint, TransportResponse response, Class<T> responseType) {
+        long start = System.nanoTime();
+        try (CountingInputStream content = new CountingInputStream(bodyOf(response))) {
+            T value = jsonCodec.readerFor(responseType).readValue(content);
+            metrics.responseDeserialized(endpoint, responseType, System.nanoTime() - start);
+            metrics.responseBodyRead(endpoint, content.getCount());
+            return value;
+        } catch (JsonProcessingException e) {
+            logger.error("Error while deserializing the response of {} to {}", request.getURI(), responseType);
+            throw new ResponseDeserializationException(responseType, e);
+        } catch (IOException e) {
+            logger.error("Error while reading the response of {}", request.getURI());
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static InputStream bodyOf(TransportResponse response) throws IOException {
+        InputStream body = response.getBody();
+        return body != null ? body : new ByteArrayInputStream(new byte[0]);
+    }
+
+    private RetryPolicy retryPolicyOf(HttpRequestBase request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) ? retryPolicy : RetryPolicy.NONE;
+    }
+
+    private EndpointGuards.Permit acquire(String endpoint) {
+        EndpointGuards.Permit permit;
+        try {
+            permit = guards.acquire(endpoint);
+        } catch (CallRejectedException e) {
+            metrics.requestRejected(endpoint, e.getReason());
+            throw e;
+        }
+        if (permit.getQueuedNanos() > 0) {
+            metrics.requestQueued(endpoint, permit.getQueuedNanos());
+        }
+        return permit;
+    }
+
+    private static String endpointOf(HttpRequestBase request) {
+        return Endpoints.nameOf(request.getMethod(), request.getURI());
+    }
+
+    private static void logExecutionError(HttpRequestBase request) {
+        logger.error("Error while executing request for location {} with method {} and headers {}",
+                request.getURI(), request.getMethod(), request.getAllHeaders());
+    }
+
+    /**
+     * Stream over the body of a response, which releases the connection of the response on close.
+     */
+    private static final class ResponseInputStream extends CountingInputStream {
+
+        private final TransportResponse response;
+        private final Charset charset;
+        private final LongConsumer onClose;
+
+        private ResponseInputStream(TransportResponse response, InputStream body, LongConsumer onClose) {
+            super(body);
+            this.response = response;
+            this.charset = charsetOf(response);
+            this.onClose = onClose;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                response.close();
+                onClose.accept(getCount());
+            }
+        }
+    }
+
+    /**
+     * Stream counting the bytes read.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Lazily initialized holder of the executor whose connection pool is shared by all default executors.
+     */
+    private static final class SharedInstance {
+        private static final RequestExecutor INSTANCE = RequestExecutorBuilder.aRequestExecutor().build();
     }
 }
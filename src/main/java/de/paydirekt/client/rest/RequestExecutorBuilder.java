@@ -0,0 +1,364 @@
+package de.paydirekt.client.rest;
+
+import de.paydirekt.client.common.VirtualThreads;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builder for a {@link RequestExecutor} backed by its own pool of HTTP connections.
+ * <p>
+ * The pool is closed together with the built executor via {@link RequestExecutor#close()}.
+ * The limits and timeouts apply to blocking as well as to asynchronous requests, which use a separate
+ * non-blocking pool served by a few I/O threads.
+ * <p>
+ * Instead of the Apache HttpClient, the executor can send its requests via the HTTP/2 capable
+ * {@code java.net.http.HttpClient} on Java 11 and later, see {@link #withJdkHttpClient()},
+ * or via any other {@link HttpTransport}.
+ */
+public final class RequestExecutorBuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestExecutorBuilder.class);
+
+    static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 100;
+    static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    static final Duration DEFAULT_SOCKET_TIMEOUT = Duration.ofSeconds(30);
+    static final Duration DEFAULT_CONNECTION_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    static final Duration DEFAULT_KEEP_ALIVE = Duration.ofSeconds(30);
+    static final Duration DEFAULT_MAX_IDLE_TIME = Duration.ofSeconds(30);
+    static final int DEFAULT_IO_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private int maxConnectionsTotal = DEFAULT_MAX_CONNECTIONS_TOTAL;
+    private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+    private Duration connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private Duration socketTimeout = DEFAULT_SOCKET_TIMEOUT;
+    private Duration connectionRequestTimeout = DEFAULT_CONNECTION_REQUEST_TIMEOUT;
+    private Duration keepAlive = DEFAULT_KEEP_ALIVE;
+    private Duration maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+    private int ioThreads = DEFAULT_IO_THREADS;
+    private RequestMetrics metrics = RequestMetrics.NONE;
+    private RetryPolicy retryPolicy;
+    private CircuitBreakerBuilder circuitBreaker;
+    private int maxConcurrentCalls;
+    private Duration maxBulkheadWait = Duration.ZERO;
+    private final Map<String, Integer> maxConcurrentCallsPerFamily = new HashMap<>();
+    private ConcurrencyLimiter concurrencyLimiter = ConcurrencyLimiter.NONE;
+    private HttpTransport transport;
+    private boolean jdkHttpClient;
+    private boolean virtualThreads;
+
+    private RequestExecutorBuilder() {
+    }
+
+    public static RequestExecutorBuilder aRequestExecutor() {
+        return new RequestExecutorBuilder();
+    }
+
+    public RequestExecutorBuilder withMaxConnectionsTotal(int maxConnectionsTotal) {
+        this.maxConnectionsTotal = maxConnectionsTotal;
+        return this;
+    }
+
+    public RequestExecutorBuilder withMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        return this;
+    }
+
+    public RequestExecutorBuilder withConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    public RequestExecutorBuilder withSocketTimeout(Duration socketTimeout) {
+        this.socketTimeout = socketTimeout;
+        return this;
+    }
+
+    public RequestExecutorBuilder withConnectionRequestTimeout(Duration connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the time a connection is kept alive if the server does not send a {@code Keep-Alive} header.
+     */
+    public RequestExecutorBuilder withKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    /**
+     * Sets the time after which idle connections are evicted from the pool by a background thread.
+     */
+    public RequestExecutorBuilder withMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+        return this;
+    }
+
+    /**
+     * Sets the number of I/O threads serving asynchronous requests.
+     */
+    public RequestExecutorBuilder withIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+        return this;
+    }
+
+    /**
+     * Sets the receiver of the latencies, status codes, body sizes and pool statistics of the requests.
+     */
+    public RequestExecutorBuilder withMetrics(RequestMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Sets the retry policy of idempotent requests. By default a policy built with the defaults
+     * of {@link RetryPolicyBuilder} is used, {@link RetryPolicy#NONE} disables retries.
+     */
+    public RequestExecutorBuilder withRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * Guards every endpoint family by a circuit breaker built from the given settings.
+     * By default no circuit breakers are used.
+     */
+    public RequestExecutorBuilder withCircuitBreaker(CircuitBreakerBuilder circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    /**
+     * Limits the concurrent requests of every endpoint family. Requests wait up to {@code maxWait} if the limit
+     * is reached, asynchronous requests are rejected immediately. By default concurrent requests are not limited.
+     */
+    public RequestExecutorBuilder withBulkhead(int maxConcurrentCalls, Duration maxWait) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxBulkheadWait = maxWait;
+        return this;
+    }
+
+    /**
+     * Limits the concurrent requests of a single endpoint family, e.g. {@code reports},
+     * overriding the limit set via {@link #withBulkhead(int, Duration)}.
+     */
+    public RequestExecutorBuilder withBulkhead(String family, int maxConcurrentCalls) {
+        if (!Endpoints.FAMILIES.contains(family)) {
+            throw new IllegalArgumentException("Unknown endpoint family: " + family);
+        }
+        this.maxConcurrentCallsPerFamily.put(family, maxConcurrentCalls);
+        return this;
+    }
+
+    /**
+     * Limits the requests in flight adaptively. The limiter may be shared by several executors calling the same API.
+     * By default requests are only limited by the connection pool.
+     */
+    public RequestExecutorBuilder withConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        return this;
+    }
+
+    /**
+     * Sends the requests via the given transport, which is closed together with the executor.
+     * The connection pool settings of this builder do not apply to it.
+     */
+    public RequestExecutorBuilder withTransport(HttpTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Sends the requests via {@code java.net.http.HttpClient}, which negotiates HTTP/2 via ALPN and multiplexes
+     * concurrent requests over a few connections. The connect and socket timeouts apply, the latter as timeout of
+     * a request until the response headers are received, while reading the response body is not limited. Like for
+     * the Apache HttpClient, a timeout of zero means no timeout. The connection pool limits do not apply, limit the requests in flight via a
+     * {@link ConcurrencyLimiter} instead.
+     * <p>
+     * Requires Java 11 or later, {@link #build()} fails with an {@link IllegalStateException} on older versions.
+     */
+    public RequestExecutorBuilder withJdkHttpClient() {
+        this.jdkHttpClient = true;
+        return this;
+    }
+
+    /**
+     * Executes asynchronous requests as blocking requests, each on its own virtual thread, instead of via the
+     * non-blocking HttpAsyncClient. They share the blocking connection pool, wait for a full bulkhead like
+     * blocking requests and are retried with the same policy.
+     * <p>
+     * Requires Java 21 or later. On older versions a warning is logged and the HttpAsyncClient is used.
+     */
+    public RequestExecutorBuilder withVirtualThreads() {
+        this.virtualThreads = true;
+        return this;
+    }
+
+    public RequestExecutor build() {
+        requireNonNull(metrics);
+        requireNonNull(connectTimeout);
+        requireNonNull(socketTimeout);
+        requireNonNull(connectionRequestTimeout);
+        requireNonNull(keepAlive);
+        requireNonNull(maxIdleTime);
+        if (maxConnectionsTotal < 1 || maxConnectionsPerRoute < 1) {
+            throw new IllegalArgumentException("Connection limits must be positive.");
+        }
+        if (ioThreads < 1) {
+            throw new IllegalArgumentException("The number of I/O threads must be positive.");
+        }
+        requireNonNull(maxBulkheadWait);
+        requireNonNull(concurrencyLimiter);
+        if (maxConcurrentCalls < 0 || maxConcurrentCallsPerFamily.values().stream().anyMatch(max -> max < 1)
+                || maxBulkheadWait.isNegative()) {
+            throw new IllegalArgumentException("Bulkhead limits must be positive.");
+        }
+        EndpointGuards guards = buildGuards();
+        if (transport != null && jdkHttpClient) {
+            throw new IllegalArgumentException("Either a transport or the JDK http client can be used.");
+        }
+        HttpTransport httpTransport = transport != null ? transport
+                : jdkHttpClient ? buildJdkTransport(connectTimeout, socketTimeout)
+                : buildApacheTransport();
+        metrics.bindConnectionPool(httpTransport::getPoolStats);
+        if (concurrencyLimiter != ConcurrencyLimiter.NONE) {
+            metrics.bindConcurrencyLimiter(concurrencyLimiter);
+        }
+
+        return new RequestExecutor(httpTransport, metrics,
+                retryPolicy != null ? retryPolicy : RetryPolicyBuilder.aRetryPolicy().build(), guards, buildBlockingExecutor());
+    }
+
+    private ExecutorService buildBlockingExecutor() {
+        if (!virtualThreads) {
+            return null;
+        }
+        if (!VirtualThreads.isSupported()) {
+            logger.warn("Virtual threads require Java 21 or later, asynchronous requests are executed by the HttpAsyncClient");
+            return null;
+        }
+        return VirtualThreads.newThreadPerTaskExecutor("paydirekt-request-");
+    }
+
+    private HttpTransport buildApacheTransport() {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(toMillis(connectTimeout))
+                .setSocketTimeout(toMillis(socketTimeout))
+                .setConnectionRequestTimeout(toMillis(connectionRequestTimeout))
+                .build();
+        ConnectionKeepAliveStrategy keepAliveStrategy = keepAliveStrategy(keepAlive.toMillis());
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnectionsTotal);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(maxIdleTime.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(ioThreads)
+                .setConnectTimeout(toMillis(connectTimeout))
+                .setSoTimeout(toMillis(socketTimeout))
+                .build();
+        int maxTotal = maxConnectionsTotal;
+        int maxPerRoute = maxConnectionsPerRoute;
+
+        return new ApacheHttpTransport(httpClient, connectionManager,
+                () -> buildAsyncClient(ioReactorConfig, requestConfig, keepAliveStrategy, maxTotal, maxPerRoute));
+    }
+
+    /**
+     * The JDK transport is compiled for Java 11, thus it is loaded reflectively.
+     */
+    private static HttpTransport buildJdkTransport(Duration connectTimeout, Duration requestTimeout) {
+        try {
+            return (HttpTransport) Class.forName("de.paydirekt.client.rest.JdkHttpTransport")
+                    .getDeclaredConstructor(Duration.class, Duration.class)
+                    .newInstance(connectTimeout, requestTimeout);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new IllegalStateException("The JDK http client requires Java 11 or later", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not create the JDK http client", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create the JDK http client", e);
+        }
+    }
+
+    private EndpointGuards buildGuards() {
+        if (circuitBreaker == null && maxConcurrentCalls == 0 && maxConcurrentCallsPerFamily.isEmpty()
+                && concurrencyLimiter == ConcurrencyLimiter.NONE) {
+            return EndpointGuards.NONE;
+        }
+        Map<String, CircuitBreaker> circuitBreakers = new HashMap<>();
+        Map<String, Bulkhead> bulkheads = new HashMap<>();
+        for (String family : Endpoints.FAMILIES) {
+            if (circuitBreaker != null) {
+                circuitBreakers.put(family, circuitBreaker.build(family));
+            }
+            int max = maxConcurrentCallsPerFamily.getOrDefault(family, maxConcurrentCalls);
+            if (max > 0) {
+                bulkheads.put(family, new Bulkhead(max, maxBulkheadWait.toNanos()));
+            }
+        }
+        return new EndpointGuards(circuitBreakers, bulkheads, concurrencyLimiter);
+    }
+
+    private static CloseableHttpAsyncClient buildAsyncClient(IOReactorConfig ioReactorConfig,
+                                                             RequestConfig requestConfig,
+                                                             ConnectionKeepAliveStrategy keepAliveStrategy,
+                                                             int maxTotal,
+                                                             int maxPerRoute) {
+        PoolingNHttpClientConnectionManager connectionManager;
+        try {
+            connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        } catch (IOReactorException e) {
+            throw new IllegalStateException("Could not initialize the I/O reactor", e);
+        }
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+        return HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .build();
+    }
+
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long defaultKeepAliveMillis) {
+        return (response, context) -> {
+            long keepAliveMillis = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAliveMillis > 0 ? keepAliveMillis : defaultKeepAliveMillis;
+        };
+    }
+
+    private static int toMillis(Duration duration) {
+        return (int) Math.min(Integer.MAX_VALUE, duration.toMillis());
+    }
+}
@@ -0,0 +1,100 @@
+package de.paydirekt.client.rest;
+
+import org.apache.http.pool.PoolStats;
+
+import java.util.function.Supplier;
+
+/**
+ * Receives the metrics of the requests executed by a {@link RequestExecutor}, e.g. to bind them to a
+ * metrics library like Micrometer.
+ * <p>
+ * Endpoints are identified by the names provided by {@link Endpoints#nameOf(String, java.net.URI)}, such as
+ * {@code checkout.create}. Implementations are called on the request threads and the I/O threads,
+ * so they must be thread-safe and must not block. All methods default to doing nothing.
+ */
+public interface RequestMetrics {
+
+    /**
+     * Records nothing.
+     */
+    RequestMetrics NONE = new RequestMetrics() {
+    };
+
+    /**
+     * Called when a response has been received. For streaming requests, the duration ends when
+     * the response headers are received, otherwise when the response body has been read.
+     *
+     * @param endpoint      The name of the endpoint.
+     * @param statusCode    The status code of the response.
+     * @param durationNanos The duration of the request in nanoseconds.
+     */
+    default void requestCompleted(String endpoint, int statusCode, long durationNanos) {
+    }
+
+    /**
+     * Called when a request failed without a response, e.g. due to a timeout.
+     *
+     * @param endpoint      The name of the endpoint.
+     * @param error         The cause of the failure.
+     * @param durationNanos The duration until the failure in nanoseconds.
+     */
+    default void requestFailed(String endpoint, Throwable error, long durationNanos) {
+    }
+
+    /**
+     * Called when a request has been rejected without being sent, because the circuit breaker of its endpoint
+     * family is open, the bulkhead of its endpoint family is full or the concurrency limit is exceeded.
+     *
+     * @param endpoint The name of the endpoint.
+     * @param reason   The reason of the rejection.
+     */
+    default void requestRejected(String endpoint, CallRejectedException.Reason reason) {
+    }
+
+    /**
+     * Called when a request has waited for a permit of the {@link ConcurrencyLimiter} before being sent.
+     *
+     * @param endpoint  The name of the endpoint.
+     * @param waitNanos The time waited in nanoseconds.
+     */
+    default void requestQueued(String endpoint, long waitNanos) {
+    }
+
+    /**
+     * Called when a response body has been read completely.
+     *
+     * @param endpoint The name of the endpoint.
+     * @param bytes    The size of the response body in bytes.
+     */
+    default void responseBodyRead(String endpoint, long bytes) {
+    }
+
+    /**
+     * Called when a response body has been deserialized. Bodies are deserialized while they are read from
+     * the connection, so the duration includes the time spent waiting for the body.
+     *
+     * @param endpoint      The name of the endpoint.
+     * @param type          The deserialized type.
+     * @param durationNanos The duration of the deserialization in nanoseconds.
+     */
+    default void responseDeserialized(String endpoint, Class<?> type, long durationNanos) {
+    }
+
+    /**
+     * Called once when the executor is built, to provide the statistics of its connection pool, e.g. for gauges.
+     *
+     * @param poolStats Provides the current statistics of the connection pool.
+     */
+    default void bindConnectionPool(Supplier<PoolStats> poolStats) {
+    }
+
+    /**
+     * Called once when the executor is built with a concurrency limiter, e.g. to register gauges of its
+     * limit, requests in flight and queued requests.
+     *
+     * @param limiter The concurrency limiter of the executor.
+     */
+    default void bindConcurrencyLimiter(ConcurrencyLimiter limiter) {
+    }
+
+}
@@ -0,0 +1,27 @@
+package de.paydirekt.client.rest;
+
+/**
+ * This Exception is thrown when the body of a successful response cannot be deserialized, e.g. because it is
+ * malformed. It is deterministic, so the request is not retried.
+ */
+public class ResponseDeserializationException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Class<?> responseType;
+
+    /**
+     * Constructor.
+     *
+     * @param responseType The type the response body was deserialized to.
+     * @param cause        The error of the deserialization.
+     */
+    public ResponseDeserializationException(Class<?> responseType, Throwable cause) {
+        super("Could not deserialize the response to " + responseType.getName(), cause);
+        this.responseType = responseType;
+    }
+
+    public Class<?> getResponseType() {
+        return responseType;
+    }
+}
@@ -0,0 +1,188 @@
+package de.paydirekt.client.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Retries calls which failed due to transient errors, i.e. I/O errors like connection resets and timeouts
+ * or the status codes 408, 429, 502, 503 and 504.
+ * <p>
+ * Attempts are delayed by an exponential backoff with full jitter. A retry budget limits the retries to a
+ * ratio of the calls, so retries cannot multiply the load on a system that is already failing.
+ * <p>
+ * Only apply retry policies to calls which are safe to repeat. This class is thread-safe.
+ * Create instances via {@link RetryPolicyBuilder}.
+ */
+public final class RetryPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryPolicy.class);
+
+    /**
+     * Executes calls once.
+     */
+    public static final RetryPolicy NONE = RetryPolicyBuilder.aRetryPolicy().withMaxAttempts(1).build();
+
+    /**
+     * The budget is held in thousandths of a retry.
+     */
+    private static final long TOKEN = 1000;
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final long budgetDeposit;
+    private final long budgetCapacity;
+    private final AtomicLong budget;
+
+    RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff, double budgetRatio, int budgetCapacity) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.budgetDeposit = Math.round(budgetRatio * TOKEN);
+        this.budgetCapacity = budgetCapacity * TOKEN;
+        this.budget = new AtomicLong(this.budgetCapacity);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Executes a call and retries it on transient errors.
+     * <p>
+     * The calling thread sleeps between the attempts. If it is interrupted, the last error is thrown.
+     *
+     * @param call The call to execute. Invoked once per attempt.
+     * @param <T>  The result type.
+     * @return The result of the first successful attempt.
+     */
+    public <T> T execute(Supplier<T> call) {
+        deposit();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                if (!shouldRetry(e, attempt)) {
+                    throw e;
+                }
+                Duration backoff = backoff(attempt);
+                logger.warn("Attempt {} failed, retrying in {} ms", attempt, backoff.toMillis(), e);
+                try {
+                    Thread.sleep(backoff.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes an asynchronous call and retries it on transient errors, without blocking any thread
+     * between the attempts.
+     *
+     * @param call The call to execute. Invoked once per attempt.
+     * @param <T>  The result type.
+     * @return The future result of the first successful attempt.
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> call) {
+        deposit();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(call, 1, result);
+        return result;
+    }
+
+    private <T> void attemptAsync(Supplier<CompletableFuture<T>> call, int attempt, CompletableFuture<T> result) {
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (result.isDone() || !shouldRetry(cause, attempt)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            Duration backoff = backoff(attempt);
+            logger.warn("Attempt {} failed, retrying in {} ms", attempt, backoff.toMillis(), cause);
+            Scheduler.INSTANCE.schedule(() -> attemptAsync(call, attempt + 1, result), backoff.toMillis(), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * Decides whether a failed attempt is retried and withdraws the retry from the budget.
+     */
+    boolean shouldRetry(Throwable error, int attempt) {
+        return attempt < maxAttempts && isTransient(error) && withdraw();
+    }
+
+    /**
+     * Computes the delay before the next attempt: a random duration between zero and the exponential backoff.
+     */
+    Duration backoff(int attempt) {
+        long exponential = initialBackoff.toMillis() << Math.min(attempt - 1, 30);
+        long bound = Math.min(maxBackoff.toMillis(), exponential < 0 ? Long.MAX_VALUE : exponential);
+        return Duration.ofMillis(bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0);
+    }
+
+    static boolean isTransient(Throwable error) {
+        if (error instanceof HttpStatusException) {
+            int statusCode = ((HttpStatusException) error).getStatusCode();
+            return statusCode == 408 || statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+        }
+        if (error instanceof ResponseDeserializationException) {
+            return false;
+        }
+        // the request executor wraps I/O errors of the transport, malformed content fails again on every attempt
+        Throwable cause = error instanceof IOException ? error : error.getCause();
+        return cause instanceof IOException && !(cause instanceof JsonProcessingException);
+    }
+
+    private void deposit() {
+        budget.updateAndGet(current -> Math.min(budgetCapacity, current + budgetDeposit));
+    }
+
+    private boolean withdraw() {
+        while (true) {
+            long current = budget.get();
+            if (current < TOKEN) {
+                logger.warn("Retry budget exhausted, not retrying");
+                return false;
+            }
+            if (budget.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Lazily initialized holder of the thread delaying asynchronous retries.
+     */
+    private static final class Scheduler {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "paydirekt-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+}
@@ -0,0 +1,81 @@
+package de.paydirekt.client.rest;
+
+import java.time.Duration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builder for a {@link RetryPolicy}.
+ * <p>
+ * By default calls are attempted up to 3 times, backing off 100 milliseconds before the first retry,
+ * doubling up to 2 seconds. Retries are limited to 20 percent of the calls, with an initial allowance of 10 retries.
+ */
+public final class RetryPolicyBuilder {
+
+    static final int DEFAULT_MAX_ATTEMPTS = 3;
+    static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(100);
+    static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(2);
+    static final double DEFAULT_BUDGET_RATIO = 0.2;
+    static final int DEFAULT_BUDGET_CAPACITY = 10;
+
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private Duration initialBackoff = DEFAULT_INITIAL_BACKOFF;
+    private Duration maxBackoff = DEFAULT_MAX_BACKOFF;
+    private double budgetRatio = DEFAULT_BUDGET_RATIO;
+    private int budgetCapacity = DEFAULT_BUDGET_CAPACITY;
+
+    private RetryPolicyBuilder() {
+    }
+
+    public static RetryPolicyBuilder aRetryPolicy() {
+        return new RetryPolicyBuilder();
+    }
+
+    /**
+     * Sets the maximum number of attempts including the first one, 1 disables retries.
+     */
+    public RetryPolicyBuilder withMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Sets the upper bound of the delay before the first retry, which doubles with every further retry.
+     */
+    public RetryPolicyBuilder withInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+        return this;
+    }
+
+    /**
+     * Sets the upper bound of the delay between two attempts.
+     */
+    public RetryPolicyBuilder withMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+        return this;
+    }
+
+    /**
+     * Sets the retry budget: every call adds {@code ratio} retries to the budget, up to {@code capacity} retries.
+     */
+    public RetryPolicyBuilder withRetryBudget(double ratio, int capacity) {
+        this.budgetRatio = ratio;
+        this.budgetCapacity = capacity;
+        return this;
+    }
+
+    public RetryPolicy build() {
+        requireNonNull(initialBackoff);
+        requireNonNull(maxBackoff);
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("The maximum number of attempts must be positive.");
+        }
+        if (initialBackoff.isNegative() || maxBackoff.isNegative()) {
+            throw new IllegalArgumentException("Backoffs must not be negative.");
+        }
+        if (budgetRatio < 0 || budgetCapacity < 0) {
+            throw new IllegalArgumentException("The retry budget must not be negative.");
+        }
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, budgetRatio, budgetCapacity);
+    }
+}
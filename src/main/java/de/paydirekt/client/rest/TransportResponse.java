@@ -0,0 +1,29 @@
+package de.paydirekt.client.rest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A response received by a {@link HttpTransport}. Closing it releases the connection.
+ */
+public interface TransportResponse extends Closeable {
+
+    int getStatusCode();
+
+    /**
+     * Retrieves the value of the {@code Content-Type} header.
+     *
+     * @return The content type, {@code null} if the response has none.
+     */
+    String getContentType();
+
+    /**
+     * Retrieves the body of the response.
+     *
+     * @return The body, {@code null} if the response has none.
+     * @throws IOException If the body cannot be read.
+     */
+    InputStream getBody() throws IOException;
+
+}
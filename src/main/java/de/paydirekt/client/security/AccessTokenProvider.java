@@ -0,0 +1,168 @@
+package de.paydirekt.client.security;
+
+import de.paydirekt.client.security.model.AccessToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Provides a cached {@link AccessToken} which is obtained via the {@link SecurityClient}.
+ * <p>
+ * The token is refreshed in the background shortly before it expires, so callers usually never wait
+ * for the token obtain endpoint. Concurrent requests for a new token are coalesced into a single
+ * request against the endpoint.
+ * <p>
+ * This class is thread-safe. Call {@link #close()} to stop the background refresh.
+ */
+public class AccessTokenProvider implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessTokenProvider.class);
+
+    static final Duration DEFAULT_REFRESH_AHEAD = Duration.ofSeconds(60);
+    static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final SecurityClient securityClient;
+    private final Duration refreshAhead;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicReference<CompletableFuture<AccessToken>> pendingRefresh = new AtomicReference<>();
+
+    private volatile AccessToken accessToken;
+    private volatile ScheduledFuture<?> scheduledRefresh;
+
+    /**
+     * Constructor. Tokens are refreshed 60 seconds before they expire.
+     *
+     * @param securityClient The client used to obtain tokens.
+     */
+    public AccessTokenProvider(SecurityClient securityClient) {
+        this(securityClient, DEFAULT_REFRESH_AHEAD);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param securityClient The client used to obtain tokens.
+     * @param refreshAhead   The period before the expiry of a token in which it is refreshed.
+     */
+    public AccessTokenProvider(SecurityClient securityClient, Duration refreshAhead) {
+        requireNonNull(securityClient);
+        requireNonNull(refreshAhead);
+
+        this.securityClient = securityClient;
+        this.refreshAhead = refreshAhead;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "paydirekt-access-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Retrieves a valid access token.
+     * <p>
+     * Only blocks if no token has been obtained yet or the cached token is already expired,
+     * e.g. because the background refresh failed.
+     *
+     * @return The access token.
+     */
+    public AccessToken getAccessToken() {
+        AccessToken current = accessToken;
+        if (current != null && !current.expiresWithin(Duration.ZERO)) {
+            return current;
+        }
+        try {
+            return refresh().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Stops the background refresh.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Obtains a new token, or joins the request that is already in flight.
+     */
+    CompletableFuture<AccessToken> refresh() {
+        while (true) {
+            CompletableFuture<AccessToken> pending = pendingRefresh.get();
+            if (pending != null) {
+                return pending;
+            }
+            CompletableFuture<AccessToken> refresh = new CompletableFuture<>();
+            if (pendingRefresh.compareAndSet(null, refresh)) {
+                obtain(refresh);
+                return refresh;
+            }
+        }
+    }
+
+    private void obtain(CompletableFuture<AccessToken> refresh) {
+        try {
+            AccessToken obtained = securityClient.getAccessToken();
+            accessToken = obtained;
+            scheduleRefresh(obtained);
+            refresh.complete(obtained);
+        } catch (RuntimeException e) {
+            refresh.completeExceptionally(e);
+        } finally {
+            pendingRefresh.compareAndSet(refresh, null);
+        }
+    }
+
+    private void refreshInBackground() {
+        AccessToken current = accessToken;
+        if (current == null || current.expiresWithin(Duration.ZERO)) {
+            // callers refresh expired tokens on demand
+            return;
+        }
+        refresh().whenComplete((token, e) -> {
+            if (e != null) {
+                logger.warn("Background refresh of the access token failed, retrying in {}", RETRY_DELAY, e);
+                schedule(this::refreshInBackground, RETRY_DELAY);
+            }
+        });
+    }
+
+    private void scheduleRefresh(AccessToken token) {
+        if (Instant.MAX.equals(token.getExpiresAt())) {
+            return;
+        }
+        Duration lifetime = Duration.between(Instant.now(), token.getExpiresAt());
+        Duration delay = lifetime.minus(refreshAhead);
+        // never refresh tokens with a short lifetime in a tight loop
+        Duration minimumDelay = lifetime.dividedBy(2);
+        schedule(this::refreshInBackground, delay.compareTo(minimumDelay) < 0 ? minimumDelay : delay);
+    }
+
+    private void schedule(Runnable task, Duration delay) {
+        try {
+            ScheduledFuture<?> previous = scheduledRefresh;
+            scheduledRefresh = scheduler.schedule(task, delay.toMillis(), TimeUnit.MILLISECONDS);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        } catch (RejectedExecutionException e) {
+            logger.debug("Access token refresh not scheduled, the provider is closed");
+        }
+    }
+
+}
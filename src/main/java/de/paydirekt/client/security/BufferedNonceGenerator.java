@@ -0,0 +1,105 @@
+package de.paydirekt.client.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out nonces from a lock-free buffer, which is refilled by a background thread
+ * whenever it is less than half full.
+ * <p>
+ * Callers only generate a nonce themselves if the buffer runs empty, e.g. during bursts of token requests.
+ * Each buffered nonce is handed out exactly once.
+ * <p>
+ * This class is thread-safe. Call {@link #close()} to stop the background refill.
+ */
+public final class BufferedNonceGenerator implements NonceGenerator, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BufferedNonceGenerator.class);
+
+    static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final NonceGenerator generator = new ThreadLocalNonceGenerator();
+    private final Queue<String> nonces = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final ExecutorService refiller;
+
+    /**
+     * Constructor. Buffers up to 256 nonces.
+     */
+    public BufferedNonceGenerator() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The maximum number of buffered nonces.
+     */
+    public BufferedNonceGenerator(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.refiller = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "paydirekt-nonce-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        triggerRefill();
+    }
+
+    @Override
+    public String createNonce() {
+        String nonce = nonces.poll();
+        int remaining = nonce != null ? size.decrementAndGet() : 0;
+        if (remaining < capacity / 2) {
+            triggerRefill();
+        }
+        return nonce != null ? nonce : generator.createNonce();
+    }
+
+    /**
+     * Stops the background refill. Nonces are created by the callers from then on.
+     */
+    @Override
+    public void close() {
+        refiller.shutdownNow();
+        nonces.clear();
+        size.set(0);
+    }
+
+    private void triggerRefill() {
+        if (!refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refiller.execute(this::refill);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Nonce buffer not refilled, the generator is closed");
+            refilling.set(false);
+        }
+    }
+
+    private void refill() {
+        try {
+            while (size.get() < capacity && !Thread.currentThread().isInterrupted()) {
+                nonces.offer(generator.createNonce());
+                size.incrementAndGet();
+            }
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+}
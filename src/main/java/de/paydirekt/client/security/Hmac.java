@@ -3,12 +3,12 @@ package de.paydirekt.client.security;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -30,7 +30,16 @@ public final class Hmac {
 
     private static final Logger logger = LoggerFactory.getLogger(Hmac.class);
 
-    private static final String CRYPTO_ALGORITHM = "HmacSHA256";
+    static final String CRYPTO_ALGORITHM = "HmacSHA256";
+
+    /**
+     * The maximum number of API secrets whose signers are cached.
+     */
+    static final int MAX_CACHED_SIGNERS = 1024;
+
+    private static final Map<String, HmacSigner> signers = new ConcurrentHashMap<>();
+
+    private static final DateTimeFormatter SIGNATURE_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneId.of("GMT"));
 
     /**
      * Private constructor.
@@ -51,8 +60,16 @@ public final class Hmac {
      * @return HMAC signature to be used in the header field {@code }X-Auth-Code} in the token obtain endpoint.
      */
     public static String signature(final String requestId, final Instant timestamp, final String apiKey, final String apiSecret, final String randomNonce) {
-        final String stringToSign = stringToSign(requestId, timestamp, apiKey, randomNonce);
-        return signature(stringToSign, apiSecret);
+
+        validateRequestId(requestId);
+        validateApiKey(apiKey);
+        validateNonce(randomNonce);
+
+        if (SignatureLogPolicy.shouldLog(logger)) {
+            logger.info("{} token.obtain.stringToSign: {}", requestId, concat(requestId, SIGNATURE_DATE_FORMATTER.format(timestamp), apiKey, randomNonce));
+        }
+        // the string to sign is written to the mac directly, it is only created as String for logging
+        return signer(apiSecret).sign(requestId, timestamp, apiKey, randomNonce);
     }
 
     /**
@@ -65,7 +82,7 @@ public final class Hmac {
      * @return String to sign, used as input in {@link #signature(String, String)}.
      */
     public static String stringToSign(final String requestId, final Instant timestamp, final String apiKey, final String randomNonce) {
-        final String signatureDateString = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneId.of("GMT")).format(timestamp);
+        final String signatureDateString = SIGNATURE_DATE_FORMATTER.format(timestamp);
         return stringToSign(requestId, signatureDateString, apiKey, randomNonce);
     }
 
@@ -85,9 +102,11 @@ public final class Hmac {
         validateApiKey(apiKey);
         validateNonce(randomNonce);
 
-        final String stringToSign = String.format("%s:%s:%s:%s", requestId, timestampString, apiKey, randomNonce);
+        final String stringToSign = concat(requestId, timestampString, apiKey, randomNonce);
 
-        logger.info("{} token.obtain.stringToSign: {}", requestId, stringToSign);
+        if (SignatureLogPolicy.shouldLog(logger)) {
+            logger.info("{} token.obtain.stringToSign: {}", requestId, stringToSign);
+        }
         return stringToSign;
     }
 
@@ -99,24 +118,37 @@ public final class Hmac {
      * @return HMAC signature to be used in the header field <code>X-Auth-Code</code> in the token obtain endpoint.
      */
     public static String signature(final String stringToSign, final String apiSecret) {
+        return signer(apiSecret).sign(stringToSign);
+    }
 
-        validateApiSecret(apiSecret);
-
-        byte[] keyDecoded = Base64.getUrlDecoder().decode(apiSecret.getBytes(UTF_8));
-
-        String signature;
-
-        try {
-            javax.crypto.Mac mac = javax.crypto.Mac.getInstance(CRYPTO_ALGORITHM);
-            mac.init(new javax.crypto.spec.SecretKeySpec(keyDecoded, CRYPTO_ALGORITHM));
-            signature = new String(Base64.getUrlEncoder().encode(mac.doFinal(stringToSign.getBytes(UTF_8))), UTF_8);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(String.format("Could not initialize HMAC. %s is not supported by JRE. Is java cryptography extension (JCE) installed?", CRYPTO_ALGORITHM), e);
-        } catch (InvalidKeyException e) {
-            throw new RuntimeException("Invalid key. Check the API secret.", e);
+    /**
+     * Retrieve the signer of an API secret. Signers are cached, so signing with the same secret again
+     * reuses the decoded key and the keyed {@link javax.crypto.Mac} instances.
+     *
+     * @param apiSecret The confidential API secret as provided with the API key.
+     * @return The signer using the API secret as key.
+     */
+    public static HmacSigner signer(final String apiSecret) {
+        // cached secrets have already been validated
+        HmacSigner signer = apiSecret != null ? signers.get(apiSecret) : null;
+        if (signer == null) {
+            validateApiSecret(apiSecret);
+            if (signers.size() >= MAX_CACHED_SIGNERS) {
+                // do not grow without bounds if secrets are rotated frequently
+                signers.clear();
+            }
+            signer = signers.computeIfAbsent(apiSecret, HmacSigner::new);
         }
+        return signer;
+    }
 
-        return signature;
+    private static String concat(final String requestId, final String timestampString, final String apiKey, final String randomNonce) {
+        return new StringBuilder(requestId.length() + timestampString.length() + apiKey.length() + randomNonce.length() + 3)
+                .append(requestId).append(':')
+                .append(timestampString).append(':')
+                .append(apiKey).append(':')
+                .append(randomNonce)
+                .toString();
     }
 
     // --- static methods that are package local for testing purposes ---
@@ -133,12 +165,76 @@ public final class Hmac {
         }
     }
 
+    /**
+     * Checks for a lower-case UUID of version 1 to 5, equivalent to the pattern
+     * {@code [0-9a-f]{8}-[0-9a-f]{4}-[1-5][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}}.
+     */
     static boolean isUuid(final String string) {
-        return string.matches("^[0-9a-f]{8}-[0-9a-f]{4}-[1-5][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$");
+        if (string.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = string.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!isLowerCaseHex(c)) {
+                return false;
+            }
+        }
+        char version = string.charAt(14);
+        char variant = string.charAt(19);
+        return version >= '1' && version <= '5'
+                && (variant == '8' || variant == '9' || variant == 'a' || variant == 'b');
     }
 
+    /**
+     * Checks for a base 64 url encoded string, equivalent to the pattern {@code [a-zA-Z0-9_-]+[=]{0,2}}.
+     */
     static boolean isBase64UrlEncoded(final String string) {
-        return string.matches("[a-zA-Z0-9_-]+[=]{0,2}");
+        int length = string.length() - paddingLength(string);
+        if (length == 0 || string.length() - length > 2) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!isBase64UrlChar(string.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the length of the decoded bytes of a base 64 url encoded string without decoding it.
+     */
+    static int decodedLength(final String base64UrlEncoded) {
+        int padding = paddingLength(base64UrlEncoded);
+        int dataLength = base64UrlEncoded.length() - padding;
+        boolean wellFormed = padding == 0
+                ? dataLength % 4 != 1
+                : base64UrlEncoded.length() % 4 == 0 && dataLength % 4 == 4 - padding;
+        if (!wellFormed) {
+            // let the decoder report the malformed input
+            return Base64.getUrlDecoder().decode(base64UrlEncoded.getBytes(UTF_8)).length;
+        }
+        return dataLength / 4 * 3 + Math.max(0, dataLength % 4 - 1);
+    }
+
+    private static int paddingLength(final String string) {
+        int padding = 0;
+        while (padding < string.length() && string.charAt(string.length() - 1 - padding) == '=') {
+            padding++;
+        }
+        return padding;
+    }
+
+    private static boolean isLowerCaseHex(final char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+    }
+
+    private static boolean isBase64UrlChar(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
     }
 
     static void validateApiKey(final String apiKey) {
@@ -157,7 +253,7 @@ public final class Hmac {
         if (!isBase64UrlEncoded(apiSecret)) {
             throw new IllegalArgumentException("apiSecret must be a valid, but was not base 64 url encoded.");
         }
-        if (Base64.getUrlDecoder().decode(apiSecret.getBytes(UTF_8)).length < 32) {
+        if (decodedLength(apiSecret) < 32) {
             throw new IllegalArgumentException("apiSecret must be a valid, but was too short.");
         }
     }
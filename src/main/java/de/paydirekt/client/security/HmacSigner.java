@@ -0,0 +1,160 @@
+package de.paydirekt.client.security;
+
+import de.paydirekt.client.common.ThreadAwarePool;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static de.paydirekt.client.security.Hmac.CRYPTO_ALGORITHM;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Creates HMAC signatures with one API secret.
+ * <p>
+ * The secret is validated and decoded once. Each thread signs with its own copy of a keyed {@link Mac},
+ * so after warm-up signing neither looks up the JCA provider nor initializes a key.
+ * Virtual threads borrow the {@link Mac} from a small pool instead, see {@link ThreadAwarePool}.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class HmacSigner {
+
+    private static final int SIGNATURE_DATE_LENGTH = 14;
+
+    private final SecretKeySpec key;
+    private final Mac prototype;
+    private final ThreadAwarePool<Signing> signings;
+
+    /**
+     * Constructor.
+     *
+     * @param apiSecret The confidential API secret as provided with the API key.
+     */
+    public HmacSigner(final String apiSecret) {
+        Hmac.validateApiSecret(apiSecret);
+
+        this.key = new SecretKeySpec(Base64.getUrlDecoder().decode(apiSecret.getBytes(UTF_8)), CRYPTO_ALGORITHM);
+        this.prototype = newMac();
+        this.signings = new ThreadAwarePool<>(() -> new Signing(copyPrototype()));
+    }
+
+    /**
+     * Generate the HMAC signature. The strong SHA-256 algorithm is used.
+     *
+     * @param stringToSign The string to sign which authenticates the message integrity.
+     * @return HMAC signature to be used in the header field <code>X-Auth-Code</code> in the token obtain endpoint.
+     */
+    public String sign(final String stringToSign) {
+        // doFinal resets the mac, so it is ready for the next signature
+        Signing signing = signings.acquire();
+        try {
+            return Base64.getUrlEncoder().encodeToString(signing.mac.doFinal(stringToSign.getBytes(UTF_8)));
+        } finally {
+            signings.release(signing);
+        }
+    }
+
+    /**
+     * Generate the HMAC signature of the string to sign built from the given parts.
+     * <p>
+     * The string to sign is written into a reusable buffer which is fed to the mac directly.
+     * The parts must have been validated, thus consist of ASCII characters only.
+     */
+    String sign(final String requestId, final Instant timestamp, final String apiKey, final String randomNonce) {
+        int length = requestId.length() + SIGNATURE_DATE_LENGTH + apiKey.length() + randomNonce.length() + 3;
+        Signing signing = signings.acquire();
+        try {
+            byte[] buffer = signing.buffer;
+            if (buffer.length < length) {
+                buffer = new byte[length];
+                signing.buffer = buffer;
+            }
+
+            int position = putAscii(buffer, 0, requestId);
+            buffer[position++] = ':';
+            position = putSignatureDate(buffer, position, timestamp);
+            buffer[position++] = ':';
+            position = putAscii(buffer, position, apiKey);
+            buffer[position++] = ':';
+            position = putAscii(buffer, position, randomNonce);
+
+            signing.mac.update(buffer, 0, position);
+            return Base64.getUrlEncoder().encodeToString(signing.mac.doFinal());
+        } finally {
+            signings.release(signing);
+        }
+    }
+
+    private static int putAscii(final byte[] buffer, final int offset, final String string) {
+        for (int i = 0; i < string.length(); i++) {
+            buffer[offset + i] = (byte) string.charAt(i);
+        }
+        return offset + string.length();
+    }
+
+    /**
+     * Writes the timestamp in format {@code yyyyMMddHHmmss} with Timezone GMT.
+     */
+    private static int putSignatureDate(final byte[] buffer, final int offset, final Instant timestamp) {
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(timestamp.getEpochSecond(), 0, ZoneOffset.UTC);
+        if (dateTime.getYear() < 1 || dateTime.getYear() > 9999) {
+            throw new IllegalArgumentException("timestamp must be representable in format yyyyMMddHHmmss, but was: " + timestamp);
+        }
+        int position = putDigits(buffer, offset, dateTime.getYear(), 4);
+        position = putDigits(buffer, position, dateTime.getMonthValue(), 2);
+        position = putDigits(buffer, position, dateTime.getDayOfMonth(), 2);
+        position = putDigits(buffer, position, dateTime.getHour(), 2);
+        position = putDigits(buffer, position, dateTime.getMinute(), 2);
+        return putDigits(buffer, position, dateTime.getSecond(), 2);
+    }
+
+    private static int putDigits(final byte[] buffer, final int offset, final int value, final int digits) {
+        int remaining = value;
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[offset + i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return offset + digits;
+    }
+
+    private Mac copyPrototype() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            // not all providers support cloning, initialize a new instance instead
+            return newMac();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(CRYPTO_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(String.format("Could not initialize HMAC. %s is not supported by JRE. Is java cryptography extension (JCE) installed?", CRYPTO_ALGORITHM), e);
+        } catch (InvalidKeyException e) {
+            throw new RuntimeException("Invalid key. Check the API secret.", e);
+        }
+    }
+
+    /**
+     * A keyed mac with a reusable buffer for the string to sign, used by one thread at a time.
+     */
+    private static final class Signing {
+
+        private final Mac mac;
+        private byte[] buffer = new byte[256];
+
+        private Signing(Mac mac) {
+            this.mac = mac;
+        }
+    }
+
+}
@@ -1,9 +1,7 @@
 package de.paydirekt.client.security;
 
 import java.nio.charset.StandardCharsets;
-import java.security.GeneralSecurityException;
-import java.security.SecureRandom;
-import java.util.Arrays;
+import java.util.Base64;
 
 /**
  * A nonce is a random arbitrary character sequence that may only be used once.
@@ -11,22 +9,14 @@ import java.util.Arrays;
 public final class Nonce {
 
     /**
-     * Properly initialized SHA1PRNG for nonce generation.
+     * The number of random bytes of a nonce, which encode to 64 characters.
      */
-    private static final SecureRandom secureRandom;
-
-    static {
-        // properly initialize the pseudorandom number generator
-        try {
-            secureRandom = SecureRandom.getInstance("SHA1PRNG", "SUN");
-            // to properly initialize it needs to be used once
-            final byte[] ar = new byte[64];
-            secureRandom.nextBytes(ar);
-            Arrays.fill(ar, (byte) 0);
-        } catch (GeneralSecurityException e) {
-            throw new IllegalStateException(e);
-        }
-    }
+    static final int RANDOM_BYTES = 48;
+
+    /**
+     * Generator with one SHA1PRNG per thread, avoiding contention on a shared instance.
+     */
+    private static final NonceGenerator generator = new ThreadLocalNonceGenerator();
 
     /**
      * Private constructor.
@@ -42,11 +32,14 @@ public final class Nonce {
      * @return The nonce.
      */
     public static String createRandomNonce() {
-        final byte[] ar = new byte[48];
-        secureRandom.nextBytes(ar);
-        final String nonce = new String(java.util.Base64.getUrlEncoder().withoutPadding().encode(ar), StandardCharsets.UTF_8);
-        Arrays.fill(ar, (byte) 0);
-        return nonce;
+        return generator.createNonce();
+    }
+
+    /**
+     * Encodes random bytes as nonce.
+     */
+    static String encode(final byte[] randomBytes) {
+        return new String(Base64.getUrlEncoder().withoutPadding().encode(randomBytes), StandardCharsets.UTF_8);
     }
 
 }
@@ -0,0 +1,18 @@
+package de.paydirekt.client.security;
+
+/**
+ * Strategy to create nonces for the token obtain endpoint.
+ * <p>
+ * Implementations must be thread-safe and create base 64 url encoded, cryptographically random
+ * character sequences of length 64, as required by {@link Hmac#validateNonce(String)}.
+ */
+public interface NonceGenerator {
+
+    /**
+     * Creates a random nonce as a character sequence of length 64.
+     *
+     * @return The nonce.
+     */
+    String createNonce();
+
+}
@@ -2,15 +2,16 @@ package de.paydirekt.client.security;
 
 import de.paydirekt.client.rest.PostRequestBuilder;
 import de.paydirekt.client.rest.RequestExecutor;
+import de.paydirekt.client.rest.RetryPolicy;
 import de.paydirekt.client.security.model.AccessToken;
 import de.paydirekt.client.security.model.ObtainTokenRequest;
 import org.apache.http.client.methods.HttpPost;
 
 import java.time.Instant;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static de.paydirekt.client.rest.EndpointProperties.getTokenObtainEndpoint;
 import static java.util.Objects.requireNonNull;
@@ -21,10 +22,13 @@ import static java.util.Objects.requireNonNull;
  */
 public class SecurityClient {
 
+    private static final DateTimeFormatter RFC_1123_DATE_FORMATTER = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneId.of("GMT"));
+
     private final String tokenEndpoint;
     private final String apiKey;
     private final String apiSecret;
     private final RequestExecutor requestExecutor;
+    private final NonceGenerator nonceGenerator;
 
     /**
      * Constructor. Initializes the tokenEndpoint and the requestExecutor.
@@ -48,38 +52,77 @@ public class SecurityClient {
                           String apiKey,
                           String apiSecret,
                           RequestExecutor requestExecutor) {
+        this(tokenEndpoint, apiKey, apiSecret, requestExecutor, Nonce::createRandomNonce);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param tokenEndpoint   The URL of the token obtain endpoint.
+     * @param apiKey          The api key of the merchant.
+     * @param apiSecret       The api secret of the merchant.
+     * @param requestExecutor The request executor.
+     * @param nonceGenerator  The generator of the random nonces, e.g. a {@link BufferedNonceGenerator}.
+     */
+    public SecurityClient(String tokenEndpoint,
+                          String apiKey,
+                          String apiSecret,
+                          RequestExecutor requestExecutor,
+                          NonceGenerator nonceGenerator) {
         requireNonNull(tokenEndpoint);
         requireNonNull(apiKey);
         requireNonNull(apiSecret);
         requireNonNull(requestExecutor);
+        requireNonNull(nonceGenerator);
 
         this.tokenEndpoint = tokenEndpoint;
         this.apiKey = apiKey;
         this.apiSecret = apiSecret;
         this.requestExecutor = requestExecutor;
+        this.nonceGenerator = nonceGenerator;
     }
 
     /**
      * Retrieves an OAuth2 Access Token that authenticates a shop.
      * The token must be provided in order to execute any requests against the merchant API.
+     * <p>
+     * Transient errors are retried according to the retry policy of the request executor.
      *
      * @return The retrieved accessToken.
      */
     public AccessToken getAccessToken() {
-        final HttpPost post = getPostRequest();
-        return requestExecutor.executeRequest(post, AccessToken.class);
+        return getAccessToken(requestExecutor.getRetryPolicy());
+    }
+
+    /**
+     * Retrieves an OAuth2 Access Token that authenticates a shop.
+     *
+     * @param retryPolicy The retry policy of this request.
+     * @return The retrieved accessToken.
+     */
+    public AccessToken getAccessToken(RetryPolicy retryPolicy) {
+        // every attempt is signed with a new nonce, since nonces may only be used once
+        return retryPolicy.execute(() -> requestExecutor.executeRequest(getPostRequest(), AccessToken.class, RetryPolicy.NONE));
+    }
+
+    /**
+     * Retrieves an OAuth2 Access Token asynchronously.
+     *
+     * @return The future retrieved accessToken.
+     */
+    public CompletableFuture<AccessToken> getAccessTokenAsync() {
+        return requestExecutor.getRetryPolicy().executeAsync(() -> requestExecutor.executeRequestAsync(getPostRequest(), AccessToken.class));
     }
 
     private HttpPost getPostRequest() {
         // ingredients: time, request ID and random nonce
         final Instant now = Instant.now();
         final String requestId = UUID.randomUUID().toString();
-        final String randomNonce = Nonce.createRandomNonce();
+        final String randomNonce = nonceGenerator.createNonce();
         // calculate the HMAC signature
         final String signature = Hmac.signature(requestId, now, apiKey, apiSecret, randomNonce);
         // use the RFC-1123 date format
-        final String rfc1123DateString = DateTimeFormatter.RFC_1123_DATE_TIME.format(
-                ZonedDateTime.ofInstant(now, ZoneId.of("GMT")));
+        final String rfc1123DateString = RFC_1123_DATE_FORMATTER.format(now);
 
         return new PostRequestBuilder(tokenEndpoint)
                 .withHeader("X-Date", rfc1123DateString)
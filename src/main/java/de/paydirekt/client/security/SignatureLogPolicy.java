@@ -0,0 +1,105 @@
+package de.paydirekt.client.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Controls the logging of signature material, i.e. the string to sign, by {@link Hmac}.
+ * <p>
+ * The string to sign contains request metadata and logging it on every token request costs formatting and
+ * appender I/O on the hot path. Therefore it is not logged in production ('-Dproduction=true') by default
+ * and at most once per second otherwise. The mode can be set via the system property
+ * '-Dpaydirekt.signatureLogging=off|sampled|all' or {@link #setMode(Mode)}.
+ * <p>
+ * If the messages are needed in production, configure an asynchronous appender in the logging backend.
+ */
+public final class SignatureLogPolicy {
+
+    /**
+     * The logging modes.
+     */
+    public enum Mode {
+        /**
+         * Signature material is never logged.
+         */
+        OFF,
+        /**
+         * Signature material is logged at most once per sample interval.
+         */
+        SAMPLED,
+        /**
+         * Signature material is logged for every signature.
+         */
+        ALL
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(SignatureLogPolicy.class);
+
+    static final String MODE_PROPERTY = "paydirekt.signatureLogging";
+    static final Duration SAMPLE_INTERVAL = Duration.ofSeconds(1);
+
+    private static final AtomicLong nextSample = new AtomicLong(System.nanoTime());
+
+    private static volatile Mode mode = defaultMode();
+
+    /**
+     * Private constructor.
+     * <p>
+     * This class provides static functions only.
+     */
+    private SignatureLogPolicy() {
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    public static void setMode(Mode mode) {
+        requireNonNull(mode);
+        SignatureLogPolicy.mode = mode;
+    }
+
+    /**
+     * Decides whether signature material is logged now. Callers must only build the message if it is.
+     *
+     * @param logger The logger to log with on level INFO.
+     * @return Whether to log.
+     */
+    static boolean shouldLog(Logger logger) {
+        Mode current = mode;
+        return current != Mode.OFF && logger.isInfoEnabled() && (current == Mode.ALL || sample(System.nanoTime()));
+    }
+
+    /**
+     * Takes the sample of the current interval, if no other caller did.
+     */
+    static boolean sample(long nanoTime) {
+        long next = nextSample.get();
+        return nanoTime - next >= 0 && nextSample.compareAndSet(next, nanoTime + SAMPLE_INTERVAL.toNanos());
+    }
+
+    /**
+     * Determines the mode from the system properties. An invalid mode is ignored with a warning, since it must not
+     * prevent the class from loading and thereby break signing.
+     */
+    static Mode defaultMode() {
+        String property = System.getProperty(MODE_PROPERTY);
+        if (property != null) {
+            try {
+                return Mode.valueOf(property.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring invalid value '{}' of -D{}, valid values are {} (case-insensitive).",
+                        property, MODE_PROPERTY, Arrays.toString(Mode.values()));
+            }
+        }
+        return Boolean.getBoolean("production") ? Mode.OFF : Mode.SAMPLED;
+    }
+
+}
@@ -0,0 +1,50 @@
+package de.paydirekt.client.security;
+
+import de.paydirekt.client.common.ThreadAwarePool;
+
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Creates nonces with one SHA1PRNG per thread, so concurrent callers never contend
+ * for a shared {@link SecureRandom}.
+ * <p>
+ * Virtual threads borrow an instance from a small pool instead, so a thread per task
+ * does not seed a new SHA1PRNG every time.
+ */
+public final class ThreadLocalNonceGenerator implements NonceGenerator {
+
+    private final ThreadAwarePool<SecureRandom> secureRandoms = new ThreadAwarePool<>(ThreadLocalNonceGenerator::newSecureRandom);
+
+    @Override
+    public String createNonce() {
+        final byte[] ar = new byte[Nonce.RANDOM_BYTES];
+        final SecureRandom secureRandom = secureRandoms.acquire();
+        try {
+            secureRandom.nextBytes(ar);
+        } finally {
+            secureRandoms.release(secureRandom);
+        }
+        final String nonce = Nonce.encode(ar);
+        Arrays.fill(ar, (byte) 0);
+        return nonce;
+    }
+
+    /**
+     * Creates a properly initialized SHA1PRNG for nonce generation.
+     */
+    private static SecureRandom newSecureRandom() {
+        try {
+            final SecureRandom secureRandom = SecureRandom.getInstance("SHA1PRNG", "SUN");
+            // to properly initialize it needs to be used once
+            final byte[] ar = new byte[64];
+            secureRandom.nextBytes(ar);
+            Arrays.fill(ar, (byte) 0);
+            return secureRandom;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -1,7 +1,11 @@
 package de.paydirekt.client.security.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.Duration;
+import java.time.Instant;
+
 /**
  * An OAuth2 access token as defined in
  * <a href="https://tools.ietf.org/html/rfc6749#section-1.4">RFC 6749 Section 1.4</a>.
@@ -16,6 +20,7 @@ public class AccessToken {
 
     private final CharSequence access_token;
     private final Long expires_in;
+    private final Instant expiresAt;
 
     /**
      * Constructor.
@@ -27,6 +32,7 @@ public class AccessToken {
                        @JsonProperty("expires_in") Long expires_in) {
         this.access_token = access_token;
         this.expires_in = expires_in;
+        this.expiresAt = expires_in != null ? Instant.now().plusSeconds(expires_in) : Instant.MAX;
     }
 
     /**
@@ -48,4 +54,25 @@ public class AccessToken {
         return expires_in;
     }
 
+    /**
+     * The point in time the {@link #access_token} expires, derived from {@link #expires_in}
+     * relative to the time the token was received.
+     *
+     * @return the expiry time, {@link Instant#MAX} if the expiry is unknown.
+     */
+    @JsonIgnore
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Checks whether the token expires within the given period.
+     *
+     * @param period The period, starting now.
+     * @return true if the token is expired at the end of the period.
+     */
+    public boolean expiresWithin(Duration period) {
+        return !Instant.now().plus(period).isBefore(expiresAt);
+    }
+
 }
@@ -0,0 +1,161 @@
+package de.paydirekt.client.rest;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.util.EntityUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends requests via {@code java.net.http.HttpClient}, which negotiates HTTP/2 and multiplexes concurrent
+ * requests over a few connections, instead of opening one connection per request in flight.
+ * <p>
+ * Requires Java 11, thus this class is compiled separately and created reflectively by
+ * {@link RequestExecutorBuilder#withJdkHttpClient()}.
+ */
+final class JdkHttpTransport implements HttpTransport {
+
+    /**
+     * Headers set by the http client itself, which must not be set by the request.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final Duration requestTimeout;
+
+    /**
+     * Constructor.
+     *
+     * @param connectTimeout The timeout of establishing a connection, none if not positive.
+     * @param requestTimeout The timeout of a request until the response headers are received, none if not positive.
+     *                       Reading the response body is not limited by it.
+     */
+    JdkHttpTransport(Duration connectTimeout, Duration requestTimeout) {
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "paydirekt-http-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .executor(executor);
+        // like the Apache HttpClient, treat a timeout of zero as none, which the JDK http client rejects
+        if (isPositive(connectTimeout)) {
+            builder.connectTimeout(connectTimeout);
+        }
+        this.httpClient = builder.build();
+        this.requestTimeout = isPositive(requestTimeout) ? requestTimeout : null;
+    }
+
+    @Override
+    public TransportResponse execute(HttpRequestBase request) throws IOException {
+        try {
+            return new JdkResponse<>(httpClient.send(toJdkRequest(request), HttpResponse.BodyHandlers.ofInputStream()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("Interrupted while waiting for the response");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(HttpRequestBase request) {
+        HttpRequest jdkRequest;
+        try {
+            jdkRequest = toJdkRequest(request);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(jdkRequest, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(JdkResponse::new);
+    }
+
+    private HttpRequest toJdkRequest(HttpRequestBase request) throws IOException {
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.noBody();
+        String entityContentType = null;
+        if (request instanceof HttpEntityEnclosingRequest && ((HttpEntityEnclosingRequest) request).getEntity() != null) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            body = HttpRequest.BodyPublishers.ofByteArray(EntityUtils.toByteArray(entity));
+            entityContentType = entity.getContentType() != null ? entity.getContentType().getValue() : null;
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getURI())
+                .method(request.getMethod(), body);
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+        for (Header header : request.getAllHeaders()) {
+            if (!RESTRICTED_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                builder.header(header.getName(), header.getValue());
+            }
+        }
+        if (entityContentType != null && request.getFirstHeader("Content-Type") == null) {
+            builder.header("Content-Type", entityContentType);
+        }
+        return builder.build();
+    }
+
+    private static boolean isPositive(Duration timeout) {
+        return !timeout.isNegative() && !timeout.isZero();
+    }
+
+    @Override
+    public void close() {
+        // the http client has no close method before Java 21, its connections are closed when it becomes unreachable
+        executor.shutdown();
+    }
+
+    /**
+     * Response of the JDK http client.
+     */
+    private static final class JdkResponse<B> implements TransportResponse {
+
+        private final HttpResponse<B> response;
+
+        private JdkResponse(HttpResponse<B> response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String getContentType() {
+            return response.headers().firstValue("Content-Type").orElse(null);
+        }
+
+        @Override
+        public InputStream getBody() {
+            B body = response.body();
+            return body instanceof byte[] ? new ByteArrayInputStream((byte[]) body) : (InputStream) body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (response.body() instanceof InputStream) {
+                ((InputStream) response.body()).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package de.paydirekt.client.common;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Thread operations on Java 21 and later, which start a virtual thread per task.
+ * Created reflectively by {@link VirtualThreads}.
+ */
+final class VirtualThreadSupport implements VirtualThreads.ThreadSupport {
+
+    @Override
+    public boolean isVirtual(Thread thread) {
+        return thread.isVirtual();
+    }
+
+    @Override
+    public ExecutorService newThreadPerTaskExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name, 1).factory());
+    }
+
+}
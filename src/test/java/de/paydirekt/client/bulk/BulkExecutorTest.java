@@ -0,0 +1,247 @@
+package de.paydirekt.client.bulk;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit Test for {@link BulkExecutor}.
+ */
+public class BulkExecutorTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldReportResultsInOrderOfItems() {
+        BulkExecutor subject = BulkExecutorBuilder.aBulkExecutor().withExecutor(executor).withParallelism(4).build();
+
+        BulkReport<Integer, Integer> report = subject.execute("test", range(20), number -> {
+            sleep(20 - number);
+            return number * 10;
+        });
+
+        List<Integer> results = report.getResults().stream().map(BulkResult::getResult).collect(Collectors.toList());
+        assertThat(results, contains(IntStream.range(0, 20).map(number -> number * 10).boxed().toArray()));
+        assertThat(report.getSummary().getSucceeded(), is(20L));
+        assertThat(report.getSummary().getFailed(), is(0L));
+    }
+
+    @Test
+    public void shouldReportFailuresWithoutAbortingOtherItems() {
+        BulkExecutor subject = BulkExecutorBuilder.aBulkExecutor().withExecutor(executor).withParallelism(2).build();
+
+        BulkReport<Integer, Integer> report = subject.execute("test", range(6), number -> {
+            if (number % 2 == 1) {
+                throw new IllegalStateException("odd " + number);
+            }
+            return number;
+        });
+
+        List<Integer> failed = report.getFailures().stream().map(BulkResult::getItem).collect(Collectors.toList());
+        assertThat(failed, contains(1, 3, 5));
+        assertThat(report.getFailures().get(0).getFailure(), instanceOf(IllegalStateException.class));
+        assertThat(report.getSummary().getTotal(), is(6L));
+        assertThat(report.getSummary().getFailed(), is(3L));
+    }
+
+    @Test
+    public void shouldLimitOperationsInFlightAndPullItemsLazily() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        Iterator<Integer> items = IntStream.range(0, 40).boxed()
+                .peek(number -> maxAhead.accumulateAndGet(pulled.incrementAndGet() - completed.get(), Math::max))
+                .iterator();
+        BulkExecutor subject = BulkExecutorBuilder.aBulkExecutor().withExecutor(executor).withParallelism(3).build();
+
+        BulkSummary summary = subject.execute("test", items, number -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(2);
+            inFlight.decrementAndGet();
+            return number;
+        }, result -> completed.incrementAndGet());
+
+        assertThat(summary.getTotal(), is(40L));
+        assertThat(maxInFlight.get(), is(lessThanOrEqualTo(3)));
+        assertThat(maxAhead.get(), is(lessThanOrEqualTo(4)));
+    }
+
+    @Test
+    public void shouldPassResultsToConsumerOneAtATime() {
+        List<Integer> consumed = new CopyOnWriteArrayList<>();
+        AtomicInteger consuming = new AtomicInteger();
+        AtomicInteger maxConsuming = new AtomicInteger();
+        BulkExecutor subject = BulkExecutorBuilder.aBulkExecutor().withExecutor(executor).withParallelism(8).build();
+
+        subject.execute("test", range(50), number -> number, result -> {
+            maxConsuming.accumulateAndGet(consuming.incrementAndGet(), Math::max);
+            consumed.add(result.getResult());
+            consuming.decrementAndGet();
+        });
+
+        assertThat(consumed, containsInAnyOrder(IntStream.range(0, 50).boxed().toArray()));
+        assertThat(maxConsuming.get(), is(1));
+    }
+
+    @Test
+    public void shouldCountFailuresOfConsumerWithoutStallingOtherItems() {
+        List<Integer> consumed = new CopyOnWriteArrayList<>();
+        BulkExecutor subject = BulkExecutorBuilder.aBulkExecutor().withExecutor(executor).withParallelism(2).build();
+
+        BulkSummary summary = subject.execute("test", range(10), number -> number, result -> {
+            if (result.getResult() % 3 == 0) {
+                throw new IllegalStateException("not persisted");
+            }
+            consumed.add(result.getResult());
+        });
+
+        assertThat(summary.getSucceeded(), is(10L));
+        assertThat(summary.getConsumerFailures(), is(4L));
+        assertThat(consumed, containsInAnyOrder(1, 2, 4, 5, 7, 8));
+    }
+
+    @Test
+    public void shouldReportThroughputToMetrics() {
+        List<Boolean> items = new CopyOnWriteArrayList<>();
+        List<BulkSummary> summaries = new ArrayList<>();
+        BulkMetrics metrics = new BulkMetrics() {
+            @Override
+            public void itemCompleted(String operation, boolean successful, long durationNanos) {
+                items.add(successful);
+            }
+
+            @Override
+            public void bulkCompleted(BulkSummary summary) {
+                summaries.add(summary);
+            }
+        };
+        BulkExecutor subject = BulkExecutorBuilder.aBulkExecutor().withExecutor(executor).withMetrics(metrics).build();
+
+        subject.execute("test", range(5), number -> {
+            sleep(1);
+            return number;
+        });
+
+        assertThat(items, contains(true, true, true, true, true));
+        assertThat(summaries.size(), is(1));
+        assertThat(summaries.get(0).getOperation(), is("test"));
+        assertThat(summaries.get(0).getThroughput() > 0, is(true));
+    }
+
+    @Test
+    public void shouldStopSubmittingWhenInterrupted() {
+        AtomicInteger processed = new AtomicInteger();
+        BulkExecutor subject = BulkExecutorBuilder.aBulkExecutor().withExecutor(executor).withParallelism(1).build();
+
+        Thread.currentThread().interrupt();
+        try {
+            subject.execute("test", range(10), number -> processed.incrementAndGet());
+            fail("Expected CancellationException");
+        } catch (CancellationException expected) {
+            assertThat(Thread.interrupted(), is(true));
+        }
+
+        assertThat(processed.get(), is(0));
+    }
+
+    @Test
+    public void shouldProcessItemsWithSameKeyOneAfterAnotherInOrder() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger[] inFlightPerKey = {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+        AtomicInteger maxInFlightPerKey = new AtomicInteger();
+        List<List<Integer>> processedPerKey = new ArrayList<>();
+        for (int key = 0; key < 3; key++) {
+            processedPerKey.add(new CopyOnWriteArrayList<>());
+        }
+        BulkExecutor subject = BulkExecutorBuilder.aBulkExecutor().withExecutor(executor).withParallelism(6).build();
+
+        BulkSummary summary = subject.executeByKey("test", range(30), number -> number % 3, number -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            maxInFlightPerKey.accumulateAndGet(inFlightPerKey[number % 3].incrementAndGet(), Math::max);
+            processedPerKey.get(number % 3).add(number);
+            sleep(2);
+            inFlightPerKey[number % 3].decrementAndGet();
+            inFlight.decrementAndGet();
+            return number;
+        }, result -> {
+        });
+
+        assertThat(summary.getSucceeded(), is(30L));
+        assertThat(maxInFlightPerKey.get(), is(1));
+        assertThat(maxInFlight.get() > 1, is(true));
+        assertThat(processedPerKey.get(1), contains(IntStream.range(0, 10).map(number -> number * 3 + 1).boxed().toArray()));
+    }
+
+    @Test
+    public void shouldReportItemsWhoseKeyFailedAsFailures() {
+        BulkExecutor subject = BulkExecutorBuilder.aBulkExecutor().withExecutor(executor).withParallelism(2).build();
+
+        BulkReport<Integer, Integer> report = subject.executeByKey("test", range(4), number -> {
+            if (number == 2) {
+                throw new IllegalStateException("no key");
+            }
+            return number;
+        }, number -> number);
+
+        assertThat(report.getSummary().getSucceeded(), is(3L));
+        assertThat(report.getResults().get(2).getFailure(), instanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    public void shouldReportItemsAsFailedIfExecutorRejectsThem() {
+        ExecutorService shutDown = Executors.newSingleThreadExecutor();
+        shutDown.shutdown();
+        BulkExecutor subject = BulkExecutorBuilder.aBulkExecutor().withExecutor(shutDown).withParallelism(2).build();
+
+        BulkReport<Integer, Integer> report = subject.executeByKey("test", range(5), number -> number % 2, number -> number);
+
+        assertThat(report.getSummary().getFailed(), is(5L));
+    }
+
+    @Test
+    public void shouldShutDownOwnExecutorOnly() {
+        BulkExecutor shared = BulkExecutorBuilder.aBulkExecutor().withExecutor(executor).build();
+        shared.close();
+
+        assertThat(executor.isShutdown(), is(false));
+    }
+
+    private static Iterator<Integer> range(int count) {
+        return IntStream.range(0, count).boxed().iterator();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
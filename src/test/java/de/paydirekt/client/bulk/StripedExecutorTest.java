@@ -0,0 +1,96 @@
+package de.paydirekt.client.bulk;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit Test for {@link StripedExecutor}.
+ */
+public class StripedExecutorTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldRunTasksOfSameKeyOneAfterAnotherInOrder() throws Exception {
+        StripedExecutor subject = new StripedExecutor(executor, 4);
+        Map<Integer, AtomicInteger> inFlightByKey = new ConcurrentHashMap<>();
+        AtomicInteger maxInFlightByKey = new AtomicInteger();
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(40);
+
+        for (int i = 0; i < 40; i++) {
+            int number = i;
+            subject.execute(number % 4, task(() -> {
+                AtomicInteger inFlight = inFlightByKey.computeIfAbsent(number % 4, key -> new AtomicInteger());
+                maxInFlightByKey.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                sleep(1);
+                if (number % 4 == 1) {
+                    processed.add(number);
+                }
+                inFlight.decrementAndGet();
+                done.countDown();
+            }, null));
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(maxInFlightByKey.get(), is(1));
+        assertThat(processed, contains(1, 5, 9, 13, 17, 21, 25, 29, 33, 37));
+    }
+
+    @Test
+    public void shouldRejectTasksIfExecutorRejects() {
+        executor.shutdown();
+        StripedExecutor subject = new StripedExecutor(executor, 1);
+        List<RuntimeException> failures = new CopyOnWriteArrayList<>();
+
+        subject.execute("key", task(() -> {
+        }, failures));
+
+        assertThat(failures.size(), is(1));
+        assertThat(failures.get(0), instanceOf(RejectedExecutionException.class));
+    }
+
+    private static StripedExecutor.Task task(Runnable run, List<RuntimeException> failures) {
+        return new StripedExecutor.Task() {
+            @Override
+            public void run() {
+                run.run();
+            }
+
+            @Override
+            public void reject(RuntimeException failure) {
+                failures.add(failure);
+            }
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
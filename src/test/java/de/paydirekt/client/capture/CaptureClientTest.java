@@ -0,0 +1,181 @@
+package de.paydirekt.client.capture;
+
+import de.paydirekt.client.bulk.BulkExecutor;
+import de.paydirekt.client.bulk.BulkExecutorBuilder;
+import de.paydirekt.client.bulk.BulkReport;
+import de.paydirekt.client.capture.model.Capture;
+import de.paydirekt.client.capture.model.CaptureRequest;
+import de.paydirekt.client.capture.model.CaptureRequestBuilder;
+import de.paydirekt.client.checkout.model.Checkout;
+import de.paydirekt.client.rest.JsonCodec;
+import de.paydirekt.client.rest.RequestExecutor;
+import de.paydirekt.client.rest.RequestExecutorBuilder;
+import de.paydirekt.client.security.model.AccessToken;
+import de.paydirekt.client.testutil.StubHttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the idempotent and the bulk creation of captures of the {@link CaptureClient} against a local http server.
+ */
+public class CaptureClientTest {
+
+    private static final String CAPTURE = "{\"amount\":10,\"merchantCaptureReferenceNumber\":\"capture-1\",\"status\":\"SUCCESSFUL\"}";
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private StubHttpServer server;
+    private RequestExecutor requestExecutor;
+    private CaptureClient subject;
+
+    @Before
+    public void setUp() {
+        server = StubHttpServer.start();
+        requestExecutor = RequestExecutorBuilder.aRequestExecutor().build();
+        subject = new CaptureClient(requestExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        requestExecutor.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldNotCreateCaptureAgainIfAmbiguousAttemptWasApplied() throws IOException {
+        // the capture is created, but the response is lost
+        String capturesUrl = server.handle("/checkouts/1/captures", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestHeaders().getFirst("X-Request-ID"));
+            boolean post = "POST".equals(exchange.getRequestMethod());
+            byte[] body = (post ? "" : "{\"_embedded\":{\"captures\":[" + CAPTURE + "]}}").getBytes(UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/hal+json");
+            exchange.sendResponseHeaders(post ? 503 : 200, body.length == 0 ? -1 : body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+
+        Capture capture = subject.createCaptureIdempotently(captureRequest(), checkout(capturesUrl), new AccessToken("token", 3600L));
+
+        assertThat(capture.getMerchantCaptureReferenceNumber(), is("capture-1"));
+        assertThat(requests.size(), is(2));
+        assertThat(requests.get(0).startsWith("POST "), is(true));
+        assertThat(requests.get(1), is("GET null"));
+    }
+
+    @Test
+    public void shouldSendSameRequestIdOnEveryAttempt() throws IOException {
+        String capturesUrl = server.handle("/checkouts/2/captures", exchange -> {
+            boolean post = "POST".equals(exchange.getRequestMethod());
+            if (post) {
+                requests.add(exchange.getRequestHeaders().getFirst("X-Request-ID"));
+            }
+            boolean created = requests.size() > 1;
+            byte[] body = (post ? (created ? CAPTURE : "") : "{\"_embedded\":{\"captures\":[]}}").getBytes(UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/hal+json");
+            exchange.sendResponseHeaders(post && !created ? 503 : 200, body.length == 0 ? -1 : body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+
+        Capture capture = subject.createCaptureIdempotently(captureRequest(), checkout(capturesUrl), new AccessToken("token", 3600L));
+
+        assertThat(capture.getMerchantCaptureReferenceNumber(), is("capture-1"));
+        assertThat(requests.size(), is(2));
+        assertThat(requests, contains(requests.get(0), requests.get(0)));
+    }
+
+    @Test
+    public void shouldNotCreateCaptureAgainIfCapturesCannotBeSearched() throws IOException {
+        String capturesUrl = server.handle("/checkouts/4/captures", exchange -> {
+            requests.add(exchange.getRequestMethod());
+            boolean post = "POST".equals(exchange.getRequestMethod());
+            byte[] body = (post ? "" : "{}").getBytes(UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/hal+json");
+            exchange.sendResponseHeaders(post ? 503 : 200, body.length == 0 ? -1 : body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+
+        try {
+            subject.createCaptureIdempotently(captureRequest(), checkout(capturesUrl), new AccessToken("token", 3600L));
+            fail("should fail");
+        } catch (IllegalStateException e) {
+            assertThat(requests, contains("POST", "GET"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireReferenceNumber() throws IOException {
+        CaptureRequest captureRequest = CaptureRequestBuilder.aCaptureRequest()
+                .withAmount(BigDecimal.TEN)
+                .build();
+
+        subject.createCaptureIdempotently(captureRequest, checkout(server.url("/checkouts/3/captures")), new AccessToken("token", 3600L));
+    }
+
+    @Test
+    public void shouldCreateCapturesInBulkWithoutAbortingOnFailures() throws IOException {
+        List<CaptureItem> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            boolean fails = i % 5 == 4;
+            String capturesUrl = server.handle("/checkouts/bulk-" + i + "/captures", exchange -> {
+                requests.add(exchange.getRequestHeaders().getFirst("Authorization"));
+                byte[] body = (fails ? "{}" : CAPTURE).getBytes(UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/hal+json");
+                exchange.sendResponseHeaders(fails ? 400 : 200, body.length == 0 ? -1 : body.length);
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(body);
+                }
+            });
+            items.add(new CaptureItem(checkout(capturesUrl), captureRequest()));
+        }
+
+        BulkReport<CaptureItem, Capture> report;
+        try (BulkExecutor bulkExecutor = BulkExecutorBuilder.aBulkExecutor().withParallelism(4).build()) {
+            report = subject.createCaptures(items, new AccessToken("token", 3600L), bulkExecutor);
+        }
+
+        assertThat(report.getSummary().getSucceeded(), is(8L));
+        assertThat(report.getSummary().getFailed(), is(2L));
+        assertThat(report.getResults().size(), is(10));
+        assertThat(report.getResults().get(0).getItem(), is(items.get(0)));
+        assertThat(report.getResults().get(0).getResult().getMerchantCaptureReferenceNumber(), is("capture-1"));
+        assertThat(report.getResults().get(4).getItem(), is(items.get(4)));
+        assertThat(report.getResults().get(4).getResult(), is(nullValue()));
+        assertThat(report.getFailures().size(), is(2));
+        assertThat(requests.size(), is(10));
+        assertThat(new HashSet<>(requests).size(), is(1));
+    }
+
+    private static CaptureRequest captureRequest() {
+        return CaptureRequestBuilder.aCaptureRequest()
+                .withAmount(BigDecimal.TEN)
+                .withMerchantCaptureReferenceNumber("capture-1")
+                .build();
+    }
+
+    private static Checkout checkout(String capturesUrl) throws IOException {
+        return JsonCodec.getDefault().readerFor(Checkout.class)
+                .readValue("{\"items\":[],\"_links\":{\"captures\":{\"href\":\"" + capturesUrl + "\"}}}");
+    }
+
+}
@@ -0,0 +1,112 @@
+package de.paydirekt.client.common;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Unit Test for {@link ThreadAwarePool}.
+ */
+public class ThreadAwarePoolTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Test
+    public void shouldKeepOneInstancePerPlatformThread() throws Exception {
+        ThreadAwarePool<Object> subject = new ThreadAwarePool<>(this::newInstance);
+
+        Object first = subject.acquire();
+        Object second = subject.acquire();
+        subject.release(second);
+
+        Object[] otherThread = new Object[1];
+        Thread thread = new Thread(() -> otherThread[0] = subject.acquire());
+        thread.start();
+        thread.join();
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(otherThread[0], is(not(sameInstance(first))));
+        assertThat(created.get(), is(2));
+    }
+
+    @Test
+    public void shouldReuseReleasedInstancesOnVirtualThreads() throws Exception {
+        assumeTrue("requires Java 21", VirtualThreads.isSupported());
+        ThreadAwarePool<Object> subject = new ThreadAwarePool<>(this::newInstance, 1);
+
+        Object first = onVirtualThread(() -> {
+            Object instance = subject.acquire();
+            subject.release(instance);
+            return instance;
+        });
+        Object second = onVirtualThread(() -> {
+            Object instance = subject.acquire();
+            subject.release(instance);
+            return instance;
+        });
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(created.get(), is(1));
+    }
+
+    @Test
+    public void shouldNotShareInstancesBetweenConcurrentVirtualThreads() throws Exception {
+        assumeTrue("requires Java 21", VirtualThreads.isSupported());
+        ThreadAwarePool<Object> subject = new ThreadAwarePool<>(this::newInstance, 1);
+
+        Object first = onVirtualThread(subject::acquire);
+        Object second = onVirtualThread(subject::acquire);
+
+        assertThat(second, is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void shouldDiscardInstancesBeyondMaxIdle() throws Exception {
+        assumeTrue("requires Java 21", VirtualThreads.isSupported());
+        ThreadAwarePool<Object> subject = new ThreadAwarePool<>(this::newInstance, 2);
+
+        List<Object> released = onVirtualThread(() -> {
+            List<Object> instances = acquire(subject, 4);
+            instances.forEach(subject::release);
+            return instances;
+        });
+        List<Object> reacquired = onVirtualThread(() -> acquire(subject, 4));
+
+        reacquired.retainAll(released);
+        assertThat(reacquired.size(), is(2));
+        assertThat(created.get(), is(6));
+    }
+
+    private static List<Object> acquire(ThreadAwarePool<Object> pool, int count) {
+        List<Object> instances = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            instances.add(pool.acquire());
+        }
+        return instances;
+    }
+
+    private static <T> T onVirtualThread(Callable<T> task) throws Exception {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        try {
+            return executor.submit(task).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Object newInstance() {
+        created.incrementAndGet();
+        return new Object();
+    }
+
+}
@@ -0,0 +1,148 @@
+package de.paydirekt.client.refund;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import de.paydirekt.client.bulk.BulkExecutor;
+import de.paydirekt.client.bulk.BulkExecutorBuilder;
+import de.paydirekt.client.bulk.BulkReport;
+import de.paydirekt.client.bulk.BulkSummary;
+import de.paydirekt.client.checkout.model.Checkout;
+import de.paydirekt.client.refund.model.Refund;
+import de.paydirekt.client.refund.model.RefundRequest;
+import de.paydirekt.client.refund.model.RefundRequestBuilder;
+import de.paydirekt.client.rest.JsonCodec;
+import de.paydirekt.client.rest.RequestExecutor;
+import de.paydirekt.client.rest.RequestExecutorBuilder;
+import de.paydirekt.client.security.model.AccessToken;
+import de.paydirekt.client.testutil.StubHttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests the bulk creation of refunds of the {@link RefundClient} against a local http server.
+ */
+public class RefundClientTest {
+
+    private final Map<String, List<String>> refundsPerCheckout = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlightPerCheckout = new AtomicInteger();
+
+    private StubHttpServer server;
+    private RequestExecutor requestExecutor;
+    private RefundClient subject;
+
+    @Before
+    public void setUp() {
+        server = StubHttpServer.start();
+        requestExecutor = RequestExecutorBuilder.aRequestExecutor().build();
+        subject = new RefundClient(requestExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        requestExecutor.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldCreateRefundsOfSameCheckoutOneAfterAnother() throws IOException {
+        List<RefundItem> items = new ArrayList<>();
+        for (int refund = 0; refund < 4; refund++) {
+            for (int checkout = 0; checkout < 3; checkout++) {
+                items.add(new RefundItem(checkout(checkout), refundRequest(checkout + "-" + refund)));
+            }
+        }
+
+        BulkSummary summary;
+        try (BulkExecutor bulkExecutor = BulkExecutorBuilder.aBulkExecutor().withParallelism(6).build()) {
+            summary = subject.createRefunds(items, new AccessToken("token", 3600L), bulkExecutor).getSummary();
+        }
+
+        assertThat(summary.getSucceeded(), is(12L));
+        assertThat(maxInFlightPerCheckout.get(), is(1));
+        assertThat(maxInFlight.get() > 1, is(true));
+        assertThat(refundsPerCheckout.get("/checkouts/0/refunds"), contains("0-0", "0-1", "0-2", "0-3"));
+        assertThat(refundsPerCheckout.get("/checkouts/2/refunds"), contains("2-0", "2-1", "2-2", "2-3"));
+    }
+
+    @Test
+    public void shouldReportRefundOfCheckoutWithoutSelfLinkAsFailed() throws IOException {
+        Checkout withoutSelfLink = JsonCodec.getDefault().readerFor(Checkout.class).readValue("{\"items\":[],\"_links\":{}}");
+        List<RefundItem> items = new ArrayList<>();
+        items.add(new RefundItem(checkout(0), refundRequest("0-0")));
+        items.add(new RefundItem(withoutSelfLink, refundRequest("unknown")));
+
+        BulkReport<RefundItem, Refund> report;
+        try (BulkExecutor bulkExecutor = BulkExecutorBuilder.aBulkExecutor().build()) {
+            report = subject.createRefunds(items, new AccessToken("token", 3600L), bulkExecutor);
+        }
+
+        assertThat(report.getResults().get(0).getResult().getMerchantRefundReferenceNumber(), is("0-0"));
+        assertThat(report.getResults().get(1).getFailure(), instanceOf(IllegalStateException.class));
+    }
+
+    private Checkout checkout(int number) throws IOException {
+        String path = "/checkouts/" + number + "/refunds";
+        refundsPerCheckout.computeIfAbsent(path, key -> {
+            AtomicInteger inFlightOfCheckout = new AtomicInteger();
+            server.handle(path, exchange -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                maxInFlightPerCheckout.accumulateAndGet(inFlightOfCheckout.incrementAndGet(), Math::max);
+                JsonNode request;
+                try (InputStream requestBody = exchange.getRequestBody()) {
+                    request = JsonCodec.getDefault().readerFor(JsonNode.class).readValue(requestBody);
+                }
+                String referenceNumber = request.path("merchantRefundReferenceNumber").asText();
+                refundsPerCheckout.get(path).add(referenceNumber);
+                sleep(10);
+                byte[] body = ("{\"amount\":1,\"merchantRefundReferenceNumber\":\"" + referenceNumber + "\",\"status\":\"SUCCESSFUL\"}").getBytes(UTF_8);
+                inFlightOfCheckout.decrementAndGet();
+                inFlight.decrementAndGet();
+                exchange.getResponseHeaders().add("Content-Type", "application/hal+json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(body);
+                }
+            });
+            return new CopyOnWriteArrayList<>();
+        });
+        String refundsUrl = server.url(path);
+        String selfUrl = server.url("/checkouts/" + number);
+        return JsonCodec.getDefault().readerFor(Checkout.class)
+                .readValue("{\"items\":[],\"_links\":{\"self\":{\"href\":\"" + selfUrl + "\"},\"refunds\":{\"href\":\"" + refundsUrl + "\"}}}");
+    }
+
+    private static RefundRequest refundRequest(String referenceNumber) {
+        return RefundRequestBuilder.aRefundRequest()
+                .withAmount(BigDecimal.ONE)
+                .withMerchantRefundReferenceNumber(referenceNumber)
+                .build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
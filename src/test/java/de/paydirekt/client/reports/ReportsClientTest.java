@@ -0,0 +1,217 @@
+package de.paydirekt.client.reports;
+
+import de.paydirekt.client.reports.model.Transaction;
+import de.paydirekt.client.reports.model.TransactionReportQueryParameters;
+import de.paydirekt.client.rest.RequestExecutor;
+import de.paydirekt.client.rest.RequestExecutorBuilder;
+import de.paydirekt.client.security.model.AccessToken;
+import de.paydirekt.client.testutil.StubHttpServer;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests the functionality of the {@link ReportsClient} against a local http server.
+ */
+public class ReportsClientTest {
+
+    private static final String CSV_REPORT = "checkoutId,transactionAmount\n"
+            + "checkout-1,10.00\n"
+            + "checkout-2,20.00\n"
+            + "checkout-3,30.00\n";
+    private static final String JSON_REPORT = "{\"_links\":{\"self\":{\"href\":\"https://localhost/reports\"}},"
+            + "\"transactions\":["
+            + "{\"checkoutId\":\"checkout-1\",\"transactionAmount\":\"10.00\",\"unknownField\":{\"nested\":[1,2]}},"
+            + "{\"checkoutId\":\"checkout-2\",\"transactionAmount\":\"20.00\"}"
+            + "],\"trailer\":true}";
+
+    private StubHttpServer server;
+    private RequestExecutor requestExecutor;
+    private ReportsClient subject;
+
+    @Before
+    public void setUp() {
+        server = StubHttpServer.start();
+        requestExecutor = RequestExecutorBuilder.aRequestExecutor().build();
+        subject = new ReportsClient(server.respond("/reports/transactions", 200, CSV_REPORT), requestExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        requestExecutor.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldStreamCsvRecords() {
+        try (Stream<CSVRecord> csvRecords = subject.streamTransactionsAsCSV(new TransactionReportQueryParameters(), accessToken())) {
+            Iterator<CSVRecord> iterator = csvRecords.iterator();
+
+            assertThat(iterator.next().get("checkoutId"), is("checkout-1"));
+            assertThat(requestExecutor.getPoolStats().getLeased(), is(1));
+            assertThat(iterator.next().get("transactionAmount"), is("20.00"));
+        }
+
+        assertThat(requestExecutor.getPoolStats().getLeased(), is(0));
+    }
+
+    @Test
+    public void shouldPassCsvRecordsToConsumer() {
+        List<String> checkoutIds = new ArrayList<>();
+
+        subject.forEachTransactionAsCSV(new TransactionReportQueryParameters(), accessToken(),
+                csvRecord -> checkoutIds.add(csvRecord.get("checkoutId")));
+
+        assertThat(checkoutIds, hasSize(3));
+        assertThat(checkoutIds.get(2), is("checkout-3"));
+        assertThat(requestExecutor.getPoolStats().getLeased(), is(0));
+    }
+
+    @Test
+    public void shouldCollectCsvRecords() {
+        List<CSVRecord> csvRecords = subject.getTransactionsAsCSV(new TransactionReportQueryParameters(), accessToken());
+
+        assertThat(csvRecords, hasSize(3));
+        assertThat(csvRecords.get(0).get("transactionAmount"), is("10.00"));
+    }
+
+    @Test
+    public void shouldDecodeCsvRecordsWithCharsetOfResponse() {
+        ReportsClient latin1ReportsClient = new ReportsClient(server.handle("/reports/latin1", exchange -> {
+            byte[] bytes = "checkoutId,customerName\ncheckout-1,M\u00fcller\n".getBytes(ISO_8859_1);
+            exchange.getResponseHeaders().add("Content-Type", "text/csv; charset=ISO-8859-1");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+        }), requestExecutor);
+
+        try (Stream<CSVRecord> csvRecords = latin1ReportsClient.streamTransactionsAsCSV(new TransactionReportQueryParameters(), accessToken())) {
+            assertThat(csvRecords.map(csvRecord -> csvRecord.get("customerName")).collect(Collectors.toList()),
+                    contains("M\u00fcller"));
+        }
+    }
+
+    @Test
+    public void shouldStreamTransactions() {
+        ReportsClient jsonReportsClient = new ReportsClient(server.respond("/reports/json", 200, JSON_REPORT), requestExecutor);
+
+        try (Stream<Transaction> transactions = jsonReportsClient.streamTransactions(new TransactionReportQueryParameters(), accessToken())) {
+            assertThat(transactions.map(Transaction::getCheckoutId).collect(Collectors.toList()),
+                    contains("checkout-1", "checkout-2"));
+        }
+
+        assertThat(requestExecutor.getPoolStats().getLeased(), is(0));
+    }
+
+    @Test
+    public void shouldStreamNoTransactionsIfReportHasNone() {
+        ReportsClient jsonReportsClient = new ReportsClient(server.respond("/reports/empty", 200, "{\"_links\":{}}"), requestExecutor);
+        List<Transaction> transactions = new ArrayList<>();
+
+        jsonReportsClient.forEachTransaction(new TransactionReportQueryParameters(), accessToken(), transactions::add);
+
+        assertThat(transactions, empty());
+        assertThat(requestExecutor.getPoolStats().getLeased(), is(0));
+    }
+
+    @Test
+    public void shouldStreamSlicesInTransactionDateOrder() {
+        ReportsClient slicedReportsClient = new ReportsClient(server.respond("/reports/sliced", 200, uri -> {
+            // two transactions per day, in reverse order
+            String day = uri.getQuery().substring("from=".length(), "from=2016-03-0X".length());
+            return "{\"transactions\":["
+                    + "{\"checkoutId\":\"" + day + "-b\",\"transactionDate\":\"" + day + "T12:00:00Z\"},"
+                    + "{\"checkoutId\":\"" + day + "-a\",\"transactionDate\":\"" + day + "T08:00:00Z\"}"
+                    + "]}";
+        }), requestExecutor);
+        TransactionReportQueryParameters queryParameters = new TransactionReportQueryParameters(
+                ZonedDateTime.parse("2016-03-01T00:00:00Z"), ZonedDateTime.parse("2016-03-04T00:00:00Z"), emptyList());
+
+        try (Stream<Transaction> transactions = slicedReportsClient.streamTransactionsInSlices(
+                queryParameters, accessToken(), Duration.ofDays(1), 2)) {
+            assertThat(transactions.map(Transaction::getCheckoutId).collect(Collectors.toList()), contains(
+                    "2016-03-01-a", "2016-03-01-b",
+                    "2016-03-02-a", "2016-03-02-b",
+                    "2016-03-03-a", "2016-03-03-b"));
+        }
+    }
+
+    @Test
+    public void shouldSplitTimeRangeIntoSlices() {
+        TransactionReportQueryParameters queryParameters = new TransactionReportQueryParameters(
+                ZonedDateTime.parse("2016-03-01T00:00:00Z"), ZonedDateTime.parse("2016-03-01T02:30:00Z"), emptyList());
+
+        List<TransactionReportQueryParameters> slices = queryParameters.split(Duration.ofHours(1));
+
+        assertThat(slices, hasSize(3));
+        assertThat(slices.get(1).getFrom().get(), is(ZonedDateTime.parse("2016-03-01T01:00:00Z")));
+        assertThat(slices.get(2).getTo().get(), is(ZonedDateTime.parse("2016-03-01T02:30:00Z")));
+    }
+
+    @Test
+    public void shouldSplitTimeRangeIntoDisjointSlices() {
+        TransactionReportQueryParameters queryParameters = new TransactionReportQueryParameters(
+                ZonedDateTime.parse("2016-03-01T00:00:00Z"), ZonedDateTime.parse("2016-03-01T02:00:00Z"), emptyList());
+
+        List<TransactionReportQueryParameters> slices = queryParameters.split(Duration.ofHours(1));
+
+        assertThat(slices, hasSize(2));
+        assertThat(slices.get(0).getTo().get(), is(ZonedDateTime.parse("2016-03-01T00:59:59.999Z")));
+        assertThat(slices.get(1).getFrom().get(), is(ZonedDateTime.parse("2016-03-01T01:00:00Z")));
+        assertThat(slices.get(1).getTo().get(), is(ZonedDateTime.parse("2016-03-01T02:00:00Z")));
+    }
+
+    @Test
+    public void shouldStreamTransactionOnSliceBoundaryOnce() {
+        List<String> transactionDates = asList("2016-03-01T00:30:00Z", "2016-03-01T01:00:00Z", "2016-03-01T01:30:00Z");
+        ReportsClient slicedReportsClient = new ReportsClient(server.respond("/reports/boundary", 200, uri -> {
+            // the API includes transactions stamped exactly on from and to
+            Map<String, ZonedDateTime> range = new HashMap<>();
+            for (String parameter : uri.getQuery().split("&")) {
+                String[] nameAndValue = parameter.split("=", 2);
+                if (nameAndValue[0].equals("from") || nameAndValue[0].equals("to")) {
+                    range.put(nameAndValue[0], ZonedDateTime.parse(nameAndValue[1]));
+                }
+            }
+            return transactionDates.stream()
+                    .filter(date -> !ZonedDateTime.parse(date).isBefore(range.get("from")) && !ZonedDateTime.parse(date).isAfter(range.get("to")))
+                    .map(date -> "{\"checkoutId\":\"" + date + "\",\"transactionDate\":\"" + date + "\"}")
+                    .collect(Collectors.joining(",", "{\"transactions\":[", "]}"));
+        }), requestExecutor);
+        TransactionReportQueryParameters queryParameters = new TransactionReportQueryParameters(
+                ZonedDateTime.parse("2016-03-01T00:00:00Z"), ZonedDateTime.parse("2016-03-01T02:00:00Z"), emptyList());
+
+        try (Stream<Transaction> transactions = slicedReportsClient.streamTransactionsInSlices(
+                queryParameters, accessToken(), Duration.ofHours(1), 2)) {
+            assertThat(transactions.map(Transaction::getCheckoutId).collect(Collectors.toList()),
+                    contains(transactionDates.toArray()));
+        }
+    }
+
+    private static AccessToken accessToken() {
+        return new AccessToken("token", 3600L);
+    }
+
+}
@@ -0,0 +1,155 @@
+package de.paydirekt.client.rest;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit Test for {@link CircuitBreaker}.
+ */
+public class CircuitBreakerTest {
+
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+    private static final long OPEN_DURATION = TimeUnit.SECONDS.toNanos(30);
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker subject = new CircuitBreaker("checkout", 0.5, 0.5, SLOW, 10, 4, OPEN_DURATION, 2, now::get);
+
+    @Test
+    public void shouldStayClosedBelowMinimumNumberOfCalls() {
+        call(true, 0);
+        call(true, 0);
+        call(true, 0);
+
+        assertThat(subject.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void shouldOpenAtFailureRateThreshold() {
+        call(false, 0);
+        call(true, 0);
+        call(false, 0);
+        call(true, 0);
+
+        assertThat(subject.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(subject.tryAcquirePermission().isPermitted(), is(false));
+    }
+
+    @Test
+    public void shouldOpenAtSlowCallRateThreshold() {
+        call(false, SLOW);
+        call(false, 0);
+        call(false, SLOW);
+        call(false, 0);
+
+        assertThat(subject.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    public void shouldForgetCallsOutsideOfTheWindow() {
+        call(true, 0);
+        for (int i = 0; i < 9; i++) {
+            call(false, 0);
+        }
+        call(true, 0);
+        call(true, 0);
+        call(true, 0);
+        call(true, 0);
+
+        // 4 of the last 10 calls failed
+        assertThat(subject.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void shouldPermitProbingCallsAfterOpenDuration() {
+        open();
+
+        now.addAndGet(OPEN_DURATION);
+
+        assertThat(subject.tryAcquirePermission().isPermitted(), is(true));
+        assertThat(subject.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        assertThat(subject.tryAcquirePermission().isPermitted(), is(true));
+        assertThat(subject.tryAcquirePermission().isPermitted(), is(false));
+    }
+
+    @Test
+    public void shouldCloseAfterSuccessfulProbingCalls() {
+        open();
+        now.addAndGet(OPEN_DURATION);
+
+        call(false, 0);
+        call(false, 0);
+
+        assertThat(subject.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void shouldReopenAfterFailedProbingCall() {
+        open();
+        now.addAndGet(OPEN_DURATION);
+
+        call(false, 0);
+        call(true, 0);
+
+        assertThat(subject.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(subject.tryAcquirePermission().isPermitted(), is(false));
+    }
+
+    @Test
+    public void shouldReturnPermissionOfCallNotExecuted() {
+        open();
+        now.addAndGet(OPEN_DURATION);
+
+        assertThat(subject.tryAcquirePermission().isPermitted(), is(true));
+        CircuitBreaker.Permission notExecuted = subject.tryAcquirePermission();
+        notExecuted.release();
+
+        assertThat(subject.tryAcquirePermission().isPermitted(), is(true));
+    }
+
+    @Test
+    public void shouldIgnoreResultOfCallPermittedBeforeStateChanged() {
+        CircuitBreaker.Permission permittedWhileClosed = subject.tryAcquirePermission();
+        open();
+        now.addAndGet(OPEN_DURATION);
+
+        call(false, 0);
+        permittedWhileClosed.onResult(false, 0);
+
+        // the call permitted while closed is no probing call
+        assertThat(subject.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        call(false, 0);
+        assertThat(subject.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void shouldIgnoreReleaseOfCallPermittedBeforeStateChanged() {
+        CircuitBreaker.Permission permittedWhileClosed = subject.tryAcquirePermission();
+        open();
+        now.addAndGet(OPEN_DURATION);
+        assertThat(subject.tryAcquirePermission().isPermitted(), is(true));
+        assertThat(subject.tryAcquirePermission().isPermitted(), is(true));
+
+        permittedWhileClosed.release();
+
+        assertThat(subject.tryAcquirePermission().isPermitted(), is(false));
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(true, 0);
+        }
+        assertThat(subject.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    private void call(boolean failed, long durationNanos) {
+        CircuitBreaker.Permission permission = subject.tryAcquirePermission();
+        assertThat(permission.isPermitted(), is(true));
+        permission.onResult(failed, durationNanos);
+    }
+
+}
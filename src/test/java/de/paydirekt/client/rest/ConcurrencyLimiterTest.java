@@ -0,0 +1,194 @@
+package de.paydirekt.client.rest;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit Test for {@link ConcurrencyLimiter}.
+ */
+public class ConcurrencyLimiterTest {
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void shouldQueueRequestsBeyondLimit() throws Exception {
+        ConcurrencyLimiter subject = limiter(2, 10);
+
+        ConcurrencyLimiter.Permit first = subject.acquire("checkout.create");
+        subject.acquire("checkout.create");
+        CompletableFuture<ConcurrencyLimiter.Permit> queued = subject.acquireAsync("checkout.create");
+
+        assertThat(queued.isDone(), is(false));
+        assertThat(subject.getInFlight(), is(2));
+        assertThat(subject.getQueued(), is(1));
+
+        first.onResult(200, LATENCY);
+
+        assertThat(queued.get(1, TimeUnit.SECONDS).getQueuedNanos(), greaterThan(0L));
+        assertThat(subject.getInFlight(), is(2));
+        assertThat(subject.getQueued(), is(0));
+    }
+
+    @Test
+    public void shouldRejectRequestsIfQueueIsFull() throws Exception {
+        ConcurrencyLimiter subject = limiter(1, 0);
+        subject.acquire("capture.create");
+
+        try {
+            subject.acquireAsync("capture.create").get();
+            fail("should fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(CallRejectedException.class));
+            assertThat(((CallRejectedException) e.getCause()).getReason(), is(CallRejectedException.Reason.LIMIT_EXCEEDED));
+        }
+        assertThat(subject.getRejected(), is(1L));
+    }
+
+    @Test
+    public void shouldRejectBlockingRequestsAfterMaxWait() {
+        ConcurrencyLimiter subject = limiter(1, 10);
+        ConcurrencyLimiter.Permit permit = subject.acquire("refund.create");
+
+        try {
+            subject.acquire("refund.create");
+            fail("should fail");
+        } catch (CallRejectedException e) {
+            assertThat(e.getReason(), is(CallRejectedException.Reason.LIMIT_EXCEEDED));
+        }
+        assertThat(subject.getQueued(), is(0));
+
+        permit.release();
+        assertThat(subject.getInFlight(), is(0));
+    }
+
+    @Test
+    public void shouldDecreaseLimitOnThrottling() {
+        ConcurrencyLimiter subject = limiter(10, 10);
+
+        subject.acquire("checkout.get").onResult(503, LATENCY);
+
+        assertThat(subject.getLimit(), is(9));
+    }
+
+    @Test
+    public void shouldDecreaseLimitOnceForConcurrentThrottling() {
+        ConcurrencyLimiter subject = limiter(10, 10);
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            permits.add(subject.acquire("checkout.get"));
+        }
+
+        permits.forEach(permit -> permit.onResult(503, LATENCY));
+
+        assertThat(subject.getLimit(), is(9));
+
+        subject.acquire("checkout.get").onResult(503, LATENCY);
+
+        assertThat(subject.getLimit(), is(8));
+    }
+
+    @Test
+    public void shouldDecreaseLimitOnConsecutiveHighLatencies() {
+        ConcurrencyLimiter subject = limiter(10, 10);
+        subject.acquire("checkout.get").onResult(200, LATENCY);
+
+        for (int i = 0; i < ConcurrencyLimiter.SLOW_SAMPLES; i++) {
+            subject.acquire("checkout.get").onResult(200, 3 * LATENCY);
+        }
+
+        assertThat(subject.getLimit(), is(9));
+    }
+
+    @Test
+    public void shouldIgnoreSingleLatencyOutlier() {
+        ConcurrencyLimiter subject = limiter(10, 10);
+        subject.acquire("checkout.get").onResult(200, LATENCY);
+
+        subject.acquire("checkout.get").onResult(200, 30 * LATENCY);
+        subject.acquire("checkout.get").onResult(200, LATENCY);
+
+        assertThat(subject.getLimit(), is(10));
+    }
+
+    @Test
+    public void shouldRecoverLimitAfterPermanentLatencyRise() {
+        ConcurrencyLimiter subject = limiter(20, 10);
+        for (int i = 0; i < 200; i++) {
+            subject.acquire("checkout.get").onResult(200, LATENCY);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            subject.acquire("checkout.get").onResult(200, 5 * LATENCY / 2);
+        }
+        assertThat(subject.getLimit(), is(lessThan(20)));
+
+        for (int round = 0; round < 100; round++) {
+            List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = subject.getLimit(); i > 0; i--) {
+                permits.add(subject.acquire("checkout.get"));
+            }
+            permits.forEach(permit -> permit.onResult(200, 5 * LATENCY / 2));
+        }
+
+        assertThat(subject.getLimit(), is(greaterThanOrEqualTo(20)));
+    }
+
+    @Test
+    public void shouldIncreaseLimitWhileUtilized() {
+        ConcurrencyLimiter subject = limiter(2, 10);
+
+        for (int i = 0; i < 10; i++) {
+            ConcurrencyLimiter.Permit first = subject.acquire("checkout.get");
+            ConcurrencyLimiter.Permit second = subject.acquire("checkout.get");
+            first.onResult(200, LATENCY);
+            second.onResult(200, LATENCY);
+        }
+
+        assertThat(subject.getLimit(), greaterThan(2));
+    }
+
+    @Test
+    public void shouldNotIncreaseLimitWithoutLoad() {
+        ConcurrencyLimiter subject = limiter(10, 10);
+
+        for (int i = 0; i < 100; i++) {
+            subject.acquire("checkout.get").onResult(200, LATENCY);
+        }
+
+        assertThat(subject.getLimit(), is(10));
+    }
+
+    @Test
+    public void shouldNotLimitNone() {
+        for (int i = 0; i < 100; i++) {
+            ConcurrencyLimiter.NONE.acquire("checkout.get");
+        }
+
+        assertThat(ConcurrencyLimiter.NONE.getInFlight(), is(0));
+        assertThat(ConcurrencyLimiter.NONE.getLimit(), is(Integer.MAX_VALUE));
+    }
+
+    private static ConcurrencyLimiter limiter(int initialLimit, int maxQueued) {
+        return ConcurrencyLimiterBuilder.aConcurrencyLimiter()
+                .withInitialLimit(initialLimit)
+                .withLimitRange(1, 100)
+                .withMaxQueued(maxQueued)
+                .withMaxWait(Duration.ofMillis(50))
+                .build();
+    }
+
+}
@@ -0,0 +1,54 @@
+package de.paydirekt.client.rest;
+
+import org.junit.Test;
+
+import java.net.URI;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit Test for {@link Endpoints}.
+ */
+public class EndpointsTest {
+
+    private static final String CHECKOUTS = "https://api.sandbox.paydirekt.de/api/checkout/v1/checkouts";
+    private static final String CHECKOUT = CHECKOUTS + "/6be6a80d-ef67-47c1-a5a8-3e8bdc7dcf7a";
+
+    @Test
+    public void shouldNameCheckoutEndpoints() {
+        assertThat(Endpoints.nameOf("POST", URI.create(CHECKOUTS)), is(Endpoints.CHECKOUT_CREATE));
+        assertThat(Endpoints.nameOf("GET", URI.create(CHECKOUT)), is(Endpoints.CHECKOUT_GET));
+        assertThat(Endpoints.nameOf("POST", URI.create(CHECKOUT + "/close")), is(Endpoints.CHECKOUT_CLOSE));
+    }
+
+    @Test
+    public void shouldNameCaptureAndRefundEndpoints() {
+        assertThat(Endpoints.nameOf("POST", URI.create(CHECKOUT + "/captures")), is(Endpoints.CAPTURE_CREATE));
+        assertThat(Endpoints.nameOf("GET", URI.create(CHECKOUT + "/captures/1234/")), is(Endpoints.CAPTURE_GET));
+        assertThat(Endpoints.nameOf("POST", URI.create(CHECKOUT + "/refunds")), is(Endpoints.REFUND_CREATE));
+        assertThat(Endpoints.nameOf("GET", URI.create(CHECKOUT + "/refunds/1234")), is(Endpoints.REFUND_GET));
+    }
+
+    @Test
+    public void shouldNameTokenAndReportEndpoints() {
+        assertThat(Endpoints.nameOf("POST", URI.create(EndpointProperties.SANDBOX_TOKEN_OBTAIN_ENDPOINT)), is(Endpoints.TOKEN_OBTAIN));
+        assertThat(Endpoints.nameOf("GET", URI.create(EndpointProperties.SANDBOX_TRANSACTION_REPORTS_ENDPOINT + "?from=2016-01-01T00:00:00Z")),
+                is(Endpoints.REPORTS_TRANSACTIONS));
+    }
+
+    @Test
+    public void shouldNameUnknownEndpointsOther() {
+        assertThat(Endpoints.nameOf("GET", URI.create("http://localhost/token")), is(Endpoints.OTHER));
+        assertThat(Endpoints.nameOf("DELETE", URI.create(CHECKOUTS)), is(Endpoints.OTHER));
+    }
+
+    @Test
+    public void shouldDetermineFamilies() {
+        assertThat(Endpoints.familyOf(Endpoints.CHECKOUT_CLOSE), is("checkout"));
+        assertThat(Endpoints.familyOf(Endpoints.CAPTURE_CREATE), is("capture"));
+        assertThat(Endpoints.familyOf(Endpoints.TOKEN_OBTAIN), is("token"));
+        assertThat(Endpoints.familyOf(Endpoints.OTHER), is(Endpoints.OTHER));
+    }
+
+}
@@ -0,0 +1,127 @@
+package de.paydirekt.client.rest;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit Test for {@link IdempotencyRegistry}.
+ */
+public class IdempotencyRegistryTest {
+
+    private final IdempotencyRegistry subject = new IdempotencyRegistry(2);
+    private final RetryPolicy retryPolicy = RetryPolicyBuilder.aRetryPolicy()
+            .withMaxAttempts(3)
+            .withInitialBackoff(Duration.ZERO)
+            .build();
+
+    private final AtomicInteger operations = new AtomicInteger();
+    private final AtomicInteger reconciliations = new AtomicInteger();
+
+    @Test
+    public void shouldReturnRecordedResultOfCompletedOperation() {
+        assertThat(subject.execute("key", this::create, this::notFound, retryPolicy), is("created"));
+        assertThat(subject.execute("key", this::create, this::notFound, retryPolicy), is("created"));
+
+        assertThat(operations.get(), is(1));
+        assertThat(reconciliations.get(), is(0));
+    }
+
+    @Test
+    public void shouldReconcileInsteadOfRepeatingAmbiguousOperation() {
+        String result = subject.execute("key", () -> {
+            operations.incrementAndGet();
+            throw new RuntimeException(new IOException("Read timed out"));
+        }, () -> {
+            reconciliations.incrementAndGet();
+            return "reconciled";
+        }, retryPolicy);
+
+        assertThat(result, is("reconciled"));
+        assertThat(operations.get(), is(1));
+        assertThat(reconciliations.get(), is(1));
+    }
+
+    @Test
+    public void shouldRepeatAmbiguousOperationIfNotApplied() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = subject.execute("key", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new HttpStatusException(503, "unavailable");
+            }
+            return "created";
+        }, this::notFound, retryPolicy);
+
+        assertThat(result, is("created"));
+        assertThat(attempts.get(), is(2));
+        assertThat(reconciliations.get(), is(1));
+    }
+
+    @Test
+    public void shouldReconcileOnNextCallAfterAmbiguousFailure() {
+        try {
+            subject.execute("key", () -> {
+                throw new HttpStatusException(500, "error");
+            }, this::notFound, retryPolicy);
+            fail("should fail");
+        } catch (HttpStatusException e) {
+            assertThat(e.getStatusCode(), is(500));
+        }
+
+        assertThat(subject.execute("key", this::create, () -> "reconciled", retryPolicy), is("reconciled"));
+        assertThat(operations.get(), is(0));
+    }
+
+    @Test
+    public void shouldForgetRejectedOperation() {
+        try {
+            subject.execute("key", () -> {
+                throw new HttpStatusException(422, "invalid");
+            }, this::notFound, retryPolicy);
+            fail("should fail");
+        } catch (HttpStatusException e) {
+            assertThat(e.getStatusCode(), is(422));
+        }
+
+        assertThat(subject.execute("key", this::create, this::notFound, retryPolicy), is("created"));
+        assertThat(reconciliations.get(), is(0));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedRecords() {
+        subject.execute("key-1", this::create, this::notFound, retryPolicy);
+        subject.execute("key-2", this::create, this::notFound, retryPolicy);
+        subject.execute("key-3", this::create, this::notFound, retryPolicy);
+        subject.execute("key-1", this::create, this::notFound, retryPolicy);
+
+        assertThat(operations.get(), is(4));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectOperationInFlight() {
+        subject.execute("key", () -> subject.execute("key", this::create, this::notFound, retryPolicy), this::notFound, retryPolicy);
+    }
+
+    @Test
+    public void shouldDeriveStableRequestIds() {
+        assertThat(IdempotencyRegistry.requestIdOf("checkout#1"), is(IdempotencyRegistry.requestIdOf("checkout#1")));
+    }
+
+    private String create() {
+        operations.incrementAndGet();
+        return "created";
+    }
+
+    private String notFound() {
+        reconciliations.incrementAndGet();
+        return null;
+    }
+
+}
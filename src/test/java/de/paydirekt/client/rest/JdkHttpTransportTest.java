@@ -0,0 +1,146 @@
+package de.paydirekt.client.rest;
+
+import de.paydirekt.client.security.model.AccessToken;
+import de.paydirekt.client.security.model.ObtainTokenRequest;
+import de.paydirekt.client.testutil.StubHttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+
+/**
+ * Tests the {@link RequestExecutor} with the transport on {@code java.net.http.HttpClient} against a local http server.
+ */
+public class JdkHttpTransportTest {
+
+    private static final String TOKEN_RESPONSE = "{\"access_token\":\"token\",\"expires_in\":3600}";
+
+    private StubHttpServer server;
+    private RequestExecutor subject;
+
+    @Before
+    public void setUp() {
+        assumeFalse("requires Java 11", System.getProperty("java.specification.version").startsWith("1."));
+        server = StubHttpServer.start();
+        subject = RequestExecutorBuilder.aRequestExecutor()
+                .withJdkHttpClient()
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        if (subject != null) {
+            subject.close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void shouldDeserializeResponse() {
+        String url = server.respond("/token", 200, TOKEN_RESPONSE);
+
+        AccessToken accessToken = subject.executeRequest(new GetRequestBuilder(url).build(), AccessToken.class);
+
+        assertThat(accessToken.getAccess_token().toString(), is("token"));
+    }
+
+    @Test
+    public void shouldTreatZeroTimeoutsAsNone() {
+        String url = server.respond("/token", 200, TOKEN_RESPONSE);
+        RequestExecutor executor = RequestExecutorBuilder.aRequestExecutor()
+                .withJdkHttpClient()
+                .withConnectTimeout(Duration.ZERO)
+                .withSocketTimeout(Duration.ZERO)
+                .build();
+
+        try {
+            AccessToken accessToken = executor.executeRequest(new GetRequestBuilder(url).build(), AccessToken.class);
+
+            assertThat(accessToken.getAccess_token().toString(), is("token"));
+        } finally {
+            executor.close();
+        }
+    }
+
+    @Test
+    public void shouldSendEntityAndHeaders() {
+        String url = server.handle("/echo", exchange -> {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                byte[] buffer = new byte[1024];
+                for (int read = requestBody.read(buffer); read >= 0; read = requestBody.read(buffer)) {
+                    body.write(buffer, 0, read);
+                }
+            }
+            byte[] response = (exchange.getRequestHeaders().getFirst("X-Request-ID") + " "
+                    + exchange.getRequestHeaders().getFirst("Content-Type") + " " + body.toString("UTF-8")).getBytes(UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(response);
+            }
+        });
+
+        String response = subject.executeRequest(new PostRequestBuilder(url)
+                .withHeader("X-Request-ID", "1234")
+                .withEntity(new ObtainTokenRequest("nonce"))
+                .build());
+
+        assertThat(response, is("1234 application/hal+json; charset=UTF-8 {\"grantType\":\"api_key\",\"randomNonce\":\"nonce\"}"));
+    }
+
+    @Test
+    public void shouldThrowHttpStatusExceptionOnErrorStatus() {
+        String url = server.respond("/error", 400, "{\"error\":\"bad request\"}");
+
+        try {
+            subject.executeRequest(new GetRequestBuilder(url).build(), AccessToken.class);
+            fail("should fail");
+        } catch (HttpStatusException e) {
+            assertThat(e.getStatusCode(), is(400));
+            assertThat(e.getResponse(), is("{\"error\":\"bad request\"}"));
+        }
+    }
+
+    @Test
+    public void shouldDeserializeResponseAsynchronously() throws Exception {
+        String url = server.respond("/token", 200, TOKEN_RESPONSE);
+
+        List<CompletableFuture<AccessToken>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(subject.executeRequestAsync(new GetRequestBuilder(url).build(), AccessToken.class));
+        }
+
+        for (CompletableFuture<AccessToken> future : futures) {
+            assertThat(future.get().getAccess_token().toString(), is("token"));
+        }
+    }
+
+    @Test
+    public void shouldCompleteExceptionallyOnErrorStatus() throws Exception {
+        String url = server.respond("/error", 404, "not found");
+
+        try {
+            subject.executeRequestAsync(new GetRequestBuilder(url).build()).get();
+            fail("should fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(HttpStatusException.class));
+            assertThat(((HttpStatusException) e.getCause()).getStatusCode(), is(404));
+        }
+    }
+
+}
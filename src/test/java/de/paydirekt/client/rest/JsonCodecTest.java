@@ -0,0 +1,43 @@
+package de.paydirekt.client.rest;
+
+import de.paydirekt.client.capture.model.CaptureRequest;
+import de.paydirekt.client.security.model.AccessToken;
+import org.junit.Test;
+
+import static de.paydirekt.client.testutil.MocksFactory.newCaptureRequest;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit Test for {@link JsonCodec}
+ */
+public class JsonCodecTest {
+
+    private final JsonCodec subject = JsonCodec.getDefault();
+
+    @Test
+    public void shouldCacheReadersAndWriters() {
+        assertThat(subject.readerFor(AccessToken.class), sameInstance(subject.readerFor(AccessToken.class)));
+        assertThat(subject.writerFor(CaptureRequest.class), sameInstance(subject.writerFor(CaptureRequest.class)));
+    }
+
+    @Test
+    public void shouldSerializeRequest() throws Exception {
+        String json = subject.writerFor(CaptureRequest.class).writeValueAsString(newCaptureRequest());
+
+        assertThat(json, containsString("\"amount\":10"));
+        assertThat(json, containsString("\"merchantCaptureReferenceNumber\":\"capture-21323\""));
+    }
+
+    @Test
+    public void shouldIgnoreUnknownPropertiesWhenDeserializing() throws Exception {
+        AccessToken accessToken = subject.readerFor(AccessToken.class)
+                .readValue("{\"access_token\":\"token\",\"expires_in\":3600,\"token_type\":\"bearer\"}");
+
+        assertThat(accessToken.getAccess_token().toString(), is("token"));
+        assertThat(accessToken.getExpires_in(), is(3600L));
+    }
+
+}
@@ -0,0 +1,34 @@
+package de.paydirekt.client.rest;
+
+import de.paydirekt.client.security.model.ObtainTokenRequest;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit Test for {@link PostRequestBuilder}
+ */
+public class PostRequestBuilderTest {
+
+    private static final String EXPECTED_BODY = "{\"grantType\":\"api_key\",\"randomNonce\":\"n\u00f6nce\"}";
+
+    @Test
+    public void shouldSerializeEntityToUtf8Bytes() throws Exception {
+        HttpPost post = new PostRequestBuilder("http://localhost/token")
+                .withEntity(new ObtainTokenRequest("n\u00f6nce"))
+                .build();
+
+        HttpEntity entity = post.getEntity();
+
+        assertThat(EntityUtils.toString(entity, UTF_8), is(EXPECTED_BODY));
+        assertThat(entity.getContentLength(), is((long) EXPECTED_BODY.getBytes(UTF_8).length));
+        assertThat(entity.isRepeatable(), is(true));
+        assertThat(entity.getContentType().getValue(), is("application/hal+json; charset=UTF-8"));
+    }
+
+}
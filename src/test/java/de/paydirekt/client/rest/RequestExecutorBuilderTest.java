@@ -0,0 +1,39 @@
+package de.paydirekt.client.rest;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit Test for {@link RequestExecutorBuilder}
+ */
+public class RequestExecutorBuilderTest {
+
+    @Test
+    public void shouldConfigureConnectionPoolLimits() {
+        try (RequestExecutor requestExecutor = RequestExecutorBuilder.aRequestExecutor()
+                .withMaxConnectionsTotal(300)
+                .withMaxConnectionsPerRoute(150)
+                .withConnectTimeout(Duration.ofSeconds(2))
+                .withSocketTimeout(Duration.ofSeconds(10))
+                .withConnectionRequestTimeout(Duration.ofSeconds(1))
+                .withKeepAlive(Duration.ofSeconds(20))
+                .withMaxIdleTime(Duration.ofSeconds(10))
+                .build()) {
+
+            assertThat(requestExecutor.getPoolStats().getMax(), is(300));
+            assertThat(requestExecutor.getPoolStats().getLeased(), is(0));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveConnectionLimits() {
+        RequestExecutorBuilder.aRequestExecutor()
+                .withMaxConnectionsPerRoute(0)
+                .build();
+    }
+
+}
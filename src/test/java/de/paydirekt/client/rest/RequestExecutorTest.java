@@ -0,0 +1,374 @@
+package de.paydirekt.client.rest;
+
+import de.paydirekt.client.common.VirtualThreads;
+import de.paydirekt.client.security.model.AccessToken;
+import de.paydirekt.client.testutil.StubHttpServer;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests the functionality of {@link RequestExecutor} against a local http server.
+ */
+public class RequestExecutorTest {
+
+    private static final String TOKEN_RESPONSE = "{\"access_token\":\"token\",\"expires_in\":3600,\"scope\":\"ignored\"}";
+
+    private StubHttpServer server;
+    private RequestExecutor subject;
+
+    @Before
+    public void setUp() {
+        server = StubHttpServer.start();
+        subject = RequestExecutorBuilder.aRequestExecutor()
+                .withIoThreads(1)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        subject.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldDeserializeResponse() {
+        String url = server.respond("/token", 200, TOKEN_RESPONSE);
+
+        AccessToken accessToken = subject.executeRequest(new GetRequestBuilder(url).build(), AccessToken.class);
+
+        assertThat(accessToken.getAccess_token().toString(), is("token"));
+        assertThat(accessToken.getExpires_in(), is(3600L));
+    }
+
+    @Test
+    public void shouldThrowHttpStatusExceptionOnErrorStatus() {
+        String url = server.respond("/error", 400, "{\"error\":\"bad request\"}");
+
+        try {
+            subject.executeRequest(new GetRequestBuilder(url).build());
+            fail("should fail");
+        } catch (HttpStatusException e) {
+            assertThat(e.getStatusCode(), is(400));
+            assertThat(e.getResponse(), is("{\"error\":\"bad request\"}"));
+        }
+    }
+
+    @Test
+    public void shouldProvideErroneousResponseWhenDeserializing() {
+        String url = server.respond("/error", 401, "{\"error\":\"unauthorized\"}");
+
+        try {
+            subject.executeRequest(new GetRequestBuilder(url).build(), AccessToken.class);
+            fail("should fail");
+        } catch (HttpStatusException e) {
+            assertThat(e.getStatusCode(), is(401));
+            assertThat(e.getResponse(), is("{\"error\":\"unauthorized\"}"));
+        }
+        assertThat(subject.getPoolStats().getLeased(), is(0));
+    }
+
+    @Test
+    public void shouldReleaseConnectionOnMalformedResponse() {
+        String url = server.respond("/malformed", 200, "{\"access_token\":");
+
+        try {
+            subject.executeRequest(new GetRequestBuilder(url).build(), AccessToken.class);
+            fail("should fail");
+        } catch (ResponseDeserializationException e) {
+            assertThat(e.getResponseType(), is((Object) AccessToken.class));
+        }
+        assertThat(subject.getPoolStats().getLeased(), is(0));
+    }
+
+    @Test
+    public void shouldDeserializeResponseAsynchronously() throws Exception {
+        String url = server.respond("/token", 200, TOKEN_RESPONSE);
+
+        List<CompletableFuture<AccessToken>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(subject.executeRequestAsync(new GetRequestBuilder(url).build(), AccessToken.class));
+        }
+
+        for (CompletableFuture<AccessToken> future : futures) {
+            assertThat(future.get().getAccess_token().toString(), is("token"));
+        }
+    }
+
+    @Test
+    public void shouldCompleteExceptionallyOnErrorStatus() throws Exception {
+        String url = server.respond("/error", 503, "unavailable");
+
+        try {
+            subject.executeRequestAsync(new GetRequestBuilder(url).build()).get();
+            fail("should fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(HttpStatusException.class));
+            assertThat(((HttpStatusException) e.getCause()).getStatusCode(), is(503));
+        }
+    }
+
+    @Test
+    public void shouldRetryIdempotentRequestsOnTransientErrors() {
+        String url = server.respondInSequence("/flaky", TOKEN_RESPONSE, 503, 200);
+
+        AccessToken accessToken = subject.executeRequest(new GetRequestBuilder(url).build(), AccessToken.class);
+
+        assertThat(accessToken.getAccess_token().toString(), is("token"));
+    }
+
+    @Test
+    public void shouldNotRetryPostRequests() {
+        String url = server.respondInSequence("/flaky", TOKEN_RESPONSE, 503, 200);
+
+        try {
+            subject.executeRequest(new PostRequestBuilder(url).build(), AccessToken.class);
+            fail("should fail");
+        } catch (HttpStatusException e) {
+            assertThat(e.getStatusCode(), is(503));
+        }
+    }
+
+    @Test
+    public void shouldRecordMetrics() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        String url = server.respond("/checkouts", 200, TOKEN_RESPONSE);
+
+        try (RequestExecutor executor = RequestExecutorBuilder.aRequestExecutor().withMetrics(metrics).build()) {
+            executor.executeRequest(new PostRequestBuilder(url).build(), AccessToken.class);
+        }
+
+        assertThat(metrics.events, contains(
+                "bind",
+                "deserialized checkout.create AccessToken",
+                "read checkout.create " + TOKEN_RESPONSE.length(),
+                "completed checkout.create 200"));
+    }
+
+    @Test
+    public void shouldRecordStatusOfErroneousResponses() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        String url = server.respond("/error", 400, "bad");
+
+        try (RequestExecutor executor = RequestExecutorBuilder.aRequestExecutor().withMetrics(metrics).build()) {
+            executor.executeRequest(new GetRequestBuilder(url).build(), AccessToken.class);
+            fail("should fail");
+        } catch (HttpStatusException e) {
+            assertThat(metrics.events, contains("bind", "read other 3", "completed other 400"));
+        }
+    }
+
+    @Test
+    public void shouldRejectRequestsWhileCircuitIsOpen() {
+        AtomicInteger received = new AtomicInteger();
+        String url = server.respond("/checkouts/1", 500, uri -> {
+            received.incrementAndGet();
+            return "error";
+        });
+        RecordingMetrics metrics = new RecordingMetrics();
+
+        try (RequestExecutor executor = RequestExecutorBuilder.aRequestExecutor()
+                .withMetrics(metrics)
+                .withRetryPolicy(RetryPolicy.NONE)
+                .withCircuitBreaker(CircuitBreakerBuilder.aCircuitBreaker().withMinimumNumberOfCalls(2))
+                .build()) {
+            for (int i = 0; i < 2; i++) {
+                try {
+                    executor.executeRequest(new GetRequestBuilder(url).build(), AccessToken.class);
+                    fail("should fail");
+                } catch (HttpStatusException e) {
+                    assertThat(e.getStatusCode(), is(500));
+                }
+            }
+            try {
+                executor.executeRequest(new GetRequestBuilder(url).build(), AccessToken.class);
+                fail("should fail");
+            } catch (CallRejectedException e) {
+                assertThat(e.getReason(), is(CallRejectedException.Reason.CIRCUIT_OPEN));
+            }
+
+            assertThat(received.get(), is(2));
+            assertThat(executor.getCircuitBreaker("checkout").getState(), is(CircuitBreaker.State.OPEN));
+            assertThat(executor.getCircuitBreaker("capture").getState(), is(CircuitBreaker.State.CLOSED));
+            assertThat(metrics.events.get(metrics.events.size() - 1), is("rejected checkout.get CIRCUIT_OPEN"));
+        }
+    }
+
+    @Test
+    public void shouldRejectRequestsBeyondBulkheadLimit() throws Exception {
+        CountDownLatch requestReceived = new CountDownLatch(1);
+        CountDownLatch responseReleased = new CountDownLatch(1);
+        String url = server.handle("/reports/transactions", exchange -> {
+            requestReceived.countDown();
+            try {
+                responseReleased.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = TOKEN_RESPONSE.getBytes("UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+
+        try (RequestExecutor executor = RequestExecutorBuilder.aRequestExecutor()
+                .withBulkhead(10, Duration.ZERO)
+                .withBulkhead("reports", 1)
+                .build()) {
+            CompletableFuture<AccessToken> pending = executor.executeRequestAsync(new GetRequestBuilder(url).build(), AccessToken.class);
+            requestReceived.await(10, TimeUnit.SECONDS);
+
+            try {
+                executor.executeRequest(new GetRequestBuilder(url).build(), AccessToken.class);
+                fail("should fail");
+            } catch (CallRejectedException e) {
+                assertThat(e.getReason(), is(CallRejectedException.Reason.BULKHEAD_FULL));
+            }
+
+            responseReleased.countDown();
+            assertThat(pending.get().getAccess_token().toString(), is("token"));
+            assertThat(executor.executeRequest(new GetRequestBuilder(url).build(), AccessToken.class).getAccess_token().toString(), is("token"));
+        }
+    }
+
+    @Test
+    public void shouldQueueAsynchronousRequestsBeyondConcurrencyLimit() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        String url = server.handle("/checkouts/2", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = TOKEN_RESPONSE.getBytes("UTF-8");
+            inFlight.decrementAndGet();
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        RecordingMetrics metrics = new RecordingMetrics();
+        ConcurrencyLimiter limiter = ConcurrencyLimiterBuilder.aConcurrencyLimiter()
+                .withInitialLimit(2)
+                .withLimitRange(2, 2)
+                .build();
+
+        try (RequestExecutor executor = RequestExecutorBuilder.aRequestExecutor()
+                .withMetrics(metrics)
+                .withConcurrencyLimiter(limiter)
+                .build()) {
+            List<CompletableFuture<AccessToken>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(executor.executeRequestAsync(new GetRequestBuilder(url).build(), AccessToken.class));
+            }
+            for (CompletableFuture<AccessToken> future : futures) {
+                assertThat(future.get(10, TimeUnit.SECONDS).getAccess_token().toString(), is("token"));
+            }
+        }
+
+        assertThat(maxInFlight.get(), is(2));
+        assertThat(limiter.getInFlight(), is(0));
+        assertThat(metrics.events.contains("queued checkout.get"), is(true));
+    }
+
+    @Test
+    public void shouldExecuteAsynchronousRequestsOnVirtualThreads() throws Exception {
+        assumeTrue("requires Java 21", VirtualThreads.isSupported());
+        AtomicInteger received = new AtomicInteger();
+        String url = server.respond("/token", 200, uri -> {
+            received.incrementAndGet();
+            return TOKEN_RESPONSE;
+        });
+        String errorUrl = server.respond("/error", 400, "bad");
+
+        try (RequestExecutor executor = RequestExecutorBuilder.aRequestExecutor().withVirtualThreads().build()) {
+            List<CompletableFuture<AccessToken>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(executor.executeRequestAsync(new GetRequestBuilder(url).build(), AccessToken.class)
+                        .thenApply(accessToken -> {
+                            assertThat(VirtualThreads.isVirtual(Thread.currentThread()), is(true));
+                            return accessToken;
+                        }));
+            }
+            for (CompletableFuture<AccessToken> future : futures) {
+                assertThat(future.get(10, TimeUnit.SECONDS).getAccess_token().toString(), is("token"));
+            }
+
+            try {
+                executor.executeRequestAsync(new GetRequestBuilder(errorUrl).build()).get();
+                fail("should fail");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(HttpStatusException.class));
+            }
+        }
+
+        assertThat(received.get(), is(50));
+    }
+
+    /**
+     * Records the metrics as readable events.
+     */
+    private static final class RecordingMetrics implements RequestMetrics {
+
+        private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void requestCompleted(String endpoint, int statusCode, long durationNanos) {
+            events.add("completed " + endpoint + " " + statusCode);
+        }
+
+        @Override
+        public void requestFailed(String endpoint, Throwable error, long durationNanos) {
+            events.add("failed " + endpoint);
+        }
+
+        @Override
+        public void requestRejected(String endpoint, CallRejectedException.Reason reason) {
+            events.add("rejected " + endpoint + " " + reason);
+        }
+
+        @Override
+        public void requestQueued(String endpoint, long waitNanos) {
+            events.add("queued " + endpoint);
+        }
+
+        @Override
+        public void responseBodyRead(String endpoint, long bytes) {
+            events.add("read " + endpoint + " " + bytes);
+        }
+
+        @Override
+        public void responseDeserialized(String endpoint, Class<?> type, long durationNanos) {
+            events.add("deserialized " + endpoint + " " + type.getSimpleName());
+        }
+
+        @Override
+        public void bindConnectionPool(Supplier<PoolStats> poolStats) {
+            events.add("bind");
+        }
+    }
+
+}
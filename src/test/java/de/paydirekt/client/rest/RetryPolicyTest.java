@@ -0,0 +1,195 @@
+package de.paydirekt.client.rest;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import de.paydirekt.client.security.model.AccessToken;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit Test for {@link RetryPolicy}.
+ */
+public class RetryPolicyTest {
+
+    private final RetryPolicy subject = RetryPolicyBuilder.aRetryPolicy()
+            .withMaxAttempts(3)
+            .withInitialBackoff(Duration.ofMillis(1))
+            .build();
+
+    @Test
+    public void shouldRetryTransientStatusUntilSuccess() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = subject.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new HttpStatusException(503, "unavailable");
+            }
+            return "ok";
+        });
+
+        assertThat(result, is("ok"));
+        assertThat(attempts.get(), is(3));
+    }
+
+    @Test
+    public void shouldRetryIoErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = subject.execute(() -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new RuntimeException(new IOException("Connection reset"));
+            }
+            return "ok";
+        });
+
+        assertThat(result, is("ok"));
+        assertThat(attempts.get(), is(2));
+    }
+
+    @Test
+    public void shouldNotRetryMalformedResponse() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            subject.execute(() -> {
+                attempts.incrementAndGet();
+                try {
+                    return JsonCodec.getDefault().readerFor(AccessToken.class).readValue("{\"access_token\":");
+                } catch (IOException e) {
+                    throw new ResponseDeserializationException(AccessToken.class, e);
+                }
+            });
+            fail("should fail");
+        } catch (ResponseDeserializationException e) {
+            assertThat(attempts.get(), is(1));
+        }
+    }
+
+    @Test
+    public void shouldNotRetryMalformedContent() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            subject.execute(() -> {
+                attempts.incrementAndGet();
+                throw new RuntimeException(new JsonParseException(null, "Unexpected end-of-input"));
+            });
+            fail("should fail");
+        } catch (RuntimeException e) {
+            assertThat(attempts.get(), is(1));
+        }
+    }
+
+    @Test
+    public void shouldNotRetryClientErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            subject.execute(() -> {
+                attempts.incrementAndGet();
+                throw new HttpStatusException(400, "bad request");
+            });
+            fail("should fail");
+        } catch (HttpStatusException e) {
+            assertThat(attempts.get(), is(1));
+        }
+    }
+
+    @Test
+    public void shouldGiveUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            subject.execute(() -> {
+                attempts.incrementAndGet();
+                throw new HttpStatusException(503, "unavailable");
+            });
+            fail("should fail");
+        } catch (HttpStatusException e) {
+            assertThat(attempts.get(), is(3));
+        }
+    }
+
+    @Test
+    public void shouldStopRetryingIfBudgetIsExhausted() {
+        RetryPolicy policy = RetryPolicyBuilder.aRetryPolicy()
+                .withMaxAttempts(10)
+                .withInitialBackoff(Duration.ZERO)
+                .withRetryBudget(0, 2)
+                .build();
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            policy.execute(() -> {
+                attempts.incrementAndGet();
+                throw new HttpStatusException(503, "unavailable");
+            });
+            fail("should fail");
+        } catch (HttpStatusException e) {
+            assertThat(attempts.get(), is(3));
+        }
+    }
+
+    @Test
+    public void shouldRetryAsynchronously() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = subject.executeAsync(() -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            if (attempts.incrementAndGet() < 3) {
+                future.completeExceptionally(new HttpStatusException(502, "bad gateway"));
+            } else {
+                future.complete("ok");
+            }
+            return future;
+        });
+
+        assertThat(result.get(), is("ok"));
+        assertThat(attempts.get(), is(3));
+    }
+
+    @Test
+    public void shouldFailAsynchronouslyWithLastError() throws Exception {
+        CompletableFuture<String> result = subject.executeAsync(() -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            future.completeExceptionally(new HttpStatusException(504, "timeout"));
+            return future;
+        });
+
+        try {
+            result.get();
+            fail("should fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(HttpStatusException.class));
+        }
+    }
+
+    @Test
+    public void shouldBoundBackoff() {
+        RetryPolicy policy = RetryPolicyBuilder.aRetryPolicy()
+                .withInitialBackoff(Duration.ofMillis(100))
+                .withMaxBackoff(Duration.ofMillis(300))
+                .build();
+
+        for (int attempt = 1; attempt < 100; attempt++) {
+            assertThat(policy.backoff(attempt).toMillis(), lessThanOrEqualTo(300L));
+        }
+        assertThat(policy.backoff(1).toMillis(), lessThanOrEqualTo(100L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveAttempts() {
+        RetryPolicyBuilder.aRetryPolicy().withMaxAttempts(0).build();
+    }
+
+}
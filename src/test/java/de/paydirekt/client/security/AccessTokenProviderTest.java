@@ -0,0 +1,174 @@
+package de.paydirekt.client.security;
+
+import de.paydirekt.client.rest.RequestExecutor;
+import de.paydirekt.client.security.model.AccessToken;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static de.paydirekt.client.testutil.TestProperties.API_KEY;
+import static de.paydirekt.client.testutil.TestProperties.API_SECRET;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit Test for {@link AccessTokenProvider}
+ */
+public class AccessTokenProviderTest {
+
+    private StubSecurityClient securityClient;
+    private AccessTokenProvider subject;
+
+    @Before
+    public void setUp() {
+        securityClient = new StubSecurityClient();
+    }
+
+    @After
+    public void tearDown() {
+        subject.close();
+    }
+
+    @Test
+    public void shouldCacheAccessToken() {
+        AccessToken token = new AccessToken("token", 3600L);
+        securityClient.returning(token);
+        subject = new AccessTokenProvider(securityClient);
+
+        assertThat(subject.getAccessToken(), sameInstance(token));
+        assertThat(subject.getAccessToken(), sameInstance(token));
+        assertThat(securityClient.invocations.get(), is(1));
+    }
+
+    @Test
+    public void shouldObtainNewTokenWhenExpired() {
+        AccessToken expiredToken = new AccessToken("expired", 0L);
+        AccessToken freshToken = new AccessToken("fresh", 3600L);
+        securityClient.returning(expiredToken, freshToken);
+        subject = new AccessTokenProvider(securityClient);
+
+        subject.getAccessToken();
+
+        assertThat(subject.getAccessToken(), sameInstance(freshToken));
+    }
+
+    @Test
+    public void shouldRefreshTokenInBackgroundBeforeExpiry() throws Exception {
+        AccessToken firstToken = new AccessToken("first", 1L);
+        AccessToken secondToken = new AccessToken("second", 3600L);
+        securityClient.returning(firstToken, secondToken);
+        subject = new AccessTokenProvider(securityClient, Duration.ofSeconds(30));
+
+        assertThat(subject.getAccessToken(), sameInstance(firstToken));
+        // the refresh is due after half of the lifetime, polled instead of slept to tolerate slow machines
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subject.getAccessToken() != secondToken && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        assertThat(subject.getAccessToken(), sameInstance(secondToken));
+        assertThat(securityClient.invocations.get(), is(2));
+        // obtained by the background refresh, not on demand after the first token expired
+        assertThat(securityClient.threads.get(1), is("paydirekt-access-token-refresh"));
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentRefreshes() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        securityClient.answering(() -> {
+            awaitQuietly(release);
+            return new AccessToken("token", 3600L);
+        });
+        subject = new AccessTokenProvider(securityClient);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<AccessToken>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executorService.submit(subject::getAccessToken));
+        }
+        TimeUnit.MILLISECONDS.sleep(200);
+        release.countDown();
+
+        AccessToken token = futures.get(0).get();
+        for (Future<AccessToken> future : futures) {
+            assertThat(future.get(), sameInstance(token));
+        }
+        executorService.shutdown();
+        assertThat(securityClient.invocations.get(), is(1));
+    }
+
+    @Test
+    public void shouldPropagateFailureToCaller() {
+        securityClient.answering(() -> {
+            throw new IllegalStateException("unavailable");
+        });
+        subject = new AccessTokenProvider(securityClient);
+
+        IllegalStateException thrown = null;
+        try {
+            subject.getAccessToken();
+        } catch (IllegalStateException e) {
+            thrown = e;
+        }
+
+        assertThat(thrown, notNullValue());
+        assertThat(thrown.getMessage(), is("unavailable"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Security client which returns predefined tokens instead of calling the token obtain endpoint.
+     */
+    private static class StubSecurityClient extends SecurityClient {
+
+        private final AtomicInteger invocations = new AtomicInteger();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+        private final Deque<AccessToken> tokens = new ArrayDeque<>();
+        private Supplier<AccessToken> answer;
+
+        StubSecurityClient() {
+            super("http://localhost/token", API_KEY, API_SECRET, new RequestExecutor());
+        }
+
+        void returning(AccessToken... accessTokens) {
+            tokens.addAll(Arrays.asList(accessTokens));
+            answer = () -> tokens.size() > 1 ? tokens.poll() : tokens.peek();
+        }
+
+        void answering(Supplier<AccessToken> answer) {
+            this.answer = answer;
+        }
+
+        @Override
+        public AccessToken getAccessToken() {
+            invocations.incrementAndGet();
+            threads.add(Thread.currentThread().getName());
+            return answer.get();
+        }
+    }
+
+}
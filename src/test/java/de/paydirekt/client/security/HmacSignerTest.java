@@ -0,0 +1,88 @@
+package de.paydirekt.client.security;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit Test for {@link HmacSigner}.
+ */
+public class HmacSignerTest {
+
+    private static final String API_SECRET = "JrXRHCnUegQJAYSJ5J6OvEuOUOpy2q2-MHPoH_IECRY=";
+    private static final String STRING_TO_SIGN = "f3fea5f3-60af-496f-ac3e-dbb10924e87a:20160201094942:e81d298b-60dd-4f46-9ec9-1dbc72f5b5df:Qg5f0Q3ly1Cwh5M9zcw57jwHI_HPoKbjdHLurXGpPg0yazdC6OWPpwnYi22bnB6S";
+    private static final String SIGNATURE = "ps9MooGiTeTXIkPkUWbHG4rlF3wuTJuZ9qcMe-Y41xE=";
+
+    @Test
+    public void thatSignatureIsCorrect() {
+        HmacSigner signer = new HmacSigner(API_SECRET);
+
+        assertThat(signer.sign(STRING_TO_SIGN), is(SIGNATURE));
+        assertThat("Signer should be reusable", signer.sign(STRING_TO_SIGN), is(SIGNATURE));
+    }
+
+    @Test
+    public void thatSignatureIsCorrectOnConcurrentThreads() throws Exception {
+        HmacSigner signer = new HmacSigner(API_SECRET);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> signatures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                signatures.add(executor.submit(() -> signer.sign(STRING_TO_SIGN)));
+            }
+            for (Future<String> signature : signatures) {
+                assertThat(signature.get(), is(SIGNATURE));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void thatSignatureOfPartsMatchesSignatureOfStringToSign() {
+        HmacSigner signer = new HmacSigner(API_SECRET);
+        String requestId = "f3fea5f3-60af-496f-ac3e-dbb10924e87a";
+        String apiKey = "e81d298b-60dd-4f46-9ec9-1dbc72f5b5df";
+        String randomNonce = "Qg5f0Q3ly1Cwh5M9zcw57jwHI_HPoKbjdHLurXGpPg0yazdC6OWPpwnYi22bnB6S";
+        Random random = new Random(42);
+
+        for (int i = 0; i < 1000; i++) {
+            Instant timestamp = Instant.ofEpochMilli(Math.floorMod(random.nextLong(), 253402300799000L));
+            String stringToSign = Hmac.stringToSign(requestId, timestamp, apiKey, randomNonce);
+
+            assertThat(stringToSign, signer.sign(requestId, timestamp, apiKey, randomNonce), is(signer.sign(stringToSign)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thatSignatureFailsWithUnrepresentableTimestamp() {
+        new HmacSigner(API_SECRET).sign("f3fea5f3-60af-496f-ac3e-dbb10924e87a", Instant.parse("+10000-01-01T00:00:00Z"),
+                "e81d298b-60dd-4f46-9ec9-1dbc72f5b5df", "Qg5f0Q3ly1Cwh5M9zcw57jwHI_HPoKbjdHLurXGpPg0yazdC6OWPpwnYi22bnB6S");
+    }
+
+    @Test
+    public void thatSignersAreCachedPerSecret() {
+        assertThat(Hmac.signer(API_SECRET), is(sameInstance(Hmac.signer(API_SECRET))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thatSignerFailsWithInvalidSecret() {
+        new HmacSigner("tooShort");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thatCachedSignerFailsWithMissingSecret() {
+        Hmac.signer(null);
+    }
+
+}
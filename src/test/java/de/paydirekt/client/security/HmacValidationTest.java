@@ -2,7 +2,14 @@ package de.paydirekt.client.security;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -47,6 +54,34 @@ public class HmacValidationTest {
     }
 
 
+    @Test
+    public void uuid_invalid_upperCase() throws Exception {
+        assertFalse(Hmac.isUuid("F3FEA5F3-60AF-496F-AC3E-DBB10924E87A"));
+    }
+
+    @Test
+    public void uuid_invalid_version() throws Exception {
+        assertFalse(Hmac.isUuid("f3fea5f3-60af-696f-ac3e-dbb10924e87a"));
+    }
+
+    @Test
+    public void uuid_invalid_variant() throws Exception {
+        assertFalse(Hmac.isUuid("f3fea5f3-60af-496f-cc3e-dbb10924e87a"));
+    }
+
+    @Test
+    public void uuid_matchesPattern() throws Exception {
+        String uuid = "f3fea5f3-60af-496f-ac3e-dbb10924e87a";
+        List<Character> replacements = Arrays.asList('0', '1', '5', '6', '8', 'b', 'c', 'f', 'g', 'A', '-', '_');
+        for (int i = 0; i < uuid.length(); i++) {
+            for (char replacement : replacements) {
+                String candidate = uuid.substring(0, i) + replacement + uuid.substring(i + 1);
+                assertThat(candidate, Hmac.isUuid(candidate),
+                        is(candidate.matches("^[0-9a-f]{8}-[0-9a-f]{4}-[1-5][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$")));
+            }
+        }
+    }
+
     @Test
     public void base64url_valid() throws Exception {
         assertTrue(Hmac.isBase64UrlEncoded("Qg5f0Q3ly1Cwh5M9zcw57jwHI_HPoKbjdHLurXGpPg0yazdC6OWPpwnYi22bnB6S"));
@@ -68,6 +103,38 @@ public class HmacValidationTest {
     }
 
 
+    @Test
+    public void base64url_matchesPattern() throws Exception {
+        char[] alphabet = "aZ09_-=+/ ".toCharArray();
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            char[] candidate = new char[1 + random.nextInt(8)];
+            for (int j = 0; j < candidate.length; j++) {
+                candidate[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String string = new String(candidate);
+            assertThat(string, Hmac.isBase64UrlEncoded(string), is(string.matches("[a-zA-Z0-9_-]+[=]{0,2}")));
+        }
+    }
+
+    @Test
+    public void decodedLength_matchesDecoder() throws Exception {
+        Random random = new Random(42);
+        for (int length = 0; length < 48; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            String padded = Base64.getUrlEncoder().encodeToString(bytes);
+            String unpadded = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+            assertThat(padded, Hmac.decodedLength(padded), is(length));
+            assertThat(unpadded, Hmac.decodedLength(unpadded), is(length));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodedLength_invalid_padding() throws Exception {
+        Hmac.decodedLength("abcde=");
+    }
+
     @Test
     public void apiKey_valid() throws Exception {
         Hmac.validateApiKey("f3fea5f3-60af-496f-ac3e-dbb10924e87a");
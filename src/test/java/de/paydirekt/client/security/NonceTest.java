@@ -2,6 +2,14 @@ package de.paydirekt.client.security;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
@@ -25,4 +33,56 @@ public class NonceTest {
         assertThat("Nonce should be different", nonce1, not(nonce2));
     }
 
+    @Test
+    public void thatThreadLocalGeneratorCreatesValidNonces() throws Exception {
+        assertUniqueValidNonces(new ThreadLocalNonceGenerator());
+    }
+
+    @Test
+    public void thatBufferedGeneratorCreatesValidNonces() throws Exception {
+        try (BufferedNonceGenerator generator = new BufferedNonceGenerator(16)) {
+            assertUniqueValidNonces(generator);
+        }
+    }
+
+    @Test
+    public void thatClosedBufferedGeneratorStillCreatesNonces() {
+        BufferedNonceGenerator generator = new BufferedNonceGenerator();
+        generator.close();
+
+        String nonce = generator.createNonce();
+
+        Hmac.validateNonce(nonce);
+        assertThat(nonce.length(), is(64));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thatBufferedGeneratorRequiresPositiveCapacity() {
+        new BufferedNonceGenerator(0);
+    }
+
+    private static void assertUniqueValidNonces(NonceGenerator generator) throws Exception {
+        Set<String> nonces = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 500; j++) {
+                        String nonce = generator.createNonce();
+                        Hmac.validateNonce(nonce);
+                        assertThat(nonce.length(), is(64));
+                        nonces.add(nonce);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat("Nonces should be different", nonces.size(), is(4000));
+    }
+
 }
@@ -0,0 +1,116 @@
+package de.paydirekt.client.security;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit Test for {@link SignatureLogPolicy}.
+ */
+public class SignatureLogPolicyTest {
+
+    private static final String REQUEST_ID = "f3fea5f3-60af-496f-ac3e-dbb10924e87a";
+    private static final String API_KEY = "e81d298b-60dd-4f46-9ec9-1dbc72f5b5df";
+    private static final String API_SECRET = "JrXRHCnUegQJAYSJ5J6OvEuOUOpy2q2-MHPoH_IECRY=";
+    private static final String NONCE = "Qg5f0Q3ly1Cwh5M9zcw57jwHI_HPoKbjdHLurXGpPg0yazdC6OWPpwnYi22bnB6S";
+
+    private final Logger hmacLogger = (Logger) LoggerFactory.getLogger(Hmac.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private SignatureLogPolicy.Mode previousMode;
+    private Level previousLevel;
+
+    @Before
+    public void setUp() {
+        previousMode = SignatureLogPolicy.getMode();
+        previousLevel = hmacLogger.getLevel();
+        hmacLogger.setLevel(Level.INFO);
+        appender.start();
+        hmacLogger.addAppender(appender);
+    }
+
+    @After
+    public void tearDown() {
+        hmacLogger.detachAppender(appender);
+        hmacLogger.setLevel(previousLevel);
+        SignatureLogPolicy.setMode(previousMode);
+    }
+
+    @Test
+    public void thatNothingIsLoggedIfOff() {
+        SignatureLogPolicy.setMode(SignatureLogPolicy.Mode.OFF);
+
+        sign(10);
+
+        assertThat(appender.list.size(), is(0));
+    }
+
+    @Test
+    public void thatEverySignatureIsLoggedIfAll() {
+        SignatureLogPolicy.setMode(SignatureLogPolicy.Mode.ALL);
+
+        sign(10);
+
+        assertThat(appender.list.size(), is(10));
+    }
+
+    @Test
+    public void thatSignaturesAreSampled() {
+        SignatureLogPolicy.setMode(SignatureLogPolicy.Mode.SAMPLED);
+
+        sign(10);
+
+        assertThat("At most one signature should be logged per interval", appender.list.size() <= 1, is(true));
+    }
+
+    @Test
+    public void thatOneSampleIsTakenPerInterval() {
+        long now = System.nanoTime() + SignatureLogPolicy.SAMPLE_INTERVAL.toNanos();
+
+        assertThat(SignatureLogPolicy.sample(now), is(true));
+        assertThat(SignatureLogPolicy.sample(now + 1), is(false));
+        assertThat(SignatureLogPolicy.sample(now + SignatureLogPolicy.SAMPLE_INTERVAL.toNanos()), is(true));
+    }
+
+    @Test
+    public void thatSamplingIsDefaultOutsideProduction() {
+        assertThat(SignatureLogPolicy.defaultMode(), is(SignatureLogPolicy.Mode.SAMPLED));
+    }
+
+    @Test
+    public void thatInvalidModePropertyFallsBackToDefault() {
+        System.setProperty(SignatureLogPolicy.MODE_PROPERTY, "verbose");
+        try {
+            assertThat(SignatureLogPolicy.defaultMode(), is(SignatureLogPolicy.Mode.SAMPLED));
+        } finally {
+            System.clearProperty(SignatureLogPolicy.MODE_PROPERTY);
+        }
+    }
+
+    @Test
+    public void thatModePropertyIsCaseInsensitive() {
+        System.setProperty(SignatureLogPolicy.MODE_PROPERTY, " All ");
+        try {
+            assertThat(SignatureLogPolicy.defaultMode(), is(SignatureLogPolicy.Mode.ALL));
+        } finally {
+            System.clearProperty(SignatureLogPolicy.MODE_PROPERTY);
+        }
+    }
+
+    private static void sign(int times) {
+        for (int i = 0; i < times; i++) {
+            Hmac.signature(REQUEST_ID, Instant.now(), API_KEY, API_SECRET, NONCE);
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+package de.paydirekt.client.testutil;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A local http server which answers requests with predefined responses.
+ */
+public class StubHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    private StubHttpServer(HttpServer server) {
+        this.server = server;
+    }
+
+    public static StubHttpServer start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return new StubHttpServer(server);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Answers all requests to the given path with the given status code and body.
+     *
+     * @param path       The path of the requests.
+     * @param statusCode The status code of the response.
+     * @param body       The body of the response.
+     * @return The URL of the path.
+     */
+    public String respond(String path, int statusCode, String body) {
+        return respond(path, statusCode, uri -> body);
+    }
+
+    /**
+     * Answers all requests to the given path with the given status code and a body depending on the request URI.
+     *
+     * @param path       The path of the requests.
+     * @param statusCode The status code of the response.
+     * @param body       Creates the body of the response from the request URI.
+     * @return The URL of the path.
+     */
+    public String respond(String path, int statusCode, Function<URI, String> body) {
+        return respond(path, requestNumber -> statusCode, body);
+    }
+
+    /**
+     * Answers the requests to the given path with the given status codes in order, the last one repeatedly.
+     *
+     * @param path        The path of the requests.
+     * @param body        The body of the responses.
+     * @param statusCodes The status codes of the responses.
+     * @return The URL of the path.
+     */
+    public String respondInSequence(String path, String body, int... statusCodes) {
+        return respond(path, requestNumber -> statusCodes[Math.min(requestNumber, statusCodes.length - 1)], uri -> body);
+    }
+
+    private String respond(String path, Function<Integer, Integer> statusCode, Function<URI, String> body) {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext(path, exchange -> {
+            byte[] bytes = body.apply(exchange.getRequestURI()).getBytes(UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/hal+json");
+            exchange.sendResponseHeaders(statusCode.apply(requests.getAndIncrement()), bytes.length == 0 ? -1 : bytes.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+        });
+        return url(path);
+    }
+
+    /**
+     * Answers the requests to the given path with a custom handler.
+     *
+     * @param path    The path of the requests.
+     * @param handler The handler of the requests.
+     * @return The URL of the path.
+     */
+    public String handle(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+        return url(path);
+    }
+
+    public String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}